@@ -0,0 +1,220 @@
+package com.hs2n.exercise.lifegame.model;
+
+import com.hs2n.exercise.lifegame.model.core.ILifeGameField;
+
+/**
+ * 標準のライフゲームをビットボードで扱う二次元平面クラスです。
+ *
+ * <p>
+ * ルールは {@link DefaultLifeGameField} と同じですが、世代の求め方が異なります。
+ * 世代の更新時に各行を 1 セル 1 ビットで long 配列に詰め込み、
+ * 近傍に存在する生命体の数を、{@link BitPlanes} のビット並列の加算器で 64 セル分まとめて求めます。
+ * 二次元平面の外側や無効セルは、番兵の代わりに有効セルのマスクで表現します。
+ * </p>
+ *
+ * <p>
+ * 誕生と生存の条件は、{@link LifeLikeRule} のビットマスクからビット並列の論理演算で判定します。
+ * そのため、B/S 表記で表せる任意のルールを標準のライフゲームと同じ方法で更新できます。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ */
+public class BitBoardLifeGameField extends DefaultLifeGameField {
+
+    /**
+     * 更新直前の世代の生命体の有無を詰め込んだビットボードです。
+     * 世代をまたいで使い回します。
+     */
+    private long[] packedLives;
+
+    /**
+     * 有効セルを詰め込んだビットボードです。
+     * 世代をまたいで使い回します。
+     */
+    private long[] packedEnables;
+
+    /**
+     * 次の世代の生命体の有無を書き込むビットボードです。
+     * 世代をまたいで使い回します。
+     */
+    private long[] nextPackedLives;
+
+    /**
+     * 指定されたパラメータでビットボードのライフゲーム二次元平面を構築します。
+     *
+     * <p>
+     * このコンストラクタはインスタンスの複製用で、copyLifeGameField の実装のために使用します。
+     * </p>
+     *
+     * @param rowSize 行サイズ
+     * @param columnSize 列サイズ
+     * @param rule ルール
+     * @param states セルの集合を表す内部表現
+     * @param enables 有効セルを表すマスク
+     */
+    protected BitBoardLifeGameField(int rowSize, int columnSize, LifeLikeRule rule, byte[] states,
+        boolean[] enables) {
+        super(rowSize, columnSize, rule, states, enables);
+    }
+
+    /**
+     * 指定された行列サイズでビットボードのライフゲーム二次元平面を構築します。
+     *
+     * @param rowSize 行サイズ
+     * @param columnSize 列サイズ
+     */
+    public BitBoardLifeGameField(int rowSize, int columnSize) {
+        super(rowSize, columnSize);
+    }
+
+    /**
+     * 指定された行列サイズとルールでビットボードのライフゲーム二次元平面を構築します。
+     *
+     * @param rowSize 行サイズ
+     * @param columnSize 列サイズ
+     * @param rule ルール
+     */
+    public BitBoardLifeGameField(int rowSize, int columnSize, LifeLikeRule rule) {
+        super(rowSize, columnSize, rule);
+    }
+
+    /**
+     * 更新直前の世代の内部表現から、次の世代の内部表現をビット並列演算で求めます。
+     *
+     * <p>
+     * 各ワードについて、上下左右斜めの 8 方向にずらした近傍のビット列を {@link BitPlanes} の加算器で足し合わせ、
+     * 近傍に存在する生命体の数を 4 ビットの桁（1, 2, 4, 8 の位）ごとのビット列として求めます。
+     * 求めた桁から、誕生と生存の条件となる数と等しいかを論理演算で判定して、
+     * ルールを 64 セル分まとめて適用します。
+     * </p>
+     */
+    @Override
+    protected void updateStates(byte[] sourceStates, byte[] targetStates) {
+        int rowSize = getRowSize();
+        int wordSize = BitPlanes.toWordSize(getColumnSize());
+
+        // 内部表現をビットボードに詰め込む
+        // （ビットボードは初回だけ割り当てて、以降の世代では使い回す）
+        if (packedLives == null) {
+            packedLives = new long[rowSize * wordSize];
+            packedEnables = new long[rowSize * wordSize];
+            nextPackedLives = new long[rowSize * wordSize];
+        }
+        var lives = packedLives;
+        var enables = packedEnables;
+        var nextLives = nextPackedLives;
+        pack(sourceStates, lives, enables, wordSize);
+
+        int birthMask = getRule().getBirthMask();
+        int survivalMask = getRule().getSurvivalMask();
+
+        // ワードごとの作業領域（近傍のビット列と、加算器で求めた桁ごとのビット列）
+        var neibors = new long[BitPlanes.NEIBOR_SIZE];
+        var counts = new long[BitPlanes.DIGIT_SIZE];
+
+        for (int rowIndex = 0; rowIndex < rowSize; rowIndex++) {
+            for (int wordIndex = 0; wordIndex < wordSize; wordIndex++) {
+                // 近傍の 8 方向のビット列を求めて、近傍の生命体の数を数える
+                BitPlanes.loadNeibors(lives, rowSize, rowIndex, wordIndex, wordSize, neibors);
+                BitPlanes.countNeibors(neibors, counts);
+
+                // 近傍に存在する生命体の数が誕生または生存の条件を満たすセルを求める
+                long births = matchCounts(birthMask, counts);
+                long survivals = matchCounts(survivalMask, counts);
+
+                // 生命体が存在しないセルは誕生の条件を、存在するセルは生存の条件を満たせば生命体が存在する
+                // 無効セルや列サイズを超える余りのビットはマスクで落とす
+                int index = rowIndex * wordSize + wordIndex;
+                long self = lives[index];
+                nextLives[index] = ((births & ~self) | (survivals & self)) & enables[index];
+            }
+        }
+
+        // ビットボードを内部表現に書き戻す
+        unpack(nextLives, targetStates, wordSize);
+    }
+
+    /**
+     * 桁ごとのビット列で表した近傍の生命体の数のうち、指定されたビットマスクに含まれる数と等しいセルを求めます。
+     *
+     * <p>
+     * ビットマスクで立っている数ごとに、各桁のビット列またはその否定を論理積でつないで等しいセルを求め、
+     * それらの論理和をとります。
+     * </p>
+     *
+     * @param countMask 数 n を n ビット目に対応させたビットマスク
+     * @param digits 1, 2, 4, 8 の位のビット列
+     * @return 指定された数のいずれかと等しいセルのビットを立てたワード
+     */
+    private static long matchCounts(int countMask, long[] digits) {
+        long matched = 0L;
+        for (int restMask = countMask; restMask != 0; restMask &= restMask - 1) {
+            int count = Integer.numberOfTrailingZeros(restMask);
+            long equals = -1L;
+            for (int digitIndex = 0; digitIndex < BitPlanes.DIGIT_SIZE; digitIndex++) {
+                equals &= (((count >>> digitIndex) & 1) != 0) ? digits[digitIndex] : ~digits[digitIndex];
+            }
+            matched |= equals;
+        }
+        return matched;
+    }
+
+    /**
+     * 内部表現を生命体の配置と有効セルのマスクのビットボードに詰め込みます。
+     *
+     * @param sourceStates 内部表現
+     * @param lives 生命体の配置を表すビットボードの書き込み先
+     * @param enables 有効セルを表すマスクの書き込み先
+     * @param wordSize 1 行あたりのワード数
+     */
+    private void pack(byte[] sourceStates, long[] lives, long[] enables, int wordSize) {
+        for (int rowIndex = 0; rowIndex < getRowSize(); rowIndex++) {
+            for (int wordIndex = 0; wordIndex < wordSize; wordIndex++) {
+                int fromColumnIndex = wordIndex * Long.SIZE;
+                int toColumnIndex = Math.min(fromColumnIndex + Long.SIZE, getColumnSize());
+                int fromIndex = toIndex(rowIndex, fromColumnIndex);
+                int index = rowIndex * wordSize + wordIndex;
+
+                // 生命体の有無は分岐の予測が難しいため、状態コード（生命体は 1）の最下位ビットを分岐せずに詰め込む
+                int length = toColumnIndex - fromColumnIndex;
+                long enableWord = 0L;
+                for (int bitIndex = 0; bitIndex < length; bitIndex++) {
+                    if (isEnableIndex(fromIndex + bitIndex)) {
+                        enableWord |= 1L << bitIndex;
+                    }
+                }
+                lives[index] = BitPlanes.packBits(sourceStates, fromIndex, length, 0);
+                enables[index] = enableWord;
+            }
+        }
+    }
+
+    /**
+     * 生命体の配置を表すビットボードを内部表現に書き戻します。
+     *
+     * @param lives 生命体の配置を表すビットボード
+     * @param targetStates 内部表現の書き込み先
+     * @param wordSize 1 行あたりのワード数
+     */
+    private void unpack(long[] lives, byte[] targetStates, int wordSize) {
+        var stateBitWords = new long[1];
+        for (int rowIndex = 0; rowIndex < getRowSize(); rowIndex++) {
+            for (int wordIndex = 0; wordIndex < wordSize; wordIndex++) {
+                int fromColumnIndex = wordIndex * Long.SIZE;
+                int toColumnIndex = Math.min(fromColumnIndex + Long.SIZE, getColumnSize());
+                int fromIndex = toIndex(rowIndex, fromColumnIndex);
+
+                // 状態コード（生命体は 1）の最下位ビットとして書き戻す
+                stateBitWords[0] = lives[rowIndex * wordSize + wordIndex];
+                BitPlanes.unpackBits(stateBitWords, targetStates, fromIndex, toColumnIndex - fromColumnIndex);
+            }
+        }
+    }
+
+    @Override
+    protected ILifeGameField<MonoLife> copyLifeGameField(int rowSize, int columnSize,
+        byte[] sourceStates, boolean[] sourceEnables) {
+        return new BitBoardLifeGameField(rowSize, columnSize, getRule(), sourceStates, sourceEnables);
+    }
+}
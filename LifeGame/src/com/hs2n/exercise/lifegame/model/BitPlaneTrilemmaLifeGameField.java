@@ -0,0 +1,244 @@
+package com.hs2n.exercise.lifegame.model;
+
+import com.hs2n.exercise.lifegame.model.core.ILifeGameField;
+
+/**
+ * 三すくみのライフゲームをビットプレーンで扱う二次元平面クラスです。
+ *
+ * <p>
+ * ルールは {@link TrilemmaLifeGameField} と同じですが、世代の求め方が異なります。
+ * 世代の更新時に各行を生命体の種類ごとに 1 セル 1 ビットで long 配列に詰め込み（ビットプレーン）、
+ * 種類ごとの近傍の生命体の数をビット並列の加算器で 64 セル分まとめて求めます。
+ * 誕生と生存の条件は、求めた数の桁ごとのビット列の論理演算で 64 セル分まとめて判定します。
+ * </p>
+ *
+ * <p>
+ * 生存の条件で使う「自分と弱い相手の数の合計」や「自分と強い相手の数の合計」は、
+ * 2 種類のビットプレーンの論理和を加算器に通して求めます。
+ * 種類ごとのセルは重ならないため、論理和の近傍の数はそれぞれの数の合計と等しくなります。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ */
+public class BitPlaneTrilemmaLifeGameField extends TrilemmaLifeGameField {
+
+    /**
+     * 生命体の種類の数（ビットプレーンの数）です。
+     */
+    private static final int SPECIES_SIZE = TrilemmaLife.values().length;
+
+    /**
+     * 種類ごとの、強い相手の種類のビットプレーンのインデックスです。
+     */
+    private static final int[] STRONG_OPPONENT_INDEXES = new int[SPECIES_SIZE];
+
+    /**
+     * 種類ごとの、弱い相手の種類のビットプレーンのインデックスです。
+     */
+    private static final int[] WEAK_OPPONENT_INDEXES = new int[SPECIES_SIZE];
+
+    static {
+        // 強い相手と弱い相手の関係は、生命体の列挙型の定義から求めておく
+        for (var life : TrilemmaLife.values()) {
+            STRONG_OPPONENT_INDEXES[life.ordinal()] = life.getStrongOpponent().ordinal();
+            WEAK_OPPONENT_INDEXES[life.ordinal()] = life.getWeakOpponent().ordinal();
+        }
+    }
+
+    /**
+     * 更新直前の世代の生命体の配置を、種類ごとに詰め込んだビットプレーンです。
+     * 世代をまたいで使い回します。
+     */
+    private long[][] packedPlanes;
+
+    /**
+     * 有効セルを詰め込んだビットボードです。
+     * 世代をまたいで使い回します。
+     */
+    private long[] packedEnables;
+
+    /**
+     * 次の世代の生命体の配置を、種類ごとに書き込むビットプレーンです。
+     * 世代をまたいで使い回します。
+     */
+    private long[][] nextPackedPlanes;
+
+    /**
+     * 指定されたパラメータでビットプレーンの三すくみのライフゲーム二次元平面を構築します。
+     *
+     * <p>
+     * このコンストラクタはインスタンスの複製用で、copyLifeGameField の実装のために使用します。
+     * </p>
+     *
+     * @param rowSize 行サイズ
+     * @param columnSize 列サイズ
+     * @param states セルの集合を表す内部表現
+     * @param enables 有効セルを表すマスク
+     */
+    protected BitPlaneTrilemmaLifeGameField(int rowSize, int columnSize, byte[] states, boolean[] enables) {
+        super(rowSize, columnSize, states, enables);
+    }
+
+    /**
+     * 指定された行列サイズでビットプレーンの三すくみのライフゲーム二次元平面を構築します。
+     *
+     * @param rowSize 行サイズ
+     * @param columnSize 列サイズ
+     */
+    public BitPlaneTrilemmaLifeGameField(int rowSize, int columnSize) {
+        super(rowSize, columnSize);
+    }
+
+    /**
+     * 更新直前の世代の内部表現から、次の世代の内部表現をビット並列演算で求めます。
+     *
+     * <p>
+     * 各ワードについて、種類ごとのビットプレーンを上下左右斜めの 8 方向にずらした近傍のビット列を求めます。
+     * それらを加算器で足し合わせて、次の数を桁ごとのビット列として求めます。
+     * </p>
+     *
+     * <ul>
+     *   <li>種類ごとの近傍の生命体の数</li>
+     *   <li>種類ごとの、自分と弱い相手の近傍の生命体の数の合計</li>
+     * </ul>
+     *
+     * <p>
+     * 自分と強い相手の数の合計は、強い相手から見た「自分と弱い相手の数の合計」と等しいため、改めて求めません。
+     * </p>
+     */
+    @Override
+    protected void updateStates(byte[] sourceStates, byte[] targetStates) {
+        int rowSize = getRowSize();
+        int wordSize = BitPlanes.toWordSize(getColumnSize());
+
+        // 内部表現をビットプレーンに詰め込む
+        // （ビットプレーンは初回だけ割り当てて、以降の世代では使い回す）
+        if (packedPlanes == null) {
+            packedPlanes = new long[SPECIES_SIZE][rowSize * wordSize];
+            packedEnables = new long[rowSize * wordSize];
+            nextPackedPlanes = new long[SPECIES_SIZE][rowSize * wordSize];
+        }
+        var planes = packedPlanes;
+        var enables = packedEnables;
+        var nextPlanes = nextPackedPlanes;
+        pack(sourceStates, planes, enables, wordSize);
+
+        // ワードごとの作業領域（近傍のビット列と、加算器で求めた桁ごとのビット列）
+        var neibors = new long[SPECIES_SIZE][BitPlanes.NEIBOR_SIZE];
+        var pairNeibors = new long[BitPlanes.NEIBOR_SIZE];
+        var counts = new long[SPECIES_SIZE][BitPlanes.DIGIT_SIZE];
+        var plusWeakCounts = new long[SPECIES_SIZE][BitPlanes.DIGIT_SIZE];
+
+        for (int rowIndex = 0; rowIndex < rowSize; rowIndex++) {
+            for (int wordIndex = 0; wordIndex < wordSize; wordIndex++) {
+                // 種類ごとに近傍の 8 方向のビット列を求めて、近傍の生命体の数を数える
+                for (int species = 0; species < SPECIES_SIZE; species++) {
+                    BitPlanes.loadNeibors(planes[species], rowSize, rowIndex, wordIndex, wordSize, neibors[species]);
+                    BitPlanes.countNeibors(neibors[species], counts[species]);
+                }
+
+                // 自分と弱い相手のビットプレーンの論理和について、近傍の生命体の数を数える
+                for (int species = 0; species < SPECIES_SIZE; species++) {
+                    var weakNeibors = neibors[WEAK_OPPONENT_INDEXES[species]];
+                    for (int i = 0; i < BitPlanes.NEIBOR_SIZE; i++) {
+                        pairNeibors[i] = neibors[species][i] | weakNeibors[i];
+                    }
+                    BitPlanes.countNeibors(pairNeibors, plusWeakCounts[species]);
+                }
+
+                // 生命体が存在しないセルを求める
+                int index = rowIndex * wordSize + wordIndex;
+                long lives = 0L;
+                for (int species = 0; species < SPECIES_SIZE; species++) {
+                    lives |= planes[species][index];
+                }
+                long empties = ~lives;
+
+                for (int species = 0; species < SPECIES_SIZE; species++) {
+                    int strongIndex = STRONG_OPPONENT_INDEXES[species];
+
+                    // 自分の数が 3 と等しく、強い相手の数が 3 と等しくない場合、生命体が存在しないセルに誕生する
+                    long births = BitPlanes.equalsThree(counts[species]) & ~BitPlanes.equalsThree(counts[strongIndex]);
+
+                    // 自分と弱い相手の数の合計が 2 未満か、自分と強い相手の数の合計が 3 より大きい場合は消滅する
+                    long deaths = BitPlanes.lessThanTwo(plusWeakCounts[species])
+                        | BitPlanes.greaterThanThree(plusWeakCounts[strongIndex]);
+
+                    // 無効セルや列サイズを超える余りのビットはマスクで落とす
+                    long self = planes[species][index];
+                    nextPlanes[species][index] = ((empties & births) | (self & ~deaths)) & enables[index];
+                }
+            }
+        }
+
+        // ビットプレーンを内部表現に書き戻す
+        unpack(nextPlanes, targetStates, wordSize);
+    }
+
+    /**
+     * 内部表現を種類ごとのビットプレーンと有効セルのマスクのビットボードに詰め込みます。
+     *
+     * @param sourceStates 内部表現
+     * @param planes 種類ごとのビットプレーンの書き込み先
+     * @param enables 有効セルを表すマスクの書き込み先
+     * @param wordSize 1 行あたりのワード数
+     */
+    private void pack(byte[] sourceStates, long[][] planes, long[] enables, int wordSize) {
+        for (int rowIndex = 0; rowIndex < getRowSize(); rowIndex++) {
+            for (int wordIndex = 0; wordIndex < wordSize; wordIndex++) {
+                int fromColumnIndex = wordIndex * Long.SIZE;
+                int toColumnIndex = Math.min(fromColumnIndex + Long.SIZE, getColumnSize());
+                int fromIndex = toIndex(rowIndex, fromColumnIndex);
+                int index = rowIndex * wordSize + wordIndex;
+
+                // 生命体の種類は分岐の予測が難しいため、状態コードの下位 2 ビットを分岐せずに詰め込む
+                int length = toColumnIndex - fromColumnIndex;
+                long lowWord = BitPlanes.packBits(sourceStates, fromIndex, length, 0);
+                long highWord = BitPlanes.packBits(sourceStates, fromIndex, length, 1);
+                long enableWord = 0L;
+                for (int bitIndex = 0; bitIndex < length; bitIndex++) {
+                    if (isEnableIndex(fromIndex + bitIndex)) {
+                        enableWord |= 1L << bitIndex;
+                    }
+                }
+
+                // 状態コードは種類の順序 + 1（1 から 3 まで）なので、2 ビットの組み合わせから種類を求める
+                planes[0][index] = lowWord & ~highWord;
+                planes[1][index] = highWord & ~lowWord;
+                planes[2][index] = lowWord & highWord;
+                enables[index] = enableWord;
+            }
+        }
+    }
+
+    /**
+     * 種類ごとのビットプレーンを内部表現に書き戻します。
+     *
+     * @param planes 種類ごとのビットプレーン
+     * @param targetStates 内部表現の書き込み先
+     * @param wordSize 1 行あたりのワード数
+     */
+    private void unpack(long[][] planes, byte[] targetStates, int wordSize) {
+        var stateBitWords = new long[2];
+        for (int rowIndex = 0; rowIndex < getRowSize(); rowIndex++) {
+            for (int wordIndex = 0; wordIndex < wordSize; wordIndex++) {
+                int fromColumnIndex = wordIndex * Long.SIZE;
+                int toColumnIndex = Math.min(fromColumnIndex + Long.SIZE, getColumnSize());
+                int fromIndex = toIndex(rowIndex, fromColumnIndex);
+                int index = rowIndex * wordSize + wordIndex;
+
+                // 状態コード（種類の順序 + 1）の下位 2 ビットをそれぞれビット列にまとめてから書き戻す
+                stateBitWords[0] = planes[0][index] | planes[2][index];
+                stateBitWords[1] = planes[1][index] | planes[2][index];
+                BitPlanes.unpackBits(stateBitWords, targetStates, fromIndex, toColumnIndex - fromColumnIndex);
+            }
+        }
+    }
+
+    @Override
+    protected ILifeGameField<TrilemmaLife> copyLifeGameField(int rowSize, int columnSize,
+        byte[] sourceStates, boolean[] sourceEnables) {
+        return new BitPlaneTrilemmaLifeGameField(rowSize, columnSize, sourceStates, sourceEnables);
+    }
+}
@@ -0,0 +1,215 @@
+package com.hs2n.exercise.lifegame.model;
+
+import com.hs2n.exercise.lifegame.model.core.ILifeGameField;
+
+/**
+ * 体力ありのライフゲームをビットプレーンで扱う二次元平面クラスです。
+ *
+ * <p>
+ * ルールは {@link WithVitalityLifeGameField} と同じですが、世代の求め方が異なります。
+ * 世代の更新時に、各セルの体力（0 から {@link MonoLifeWithVitality#VITALITY_MAX} まで）を
+ * 2 進数の桁ごとに 1 セル 1 ビットで long 配列に詰め込みます。（体力の最大値が 3 なら 2 枚のビットプレーン）
+ * 生命体の有無は体力のビットプレーンの論理和から求めて、近傍の生命体の数をビット並列の加算器で
+ * 64 セル分まとめて求めます。
+ * </p>
+ *
+ * <p>
+ * 体力を 1 減らす処理も、桁ごとのビットプレーンに対する借りの伝播として 64 セル分まとめて行います。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ */
+public class BitPlaneWithVitalityLifeGameField extends WithVitalityLifeGameField {
+
+    /**
+     * 体力を表すのに必要な桁の数（ビットプレーンの数）です。
+     */
+    private static final int VITALITY_BIT_SIZE = Integer.SIZE
+        - Integer.numberOfLeadingZeros(MonoLifeWithVitality.VITALITY_MAX);
+
+    /**
+     * 更新直前の世代の体力を、桁ごとに詰め込んだビットプレーンです。
+     * 世代をまたいで使い回します。
+     */
+    private long[][] packedPlanes;
+
+    /**
+     * 有効セルを詰め込んだビットボードです。
+     * 世代をまたいで使い回します。
+     */
+    private long[] packedEnables;
+
+    /**
+     * 更新直前の世代の生命体の有無を詰め込んだビットボードです。
+     * 世代をまたいで使い回します。
+     */
+    private long[] packedLives;
+
+    /**
+     * 次の世代の体力を、桁ごとに書き込むビットプレーンです。
+     * 世代をまたいで使い回します。
+     */
+    private long[][] nextPackedPlanes;
+
+    /**
+     * 指定されたパラメータでビットプレーンの体力ありのライフゲーム二次元平面を構築します。
+     *
+     * <p>
+     * このコンストラクタはインスタンスの複製用で、copyLifeGameField の実装のために使用します。
+     * </p>
+     *
+     * @param rowSize 行サイズ
+     * @param columnSize 列サイズ
+     * @param states セルの集合を表す内部表現
+     * @param enables 有効セルを表すマスク
+     */
+    protected BitPlaneWithVitalityLifeGameField(int rowSize, int columnSize, byte[] states, boolean[] enables) {
+        super(rowSize, columnSize, states, enables);
+    }
+
+    /**
+     * 指定された行列サイズでビットプレーンの体力ありのライフゲーム二次元平面を構築します。
+     *
+     * @param rowSize 行サイズ
+     * @param columnSize 列サイズ
+     */
+    public BitPlaneWithVitalityLifeGameField(int rowSize, int columnSize) {
+        super(rowSize, columnSize);
+    }
+
+    /**
+     * 更新直前の世代の内部表現から、次の世代の内部表現をビット並列演算で求めます。
+     *
+     * <p>
+     * 各ワードについて、生命体の有無のビットボードを上下左右斜めの 8 方向にずらしたビット列を加算器で足し合わせ、
+     * 近傍に存在する生命体の数を桁ごとのビット列として求めます。
+     * その上で、以下のとおり体力のビットプレーンを更新します。
+     * </p>
+     *
+     * <ul>
+     *   <li>生命体が存在しないセルで、近傍の数が 3 と等しい場合は、体力を最大値にする</li>
+     *   <li>生命体が存在するセルで、近傍の数が 2 か 3 のいずれでもない場合は、体力を 1 減らす</li>
+     *   <li>それ以外の場合は、体力は変化しない</li>
+     * </ul>
+     */
+    @Override
+    protected void updateStates(byte[] sourceStates, byte[] targetStates) {
+        int rowSize = getRowSize();
+        int wordSize = BitPlanes.toWordSize(getColumnSize());
+
+        // 内部表現をビットプレーンに詰め込む
+        // （ビットプレーンは初回だけ割り当てて、以降の世代では使い回す）
+        if (packedPlanes == null) {
+            packedPlanes = new long[VITALITY_BIT_SIZE][rowSize * wordSize];
+            packedEnables = new long[rowSize * wordSize];
+            packedLives = new long[rowSize * wordSize];
+            nextPackedPlanes = new long[VITALITY_BIT_SIZE][rowSize * wordSize];
+        }
+        var planes = packedPlanes;
+        var enables = packedEnables;
+        var lives = packedLives;
+        var nextPlanes = nextPackedPlanes;
+        pack(sourceStates, planes, enables, lives, wordSize);
+
+        // ワードごとの作業領域（近傍のビット列と、加算器で求めた桁ごとのビット列）
+        var neibors = new long[BitPlanes.NEIBOR_SIZE];
+        var counts = new long[BitPlanes.DIGIT_SIZE];
+
+        for (int rowIndex = 0; rowIndex < rowSize; rowIndex++) {
+            for (int wordIndex = 0; wordIndex < wordSize; wordIndex++) {
+                // 生命体の有無のビットボードから、近傍の生命体の数を数える
+                BitPlanes.loadNeibors(lives, rowSize, rowIndex, wordIndex, wordSize, neibors);
+                BitPlanes.countNeibors(neibors, counts);
+
+                int index = rowIndex * wordSize + wordIndex;
+                long self = lives[index];
+                long births = ~self & BitPlanes.equalsThree(counts) & enables[index];
+                long weakens = self & ~BitPlanes.equalsTwoOrThree(counts);
+
+                // 下の桁から順に、弱るセルの体力から 1 を引いて借りを上の桁に伝える
+                // 誕生するセルは、体力の最大値の桁のビットを立てる
+                long borrows = weakens;
+                for (int bitIndex = 0; bitIndex < VITALITY_BIT_SIZE; bitIndex++) {
+                    long plane = planes[bitIndex][index];
+                    long nextPlane = plane ^ borrows;
+                    borrows &= ~plane;
+                    if (((MonoLifeWithVitality.VITALITY_MAX >>> bitIndex) & 1) != 0) {
+                        nextPlane |= births;
+                    }
+                    nextPlanes[bitIndex][index] = nextPlane;
+                }
+            }
+        }
+
+        // ビットプレーンを内部表現に書き戻す
+        unpack(nextPlanes, targetStates, wordSize);
+    }
+
+    /**
+     * 内部表現を、体力の桁ごとのビットプレーンと、有効セルのマスクと生命体の有無のビットボードに詰め込みます。
+     *
+     * @param sourceStates 内部表現
+     * @param planes 体力の桁ごとのビットプレーンの書き込み先
+     * @param enables 有効セルを表すマスクの書き込み先
+     * @param lives 生命体の有無を表すビットボードの書き込み先
+     * @param wordSize 1 行あたりのワード数
+     */
+    private void pack(byte[] sourceStates, long[][] planes, long[] enables, long[] lives, int wordSize) {
+        for (int rowIndex = 0; rowIndex < getRowSize(); rowIndex++) {
+            for (int wordIndex = 0; wordIndex < wordSize; wordIndex++) {
+                int fromColumnIndex = wordIndex * Long.SIZE;
+                int toColumnIndex = Math.min(fromColumnIndex + Long.SIZE, getColumnSize());
+                int fromIndex = toIndex(rowIndex, fromColumnIndex);
+                int index = rowIndex * wordSize + wordIndex;
+                int length = toColumnIndex - fromColumnIndex;
+
+                // 状態コードは体力そのものなので、桁ごとに詰め込み、その論理和を生命体の有無とする
+                long lifeWord = 0L;
+                for (int bitIndex = 0; bitIndex < VITALITY_BIT_SIZE; bitIndex++) {
+                    planes[bitIndex][index] = BitPlanes.packBits(sourceStates, fromIndex, length, bitIndex);
+                    lifeWord |= planes[bitIndex][index];
+                }
+                lives[index] = lifeWord;
+
+                long enableWord = 0L;
+                for (int bitIndex = 0; bitIndex < length; bitIndex++) {
+                    if (isEnableIndex(fromIndex + bitIndex)) {
+                        enableWord |= 1L << bitIndex;
+                    }
+                }
+                enables[index] = enableWord;
+            }
+        }
+    }
+
+    /**
+     * 体力の桁ごとのビットプレーンを内部表現に書き戻します。
+     *
+     * @param planes 体力の桁ごとのビットプレーン
+     * @param targetStates 内部表現の書き込み先
+     * @param wordSize 1 行あたりのワード数
+     */
+    private void unpack(long[][] planes, byte[] targetStates, int wordSize) {
+        var stateBitWords = new long[VITALITY_BIT_SIZE];
+        for (int rowIndex = 0; rowIndex < getRowSize(); rowIndex++) {
+            for (int wordIndex = 0; wordIndex < wordSize; wordIndex++) {
+                int fromColumnIndex = wordIndex * Long.SIZE;
+                int toColumnIndex = Math.min(fromColumnIndex + Long.SIZE, getColumnSize());
+                int fromIndex = toIndex(rowIndex, fromColumnIndex);
+                int index = rowIndex * wordSize + wordIndex;
+
+                for (int bitIndex = 0; bitIndex < VITALITY_BIT_SIZE; bitIndex++) {
+                    stateBitWords[bitIndex] = planes[bitIndex][index];
+                }
+                BitPlanes.unpackBits(stateBitWords, targetStates, fromIndex, toColumnIndex - fromColumnIndex);
+            }
+        }
+    }
+
+    @Override
+    protected ILifeGameField<MonoLifeWithVitality> copyLifeGameField(int rowSize, int columnSize,
+        byte[] sourceStates, boolean[] sourceEnables) {
+        return new BitPlaneWithVitalityLifeGameField(rowSize, columnSize, sourceStates, sourceEnables);
+    }
+}
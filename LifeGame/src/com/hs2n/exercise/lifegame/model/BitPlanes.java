@@ -0,0 +1,284 @@
+package com.hs2n.exercise.lifegame.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * 二次元平面を 1 セル 1 ビットで long 配列に詰め込んだビットプレーンを扱うための補助クラスです。
+ *
+ * <p>
+ * ビットプレーンは行優先で、1 行あたり列サイズを格納するのに必要な数のワードを並べます。
+ * 各ワードの下位ビットから順に、列インデックスの小さいセルを対応させます。
+ * 二次元平面の外側は、番兵の代わりに 0 のワードとして扱います。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ */
+final class BitPlanes {
+
+    /**
+     * 近傍の数です。
+     */
+    static final int NEIBOR_SIZE = 8;
+
+    /**
+     * 近傍の数を表す桁（1, 2, 4, 8 の位）の数です。
+     */
+    static final int DIGIT_SIZE = 4;
+
+    /**
+     * 各バイトの最下位ビットだけを立てた値です。
+     */
+    private static final long BYTE_ONES = 0x0101010101010101L;
+
+    /**
+     * 各バイトの最下位ビットを、最上位バイトの下位から順に集めるための乗数です。
+     */
+    private static final long GATHER_MULTIPLIER = 0x0102040810204080L;
+
+    /**
+     * 下から i 番目のバイトで、下から i ビット目だけを立てた値です。
+     */
+    private static final long SPREAD_MASK = 0x8040201008040201L;
+
+    /**
+     * 状態コードの配列から、連続する 8 セル分を long として読み書きするための VarHandle です。
+     * 下位のバイトが列インデックスの小さいセルに対応するように、リトルエンディアンとします。
+     */
+    private static final VarHandle CELLS = MethodHandles.byteArrayViewVarHandle(long[].class,
+        ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * インスタンス化を禁止します。
+     */
+    private BitPlanes() {
+    }
+
+    /**
+     * 指定された列サイズを格納するのに必要な 1 行あたりのワード数を求めます。
+     *
+     * @param columnSize 列サイズ
+     * @return 1 行あたりのワード数
+     */
+    static int toWordSize(int columnSize) {
+        return (columnSize + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    /**
+     * 状態コードの指定されたビットを、連続するセルの分だけワードに詰め込みます。
+     *
+     * <p>
+     * 状態コードの値で分岐すると予測が難しいため、分岐せずにビットを求めます。
+     * 8 セルずつ long として読み出して、各バイトのビットを乗算で 1 バイトに集めます。
+     * </p>
+     *
+     * @param states 内部表現
+     * @param fromIndex 詰め込む最初のセルの内部表現のインデックス
+     * @param length 詰め込むセルの数（64 以下）
+     * @param stateBitIndex 詰め込む状態コードのビットの位置
+     * @return ワード
+     */
+    static long packBits(byte[] states, int fromIndex, int length, int stateBitIndex) {
+        long word = 0L;
+        int bitIndex = 0;
+        for (; bitIndex + Long.BYTES <= length; bitIndex += Long.BYTES) {
+            long bytes = (((long) CELLS.get(states, fromIndex + bitIndex)) >>> stateBitIndex) & BYTE_ONES;
+            word |= ((bytes * GATHER_MULTIPLIER) >>> (Long.SIZE - Long.BYTES)) << bitIndex;
+        }
+        for (; bitIndex < length; bitIndex++) {
+            word |= (long) ((states[fromIndex + bitIndex] >>> stateBitIndex) & 1) << bitIndex;
+        }
+        return word;
+    }
+
+    /**
+     * 状態コードのビットごとに詰め込んだワードから、連続するセルの状態コードを書き戻します。
+     *
+     * @param stateBitWords 状態コードの下位から i ビット目を詰め込んだワードを i 番目に並べた配列
+     * @param states 内部表現の書き込み先
+     * @param fromIndex 書き戻す最初のセルの内部表現のインデックス
+     * @param length 書き戻すセルの数（64 以下）
+     */
+    static void unpackBits(long[] stateBitWords, byte[] states, int fromIndex, int length) {
+        int bitIndex = 0;
+        for (; bitIndex + Long.BYTES <= length; bitIndex += Long.BYTES) {
+            // 8 ビットを各バイトに 1 ビットずつ広げてから、0 以外のバイトを 1 にそろえて状態コードを組み立てる
+            long stateCodes = 0L;
+            for (int stateBitIndex = 0; stateBitIndex < stateBitWords.length; stateBitIndex++) {
+                long bits = (stateBitWords[stateBitIndex] >>> bitIndex) & 0xFFL;
+                long spreadBits = (bits * BYTE_ONES) & SPREAD_MASK;
+                long bytes = ((spreadBits + 0x7F7F7F7F7F7F7F7FL) >>> 7) & BYTE_ONES;
+                stateCodes |= bytes << stateBitIndex;
+            }
+            CELLS.set(states, fromIndex + bitIndex, stateCodes);
+        }
+        for (; bitIndex < length; bitIndex++) {
+            int stateCode = 0;
+            for (int stateBitIndex = 0; stateBitIndex < stateBitWords.length; stateBitIndex++) {
+                stateCode |= (int) ((stateBitWords[stateBitIndex] >>> bitIndex) & 1L) << stateBitIndex;
+            }
+            states[fromIndex + bitIndex] = (byte) stateCode;
+        }
+    }
+
+    /**
+     * 指定された位置のワードについて、近傍の 8 方向にずらしたビット列を求めます。
+     * 上の行の左から順に、指定位置自体を除いた 8 方向を並べます。
+     *
+     * @param plane ビットプレーン
+     * @param rowSize 行サイズ
+     * @param rowIndex 行インデックス
+     * @param wordIndex ワードのインデックス
+     * @param wordSize 1 行あたりのワード数
+     * @param neibors 近傍の 8 方向のビット列の書き込み先
+     */
+    static void loadNeibors(long[] plane, int rowSize, int rowIndex, int wordIndex, int wordSize, long[] neibors) {
+        long north = getWord(plane, rowSize, rowIndex - 1, wordIndex, wordSize);
+        long self = getWord(plane, rowSize, rowIndex, wordIndex, wordSize);
+        long south = getWord(plane, rowSize, rowIndex + 1, wordIndex, wordSize);
+
+        neibors[0] = shiftWest(plane, rowSize, rowIndex - 1, wordIndex, wordSize, north);
+        neibors[1] = north;
+        neibors[2] = shiftEast(plane, rowSize, rowIndex - 1, wordIndex, wordSize, north);
+        neibors[3] = shiftWest(plane, rowSize, rowIndex, wordIndex, wordSize, self);
+        neibors[4] = shiftEast(plane, rowSize, rowIndex, wordIndex, wordSize, self);
+        neibors[5] = shiftWest(plane, rowSize, rowIndex + 1, wordIndex, wordSize, south);
+        neibors[6] = south;
+        neibors[7] = shiftEast(plane, rowSize, rowIndex + 1, wordIndex, wordSize, south);
+    }
+
+    /**
+     * 近傍の 8 方向のビット列を全加算器と半加算器で足し合わせて、近傍の数を桁ごとのビット列として求めます。
+     *
+     * @param neibors 近傍の 8 方向のビット列
+     * @param digits 1, 2, 4, 8 の位のビット列の書き込み先
+     */
+    static void countNeibors(long[] neibors, long[] digits) {
+        long northWest = neibors[0];
+        long north = neibors[1];
+        long northEast = neibors[2];
+        long west = neibors[3];
+        long east = neibors[4];
+        long southWest = neibors[5];
+        long south = neibors[6];
+        long southEast = neibors[7];
+
+        // 上の行の 3 方向を全加算器で足し合わせる
+        long northOnes = northWest ^ north ^ northEast;
+        long northTwos = (northWest & north) | (northEast & (northWest ^ north));
+
+        // 下の行の 3 方向を全加算器で足し合わせる
+        long southOnes = southWest ^ south ^ southEast;
+        long southTwos = (southWest & south) | (southEast & (southWest ^ south));
+
+        // 自身の行の左右 2 方向を半加算器で足し合わせる
+        long middleOnes = west ^ east;
+        long middleTwos = west & east;
+
+        // 1 の位を足し合わせて、繰り上がりを 2 の位に回す
+        long ones = northOnes ^ southOnes ^ middleOnes;
+        long onesCarry = (northOnes & southOnes) | (middleOnes & (northOnes ^ southOnes));
+
+        // 2 の位を足し合わせて、繰り上がりを 4 の位に回す
+        long partialTwos = northTwos ^ southTwos ^ middleTwos;
+        long partialTwosCarry = (northTwos & southTwos) | (middleTwos & (northTwos ^ southTwos));
+        long twos = partialTwos ^ onesCarry;
+        long twosCarry = partialTwos & onesCarry;
+
+        // 4 の位と 8 の位を求める（近傍は最大 8 なので、8 の位からの繰り上がりはない）
+        digits[0] = ones;
+        digits[1] = twos;
+        digits[2] = partialTwosCarry ^ twosCarry;
+        digits[3] = partialTwosCarry & twosCarry;
+    }
+
+    /**
+     * 桁ごとのビット列で表した数が 3 と等しいセルを求めます。
+     *
+     * @param digits 1, 2, 4, 8 の位のビット列
+     * @return 3 と等しいセルのビットを立てたワード
+     */
+    static long equalsThree(long[] digits) {
+        return digits[0] & digits[1] & ~digits[2] & ~digits[3];
+    }
+
+    /**
+     * 桁ごとのビット列で表した数が 2 または 3 と等しいセルを求めます。
+     *
+     * @param digits 1, 2, 4, 8 の位のビット列
+     * @return 2 または 3 と等しいセルのビットを立てたワード
+     */
+    static long equalsTwoOrThree(long[] digits) {
+        return digits[1] & ~digits[2] & ~digits[3];
+    }
+
+    /**
+     * 桁ごとのビット列で表した数が 2 未満のセルを求めます。
+     *
+     * @param digits 1, 2, 4, 8 の位のビット列
+     * @return 2 未満のセルのビットを立てたワード
+     */
+    static long lessThanTwo(long[] digits) {
+        return ~(digits[1] | digits[2] | digits[3]);
+    }
+
+    /**
+     * 桁ごとのビット列で表した数が 3 より大きいセルを求めます。
+     *
+     * @param digits 1, 2, 4, 8 の位のビット列
+     * @return 3 より大きいセルのビットを立てたワード
+     */
+    static long greaterThanThree(long[] digits) {
+        return digits[2] | digits[3];
+    }
+
+    /**
+     * 指定された行とワードの位置に対応するワードを取得します。
+     * 二次元平面の外側の場合は 0 を返します。（番兵の代わり）
+     *
+     * @param plane ビットプレーン
+     * @param rowSize 行サイズ
+     * @param rowIndex 行インデックス
+     * @param wordIndex ワードのインデックス
+     * @param wordSize 1 行あたりのワード数
+     * @return ワード
+     */
+    private static long getWord(long[] plane, int rowSize, int rowIndex, int wordIndex, int wordSize) {
+        if (rowIndex < 0 || rowIndex >= rowSize || wordIndex < 0 || wordIndex >= wordSize) {
+            return 0L;
+        }
+        return plane[rowIndex * wordSize + wordIndex];
+    }
+
+    /**
+     * 各ビットに左隣（西）のセルの状態が入るようにずらしたワードを求めます。
+     *
+     * @param plane ビットプレーン
+     * @param rowSize 行サイズ
+     * @param rowIndex 行インデックス
+     * @param wordIndex ワードのインデックス
+     * @param wordSize 1 行あたりのワード数
+     * @param word 指定された位置のワード
+     * @return ずらしたワード
+     */
+    private static long shiftWest(long[] plane, int rowSize, int rowIndex, int wordIndex, int wordSize, long word) {
+        return (word << 1) | (getWord(plane, rowSize, rowIndex, wordIndex - 1, wordSize) >>> (Long.SIZE - 1));
+    }
+
+    /**
+     * 各ビットに右隣（東）のセルの状態が入るようにずらしたワードを求めます。
+     *
+     * @param plane ビットプレーン
+     * @param rowSize 行サイズ
+     * @param rowIndex 行インデックス
+     * @param wordIndex ワードのインデックス
+     * @param wordSize 1 行あたりのワード数
+     * @param word 指定された位置のワード
+     * @return ずらしたワード
+     */
+    private static long shiftEast(long[] plane, int rowSize, int rowIndex, int wordIndex, int wordSize, long word) {
+        return (word >>> 1) | (getWord(plane, rowSize, rowIndex, wordIndex + 1, wordSize) << (Long.SIZE - 1));
+    }
+}
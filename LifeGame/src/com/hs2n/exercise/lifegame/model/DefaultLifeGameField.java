@@ -1,22 +1,32 @@
 package com.hs2n.exercise.lifegame.model;
 
-import java.util.List;
-import java.util.Map;
 import java.util.Random;
 
 import com.hs2n.exercise.lifegame.model.core.AbstractLifeGameField;
 import com.hs2n.exercise.lifegame.model.core.ICell;
 import com.hs2n.exercise.lifegame.model.core.ILifeGameField;
-import com.hs2n.exercise.lifegame.model.core.Position;
+import com.hs2n.exercise.lifegame.model.core.LaneKernel;
+import com.hs2n.exercise.lifegame.model.core.NeiborhoodSummary;
+import com.hs2n.exercise.lifegame.model.core.TransitionTable;
 
 /**
  * 標準のライフゲームを扱う二次元平面クラスです。
  *
+ * <p>
+ * 誕生と生存の条件は {@link LifeLikeRule} で差し替えられます。
+ * 既定のルールは標準のライフゲーム（B3/S23）です。
+ * </p>
+ *
  * @author Juno NISHIZAKI
  *
  */
 public class DefaultLifeGameField extends AbstractLifeGameField<MonoLife> {
 
+    /**
+     * 誕生と生存の条件を表すルールです。
+     */
+    private final LifeLikeRule rule;
+
     /**
      * 指定されたパラメータで標準のライフゲーム二次元平面を構築します。
      *
@@ -26,10 +36,13 @@ public class DefaultLifeGameField extends AbstractLifeGameField<MonoLife> {
      *
      * @param rowSize 行サイズ
      * @param columnSize 列サイズ
-     * @param cells セルの集合を表す内部表現
+     * @param rule ルール
+     * @param states セルの集合を表す内部表現
+     * @param enables 有効セルを表すマスク
      */
-    protected DefaultLifeGameField(int rowSize, int columnSize, Map<Position, ICell<MonoLife>> cells) {
-        super(rowSize, columnSize, cells);
+    protected DefaultLifeGameField(int rowSize, int columnSize, LifeLikeRule rule, byte[] states, boolean[] enables) {
+        super(rowSize, columnSize, states, enables);
+        this.rule = rule;
     }
 
     /**
@@ -39,14 +52,39 @@ public class DefaultLifeGameField extends AbstractLifeGameField<MonoLife> {
      * @param columnSize 列サイズ
      */
     public DefaultLifeGameField(int rowSize, int columnSize) {
+        this(rowSize, columnSize, LifeLikeRule.CONWAY);
+    }
+
+    /**
+     * 指定された行列サイズとルールでライフゲーム二次元平面を構築します。
+     *
+     * @param rowSize 行サイズ
+     * @param columnSize 列サイズ
+     * @param rule ルール
+     */
+    public DefaultLifeGameField(int rowSize, int columnSize, LifeLikeRule rule) {
         super(rowSize, columnSize);
+        if (rule == null) {
+            throw new IllegalArgumentException();
+        }
+        this.rule = rule;
     }
 
     /**
-     * 標準のライフゲームのルールに従って、自セルと近傍の現状態から自セルを次の状態に更新します。
+     * 誕生と生存の条件を表すルールを取得します。
+     *
+     * @return ルール
+     */
+    public LifeLikeRule getRule() {
+        return rule;
+    }
+
+    /**
+     * ルールに従って、自セルと近傍の現状態から自セルを次の状態に更新します。
      *
      * <p>
      * 標準のライフゲームのルールは以下のとおりです。
+     * 他のルールでは、誕生と生存の条件となる近傍の生命体の数が {@link LifeLikeRule} の指定に置き換わります。
      * </p>
      *
      * <ul>
@@ -65,34 +103,63 @@ public class DefaultLifeGameField extends AbstractLifeGameField<MonoLife> {
      * </ul>
      */
     @Override
-    protected void updateCell(ICell<MonoLife> selfCell, List<ICell<MonoLife>> neiborCells) {
-        // 近傍から生命体が存在するセルの数を取得する
-        long lifeCount = neiborCells.stream()
-            .filter(neiborCell -> neiborCell.hasLife())
-            .count();
+    protected void updateCell(ICell<MonoLife> selfCell, NeiborhoodSummary<MonoLife> neiborhood) {
+        // 近傍の集計結果から生命体が存在するセルの数を取得する
+        int lifeCount = neiborhood.getLifeCount();
 
         // 自セルに生命体が存在するかどうかで次状態の判定を分岐する
         if (!selfCell.hasLife()) {
             // 自セルに生命体が存在しない場合
 
-            // 近傍に存在する生命体の数が 3 と等しい場合、自セルに新しい生命体を配置する
-            if (lifeCount == 3) {
+            // 近傍に存在する生命体の数が誕生の条件を満たす場合、自セルに新しい生命体を配置する
+            if (rule.isBirth(lifeCount)) {
                 selfCell.putLife(MonoLife.ONE);
             }
         } else {
             // 自セルに生命体が存在する場合
 
-            // 近傍に存在する生命体の数が 2 か 3 のいずれでもない場合、自セルから生命体を取り除く
-            if (lifeCount < 2 || lifeCount > 3) {
+            // 近傍に存在する生命体の数が生存の条件を満たさない場合、自セルから生命体を取り除く
+            if (!rule.isSurvival(lifeCount)) {
                 selfCell.removeLife();
             }
         }
     }
 
+    @Override
+    protected TransitionTable createTransitionTable() {
+        // 生命体は 1 種類なので、近傍の生命体の数だけで次状態が決まる
+        return compileTransitionTable(new int[] { TransitionTable.NO_SPECIES, 0 });
+    }
+
+    @Override
+    protected LaneKernel.LaneRule createLaneRule() {
+        // updateCell と同じルールを、8 セル分まとめてレーンごとの演算で判定する
+        int stateCode = toStateCode(MonoLife.ONE);
+        int birthMask = rule.getBirthMask();
+        int survivalMask = rule.getSurvivalMask();
+        return (selfLanes, neiborCountLanes) -> {
+            // 生命体が存在しないセルは誕生の条件を、存在するセルは生存の条件を満たす場合に生命体が存在する
+            long selfLifeLanes = LaneKernel.toLifeLanes(selfLanes);
+            long lifeLanes = (LaneKernel.matchLanes(neiborCountLanes, birthMask) & ~selfLifeLanes)
+                | (LaneKernel.matchLanes(neiborCountLanes, survivalMask) & selfLifeLanes);
+            return lifeLanes * stateCode;
+        };
+    }
+
     @Override
     protected ILifeGameField<MonoLife> copyLifeGameField(int rowSize, int columnSize,
-        Map<Position, ICell<MonoLife>> sourceCells) {
-        return new DefaultLifeGameField(rowSize, columnSize, sourceCells);
+        byte[] sourceStates, boolean[] sourceEnables) {
+        return new DefaultLifeGameField(rowSize, columnSize, rule, sourceStates, sourceEnables);
+    }
+
+    @Override
+    protected int toStateCode(MonoLife life) {
+        return life.ordinal() + 1;
+    }
+
+    @Override
+    protected MonoLife toLife(int stateCode) {
+        return MonoLife.values()[stateCode - 1];
     }
 
     @Override
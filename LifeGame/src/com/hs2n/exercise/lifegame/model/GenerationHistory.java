@@ -0,0 +1,591 @@
+package com.hs2n.exercise.lifegame.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import com.hs2n.exercise.lifegame.model.core.FieldDelta;
+import com.hs2n.exercise.lifegame.model.core.IDeltaEncodableField;
+import com.hs2n.exercise.lifegame.model.core.IEditableLifeGameField;
+import com.hs2n.exercise.lifegame.model.core.ILifeGameField;
+
+/**
+ * ライフゲームのモデルが管理する、過去の世代の二次元平面の履歴です。
+ *
+ * <p>
+ * 世代の番号をキーとして、一定の間隔ごとに完全な二次元平面（キーフレーム）を保持し、
+ * その間の世代は直前に追加した世代からの差分（{@link FieldDelta}）だけを保持します。
+ * そのため、1 世代あたりの保持量は二次元平面の大きさではなく、状態が変化したセルの数に比例します。
+ * 差分を作成できない二次元平面（{@link IDeltaEncodableField} を実装していないものなど）は、
+ * 常にキーフレームとして保持します。
+ * </p>
+ *
+ * <p>
+ * 差分で保持している世代は、取得するときに直前のキーフレームから差分を順に適用して復元します。
+ * 前後の世代を行き来する場合に備えて、最近復元した世代はいくつかキャッシュしておき、
+ * 復元の起点にも使います。
+ * </p>
+ *
+ * <p>
+ * 保持量の見積もりがメモリの上限を超えた場合は、それまでの世代を間引いてチェックポイント
+ * （一定の間隔ごとのキーフレーム）だけを残します。
+ * 間引いた世代は、取得するときに直前のチェックポイントから世代を進め直して求めます。
+ * チェックポイントの間隔は、1 世代の更新にかかった時間の実績から、進め直す時間が上限に収まるように決めます。
+ * ただし、チェックポイントだけでもメモリの上限を超える場合は、メモリの上限を優先して間隔を広げます。
+ * 間引いた世代も選択できる世代として扱うため、世代の番号の範囲は変わりません。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ * @param <L> 生命体の型
+ */
+public class GenerationHistory<L> implements IGenerationHistory<L> {
+
+    /**
+     * キーフレームの間隔の既定値です。
+     */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 32;
+
+    /**
+     * メモリの上限の既定値（64 MiB）です。
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+    /**
+     * 間引いた世代を進め直す時間の上限の既定値（100 ミリ秒）です。
+     */
+    public static final long DEFAULT_MAX_RECOMPUTE_NANOS = 100_000_000L;
+
+    /**
+     * 復元した世代をキャッシュしておく数です。
+     */
+    private static final int DECODED_CACHE_SIZE = 8;
+
+    /**
+     * 差分の 1 セルあたりのバイト数です。（キーと状態コード）
+     */
+    private static final int DELTA_CELL_SIZE = Long.BYTES + Byte.BYTES;
+
+    /**
+     * 履歴の 1 要素あたりの、二次元平面や差分以外のおおよそのバイト数です。
+     */
+    private static final int ENTRY_OVERHEAD_SIZE = 64;
+
+    /**
+     * 履歴に保持する 1 世代分の要素です。
+     * キーフレームと差分のいずれか一方だけをもちます。
+     *
+     * @param <L> 生命体の型
+     */
+    private static class Entry<L> {
+
+        /**
+         * キーフレームの場合の、完全な二次元平面です。
+         */
+        private final ILifeGameField<L> keyframe;
+
+        /**
+         * 差分の場合の、直前の要素の世代からの差分です。
+         */
+        private final FieldDelta delta;
+
+        /**
+         * 要素のおおよそのバイト数です。
+         */
+        private final long estimatedSize;
+
+        /**
+         * 指定されたキーフレームまたは差分をもつ要素を構築します。
+         *
+         * @param keyframe キーフレーム、または null
+         * @param delta 差分、または null
+         */
+        private Entry(ILifeGameField<L> keyframe, FieldDelta delta) {
+            this.keyframe = keyframe;
+            this.delta = delta;
+            this.estimatedSize = ENTRY_OVERHEAD_SIZE
+                + ((keyframe != null) ? estimateSize(keyframe) : (long) delta.size() * DELTA_CELL_SIZE);
+        }
+    }
+
+    /**
+     * キーフレームの間隔です。
+     */
+    private final int keyframeInterval;
+
+    /**
+     * 世代の番号をキーとした、保持している履歴の要素です。
+     * 間引いた世代は含みません。
+     */
+    private NavigableMap<Long, Entry<L>> entries = new TreeMap<>();
+
+    /**
+     * 選択できる世代の範囲です。連続する世代の最初の番号をキー、最後の番号を値として保持します。
+     * 間引いた世代も含みます。
+     */
+    private final NavigableMap<Long, Long> generationRuns = new TreeMap<>();
+
+    /**
+     * 最後に追加した世代の二次元平面です。次に追加する世代の差分の起点にします。
+     */
+    private ILifeGameField<L> lastField;
+
+    /**
+     * 最後のキーフレームより後に追加した差分の数です。
+     */
+    private int deltaCount;
+
+    /**
+     * 保持している履歴の要素のおおよそのバイト数です。
+     */
+    private long estimatedSize;
+
+    /**
+     * メモリの上限（バイト数）です。
+     */
+    private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+
+    /**
+     * 間引いた世代を進め直す時間の上限（ナノ秒）です。
+     */
+    private long maxRecomputeNanos = DEFAULT_MAX_RECOMPUTE_NANOS;
+
+    /**
+     * 1 世代の更新にかかった時間の移動平均（ナノ秒）です。実績がない場合は 0 です。
+     */
+    private long stepNanos;
+
+    /**
+     * 最後に間引いたときのチェックポイントの間隔です。間引いていない場合は 0 です。
+     */
+    private long checkpointInterval;
+
+    /**
+     * 最近復元した世代のキャッシュです。（アクセス順の LRU）
+     */
+    private final Map<Long, ILifeGameField<L>> decodedCache = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, ILifeGameField<L>> eldest) {
+            return size() > DECODED_CACHE_SIZE;
+        }
+    };
+
+    /**
+     * 最後に取得した世代の番号です。
+     * ビューはセルごとに同じ世代を取得するため、キャッシュを引く前にまず照合します。
+     */
+    private long recentGenerationIndex = -1;
+
+    /**
+     * 最後に取得した世代の二次元平面です。
+     */
+    private ILifeGameField<L> recentField;
+
+    /**
+     * 既定の間隔でキーフレームを保持する、空の履歴を構築します。
+     */
+    public GenerationHistory() {
+        this(DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * 指定された間隔でキーフレームを保持する、空の履歴を構築します。
+     *
+     * @param keyframeInterval キーフレームの間隔（1 の場合はすべての世代をキーフレームとして保持）
+     */
+    public GenerationHistory(int keyframeInterval) {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    /**
+     * メモリの上限を設定します。
+     * 保持量の見積もりが上限を超えている場合は、すぐに間引きます。
+     *
+     * @param memoryBudget メモリの上限（バイト数）
+     */
+    @Override
+    public void setMemoryBudget(long memoryBudget) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.memoryBudget = memoryBudget;
+        if (estimatedSize > memoryBudget) {
+            compact();
+        }
+    }
+
+    /**
+     * メモリの上限を取得します。
+     *
+     * @return メモリの上限（バイト数）
+     */
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * 間引いた世代を進め直す時間の上限を設定します。
+     * 次に間引くときのチェックポイントの間隔から反映します。
+     *
+     * @param maxRecomputeNanos 進め直す時間の上限（ナノ秒）
+     */
+    public void setMaxRecomputeNanos(long maxRecomputeNanos) {
+        if (maxRecomputeNanos <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.maxRecomputeNanos = maxRecomputeNanos;
+    }
+
+    /**
+     * 保持している履歴の要素のおおよそのバイト数を取得します。
+     *
+     * @return おおよそのバイト数
+     */
+    public long getEstimatedSize() {
+        return estimatedSize;
+    }
+
+    /**
+     * 最後に間引いたときのチェックポイントの間隔を取得します。
+     *
+     * @return チェックポイントの間隔。間引いていない場合は 0
+     */
+    public long getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    /**
+     * 1 世代の更新にかかった時間を記録します。
+     * チェックポイントの間隔を決めるために使用します。
+     *
+     * @param nanos 1 世代の更新にかかった時間（ナノ秒）
+     */
+    @Override
+    public void recordStepNanos(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        stepNanos = (stepNanos == 0) ? nanos : (stepNanos * 7 + nanos) / 8;
+    }
+
+    /**
+     * 指定された世代の二次元平面を履歴に追加します。
+     * 世代の番号は、すでに追加した世代より大きくなければなりません。
+     *
+     * @param generationIndex 世代の番号
+     * @param lifeGameField 二次元平面
+     */
+    @Override
+    public void put(long generationIndex, ILifeGameField<L> lifeGameField) {
+        if (!generationRuns.isEmpty() && generationIndex <= generationRuns.lastEntry().getValue()) {
+            throw new IllegalArgumentException();
+        }
+
+        // キーフレームの間隔に達していなければ、直前に追加した世代からの差分を作成する
+        FieldDelta delta = null;
+        if (deltaCount + 1 < keyframeInterval && lastField instanceof IDeltaEncodableField) {
+            delta = ((IDeltaEncodableField<L>) lastField).diff(lifeGameField);
+        }
+        Entry<L> entry;
+        if (delta != null) {
+            entry = new Entry<>(null, delta);
+            deltaCount++;
+        } else {
+            entry = new Entry<>(lifeGameField, null);
+            deltaCount = 0;
+        }
+        entries.put(generationIndex, entry);
+        estimatedSize += entry.estimatedSize;
+        lastField = lifeGameField;
+
+        // 選択できる世代の範囲を広げる（直前の世代に続く場合は範囲を延ばす）
+        var lastRun = generationRuns.lastEntry();
+        if (lastRun != null && lastRun.getValue() == generationIndex - 1) {
+            generationRuns.put(lastRun.getKey(), generationIndex);
+        } else {
+            generationRuns.put(generationIndex, generationIndex);
+        }
+
+        // 追加した世代は直後に参照されることが多いため、復元済みとしてキャッシュしておく
+        decodedCache.put(generationIndex, lifeGameField);
+
+        // メモリの上限を超えた場合は間引く
+        if (estimatedSize > memoryBudget) {
+            compact();
+        }
+    }
+
+    /**
+     * 指定された世代の二次元平面を取得します。
+     * 差分で保持している場合は復元し、間引いた世代の場合は進め直して求めます。
+     *
+     * @param generationIndex 世代の番号
+     * @return 二次元平面。履歴にない世代の場合は null
+     */
+    @Override
+    public ILifeGameField<L> get(long generationIndex) {
+        if (recentField != null && recentGenerationIndex == generationIndex) {
+            return recentField;
+        }
+        if (!containsKey(generationIndex)) {
+            return null;
+        }
+        var lifeGameField = decodedCache.get(generationIndex);
+        if (lifeGameField == null) {
+            if (entries.containsKey(generationIndex)) {
+                lifeGameField = decode(generationIndex);
+            } else {
+                lifeGameField = recompute(generationIndex);
+            }
+            decodedCache.put(generationIndex, lifeGameField);
+        }
+        recentGenerationIndex = generationIndex;
+        recentField = lifeGameField;
+        return lifeGameField;
+    }
+
+    /**
+     * 指定された世代の二次元平面を、直前のキーフレームかキャッシュ済みの世代から差分を適用して復元します。
+     *
+     * @param generationIndex 保持している世代の番号
+     * @return 二次元平面
+     */
+    private ILifeGameField<L> decode(long generationIndex) {
+        // 指定された世代から遡って、起点となる世代までの差分を集める
+        var deltas = new ArrayList<FieldDelta>();
+        ILifeGameField<L> origin = null;
+        for (var entry : entries.headMap(generationIndex, true).descendingMap().entrySet()) {
+            if (entry.getValue().keyframe != null) {
+                origin = entry.getValue().keyframe;
+                break;
+            }
+            if (entry.getKey() != generationIndex) {
+                var cachedField = decodedCache.get(entry.getKey());
+                if (cachedField != null) {
+                    origin = cachedField;
+                    break;
+                }
+            }
+            deltas.add(entry.getValue().delta);
+        }
+        if (deltas.isEmpty()) {
+            return origin;
+        }
+
+        // 起点の世代に、古い順に差分をまとめて適用する
+        Collections.reverse(deltas);
+        return ((IDeltaEncodableField<L>) origin).patch(deltas);
+    }
+
+    /**
+     * 間引いた世代の二次元平面を、直前のチェックポイントかキャッシュ済みの世代から進め直して求めます。
+     *
+     * @param generationIndex 間引いた世代の番号
+     * @return 二次元平面
+     */
+    private ILifeGameField<L> recompute(long generationIndex) {
+        // 直前のチェックポイントと、それより後でキャッシュ済みの世代のうち、最も近いものを起点にする
+        long originIndex = entries.floorKey(generationIndex);
+        ILifeGameField<L> origin = null;
+        for (var cached : decodedCache.entrySet()) {
+            long cachedIndex = cached.getKey();
+            if (cachedIndex >= originIndex && cachedIndex < generationIndex) {
+                originIndex = cachedIndex;
+                origin = cached.getValue();
+            }
+        }
+        if (origin == null) {
+            origin = decode(originIndex);
+        }
+
+        // 起点を複製して、指定された世代まで進める
+        // （世代の番号は初期状態からの更新回数と等しいため、番号の差だけ進めればよい）
+        var lifeGameField = (IEditableLifeGameField<L>) ((IEditableLifeGameField<L>) origin).snapshot();
+        long startNanos = System.nanoTime();
+        for (long index = originIndex; index < generationIndex; index++) {
+            lifeGameField.step();
+        }
+        recordStepNanos((System.nanoTime() - startNanos) / (generationIndex - originIndex));
+        return lifeGameField;
+    }
+
+    /**
+     * 保持している世代を間引いて、チェックポイントだけを残します。
+     *
+     * <p>
+     * 最後に追加した世代は、次に追加する世代の差分の起点になるため、常にチェックポイントとして残します。
+     * 間引いた世代を進め直せない二次元平面（{@link IEditableLifeGameField} を実装していないもの）の場合は、
+     * 間引きません。
+     * </p>
+     */
+    private void compact() {
+        if (!(lastField instanceof IEditableLifeGameField) || entries.size() <= 2) {
+            return;
+        }
+
+        // 1 世代の更新にかかる時間の実績から、進め直す時間が上限に収まる間隔を求める
+        long interval = (stepNanos > 0) ? Math.max(1, maxRecomputeNanos / stepNanos) : keyframeInterval;
+
+        // チェックポイントだけでメモリの上限の半分を超える場合は、間隔を広げる
+        // （残りの半分は、次に間引くまでに追加する世代のために空けておく）
+        long keyframeSize = ENTRY_OVERHEAD_SIZE + estimateSize(lastField);
+        var checkpointIndexes = selectCheckpoints(interval);
+        while (checkpointIndexes.size() > 2 && checkpointIndexes.size() * keyframeSize > memoryBudget / 2) {
+            interval *= 2;
+            checkpointIndexes = selectCheckpoints(interval);
+        }
+
+        // 古い順に差分を適用しながら、チェックポイントの世代だけを完全な二次元平面として残す
+        var checkpoints = new TreeMap<Long, Entry<L>>();
+        var pendingDeltas = new ArrayList<FieldDelta>();
+        ILifeGameField<L> origin = null;
+        long lastIndex = entries.lastKey();
+        int checkpointNumber = 0;
+        long newEstimatedSize = 0;
+        for (var entry : entries.entrySet()) {
+            if (entry.getValue().keyframe != null) {
+                origin = entry.getValue().keyframe;
+                pendingDeltas.clear();
+            } else {
+                pendingDeltas.add(entry.getValue().delta);
+            }
+            if (checkpointNumber >= checkpointIndexes.size()
+                || checkpointIndexes.get(checkpointNumber) != (long) entry.getKey()) {
+                continue;
+            }
+            checkpointNumber++;
+
+            ILifeGameField<L> checkpoint;
+            if (entry.getKey() == lastIndex) {
+                checkpoint = lastField;
+            } else if (pendingDeltas.isEmpty()) {
+                checkpoint = origin;
+            } else {
+                checkpoint = ((IDeltaEncodableField<L>) origin).patch(pendingDeltas);
+            }
+            origin = checkpoint;
+            pendingDeltas.clear();
+
+            var checkpointEntry = new Entry<>(checkpoint, null);
+            checkpoints.put(entry.getKey(), checkpointEntry);
+            newEstimatedSize += checkpointEntry.estimatedSize;
+        }
+        entries = checkpoints;
+        estimatedSize = newEstimatedSize;
+        deltaCount = 0;
+        checkpointInterval = interval;
+    }
+
+    /**
+     * 保持している世代から、指定された間隔でチェックポイントとして残す世代を選びます。
+     *
+     * <p>
+     * 直前に残した世代から間隔以上離れた世代を順に残します。
+     * そのため、間引いた世代から直前のチェックポイントまでの世代の差は、常に間隔より小さくなります。
+     * 最初と最後の世代は常に残します。
+     * </p>
+     *
+     * @param interval チェックポイントの間隔
+     * @return チェックポイントとして残す世代の番号の昇順のリスト
+     */
+    private ArrayList<Long> selectCheckpoints(long interval) {
+        var checkpointIndexes = new ArrayList<Long>();
+        long lastIndex = entries.lastKey();
+        for (long index : entries.keySet()) {
+            if (checkpointIndexes.isEmpty() || index == lastIndex
+                || index - checkpointIndexes.get(checkpointIndexes.size() - 1) >= interval) {
+                checkpointIndexes.add(index);
+            }
+        }
+        return checkpointIndexes;
+    }
+
+    /**
+     * 指定された二次元平面のおおよそのバイト数を見積もります。
+     *
+     * @param <L> 生命体の型
+     * @param lifeGameField 二次元平面
+     * @return おおよそのバイト数。見積もれない場合は 0
+     */
+    private static <L> long estimateSize(ILifeGameField<L> lifeGameField) {
+        if (lifeGameField instanceof IDeltaEncodableField) {
+            return ((IDeltaEncodableField<L>) lifeGameField).estimateSize();
+        }
+        return 0;
+    }
+
+    /**
+     * 指定された世代が選択できるかを判定します。
+     * 間引いた世代も選択できます。
+     *
+     * @param generationIndex 世代の番号
+     * @return 選択できる場合は true
+     */
+    @Override
+    public boolean containsKey(long generationIndex) {
+        var run = generationRuns.floorEntry(generationIndex);
+        return run != null && generationIndex <= run.getValue();
+    }
+
+    /**
+     * 指定された世代より後で、選択できる最初の世代の番号を取得します。
+     *
+     * @param generationIndex 世代の番号
+     * @return 世代の番号。ない場合は null
+     */
+    @Override
+    public Long higherKey(long generationIndex) {
+        if (containsKey(generationIndex + 1)) {
+            return generationIndex + 1;
+        }
+        return generationRuns.higherKey(generationIndex);
+    }
+
+    /**
+     * 指定された世代より前で、選択できる最後の世代の番号を取得します。
+     *
+     * @param generationIndex 世代の番号
+     * @return 世代の番号。ない場合は null
+     */
+    @Override
+    public Long lowerKey(long generationIndex) {
+        var run = generationRuns.lowerEntry(generationIndex);
+        if (run == null) {
+            return null;
+        }
+        return Math.min(run.getValue(), generationIndex - 1);
+    }
+
+    /**
+     * 履歴が空かどうかを判定します。
+     *
+     * @return 空の場合は true
+     */
+    @Override
+    public boolean isEmpty() {
+        return generationRuns.isEmpty();
+    }
+
+    /**
+     * 選択できる世代の数を取得します。
+     * 間引いた世代も含みます。
+     *
+     * @return 世代の数
+     */
+    @Override
+    public long size() {
+        long size = 0;
+        for (var run : generationRuns.entrySet()) {
+            size += run.getValue() - run.getKey() + 1;
+        }
+        return size;
+    }
+}
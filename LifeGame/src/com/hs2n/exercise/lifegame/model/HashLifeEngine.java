@@ -0,0 +1,635 @@
+package com.hs2n.exercise.lifegame.model;
+
+import java.util.ArrayDeque;
+
+import com.hs2n.exercise.lifegame.util.LongHashSet;
+
+/**
+ * 標準のライフゲームの世代を HashLife のアルゴリズムで一気に進めるクラスです。
+ *
+ * <p>
+ * 二次元平面を四分木で表し、同じ内容の部分木は 1 つのノードに集約します。（ハッシュコンシング）
+ * 各ノードには「中央部分を 2 のべき乗の世代だけ進めた結果」をメモとして保持するため、
+ * 同じパターンが繰り返し現れる二次元平面では、指数的な世代数を少ない計算で進めることができます。
+ * </p>
+ *
+ * <p>
+ * ノードを集約するための表は、ノード数が上限を超えると世代を進める合間に整理します。
+ * 整理では最後に計算した二次元平面から辿れるノードだけを残して、メモもすべて破棄します。
+ * 本クラスはスレッドセーフではありません。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ */
+public class HashLifeEngine {
+
+    /**
+     * ノード数の上限の既定値です。
+     */
+    public static final int DEFAULT_MAX_NODE_SIZE = 1 << 20;
+
+    /**
+     * 扱える四分木の最大の階層です。
+     */
+    private static final int MAX_LEVEL = 62;
+
+    /**
+     * 1 回で進める世代数の指数の上限です。
+     * 2^j 世代進めるには階層 j + 3 のノードが必要なため、生命体が広がる分の余裕を残して上限を設けます。
+     */
+    private static final int MAX_STEP_EXPONENT = MAX_LEVEL - 6;
+
+    /**
+     * 表の初期容量です。
+     */
+    private static final int INITIAL_TABLE_CAPACITY = 1 << 10;
+
+    /**
+     * ノード数の上限です。
+     */
+    private final int maxNodeSize;
+
+    /**
+     * ノードを集約するための表です。同じハッシュ値のノードは連結リストでつなぎます。
+     */
+    private Node[] table;
+
+    /**
+     * 表に登録されているノード数です。
+     */
+    private int nodeSize;
+
+    /**
+     * ノードに割り当てる通し番号の次の値です。
+     */
+    private long nextId;
+
+    /**
+     * 生命体が存在しない葉ノードです。
+     */
+    private final Node deadLeaf;
+
+    /**
+     * 生命体が存在する葉ノードです。
+     */
+    private final Node liveLeaf;
+
+    /**
+     * 階層ごとの、生命体が存在しないノードです。
+     */
+    private final Node[] emptyNodes = new Node[MAX_LEVEL + 1];
+
+    /**
+     * 四分木のノードを表すクラスです。
+     * 階層 k のノードは 2^k × 2^k の正方形の領域を表します。
+     *
+     * @author Juno NISHIZAKI
+     *
+     */
+    private static final class Node {
+
+        /**
+         * 階層です。葉ノードは 0 です。
+         */
+        private final int level;
+
+        /**
+         * 北西（左上）の子ノードです。
+         */
+        private final Node nw;
+
+        /**
+         * 北東（右上）の子ノードです。
+         */
+        private final Node ne;
+
+        /**
+         * 南西（左下）の子ノードです。
+         */
+        private final Node sw;
+
+        /**
+         * 南東（右下）の子ノードです。
+         */
+        private final Node se;
+
+        /**
+         * 領域内に存在する生命体の数です。
+         */
+        private final long population;
+
+        /**
+         * ノードの通し番号です。ハッシュ値の計算に使用します。
+         */
+        private final long id;
+
+        /**
+         * 表で同じハッシュ値をもつ次のノードです。
+         */
+        private Node next;
+
+        /**
+         * 中央部分を 2^j 世代進めた結果のメモです。インデックスは j です。
+         */
+        private Node[] results;
+
+        /**
+         * 葉ノードを構築します。
+         *
+         * @param population 生命体の数（0 または 1）
+         * @param id 通し番号
+         */
+        private Node(long population, long id) {
+            this.level = 0;
+            this.nw = null;
+            this.ne = null;
+            this.sw = null;
+            this.se = null;
+            this.population = population;
+            this.id = id;
+        }
+
+        /**
+         * 指定された子ノードをもつノードを構築します。
+         *
+         * @param nw 北西の子ノード
+         * @param ne 北東の子ノード
+         * @param sw 南西の子ノード
+         * @param se 南東の子ノード
+         * @param id 通し番号
+         */
+        private Node(Node nw, Node ne, Node sw, Node se, long id) {
+            this.level = nw.level + 1;
+            this.nw = nw;
+            this.ne = ne;
+            this.sw = sw;
+            this.se = se;
+            this.population = nw.population + ne.population + sw.population + se.population;
+            this.id = id;
+        }
+    }
+
+    /**
+     * ノード数の上限を既定値にして構築します。
+     */
+    public HashLifeEngine() {
+        this(DEFAULT_MAX_NODE_SIZE);
+    }
+
+    /**
+     * 指定されたノード数の上限で構築します。
+     *
+     * @param maxNodeSize ノード数の上限
+     */
+    public HashLifeEngine(int maxNodeSize) {
+        if (maxNodeSize <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.maxNodeSize = maxNodeSize;
+        table = new Node[INITIAL_TABLE_CAPACITY];
+        deadLeaf = new Node(0, nextId++);
+        liveLeaf = new Node(1, nextId++);
+        emptyNodes[0] = deadLeaf;
+        for (int level = 1; level <= MAX_LEVEL; level++) {
+            emptyNodes[level] = join(emptyNodes[level - 1], emptyNodes[level - 1],
+                emptyNodes[level - 1], emptyNodes[level - 1]);
+        }
+    }
+
+    /**
+     * 表に登録されているノード数を取得します。
+     *
+     * @return ノード数
+     */
+    public int getNodeSize() {
+        return nodeSize;
+    }
+
+    /**
+     * 指定された生命体の配置から、指定された世代数だけ進めた生命体の配置を求めます。
+     *
+     * <p>
+     * 生命体の配置は、行を上位 32 ビット、列を下位 32 ビットに詰めた位置の集合で表します。
+     * 世代数を 2 進数に分解して、立っているビットごとに 2^j 世代ずつ進めます。
+     * 四分木の階層が上限を超えないように、大きすぎるビットは 2^{@value #MAX_STEP_EXPONENT} 世代ずつに分けて進めます。
+     * </p>
+     *
+     * @param lives 生命体が存在するセルの位置の集合
+     * @param generations 進める世代数
+     * @return 進めた後の生命体が存在するセルの位置の集合
+     * @throws IllegalStateException 生命体が四分木で扱える範囲を超えて広がった場合
+     */
+    public LongHashSet advance(LongHashSet lives, long generations) throws IllegalStateException {
+        if (generations < 0) {
+            throw new IllegalArgumentException();
+        }
+        if (lives.isEmpty() || generations == 0) {
+            return new LongHashSet(lives);
+        }
+
+        // 生命体の配置を四分木に変換する
+        var keys = lives.toArray();
+        var rows = new long[keys.length];
+        var columns = new long[keys.length];
+        long minRow = Long.MAX_VALUE;
+        long minColumn = Long.MAX_VALUE;
+        long maxRow = Long.MIN_VALUE;
+        long maxColumn = Long.MIN_VALUE;
+        for (int i = 0; i < keys.length; i++) {
+            rows[i] = SparseLifeGameField.toRow(keys[i]);
+            columns[i] = SparseLifeGameField.toColumn(keys[i]);
+            minRow = Math.min(minRow, rows[i]);
+            minColumn = Math.min(minColumn, columns[i]);
+            maxRow = Math.max(maxRow, rows[i]);
+            maxColumn = Math.max(maxColumn, columns[i]);
+        }
+        long extent = Math.max(maxRow - minRow, maxColumn - minColumn) + 1;
+        int level = 3;
+        while ((1L << level) < extent) {
+            level++;
+        }
+        var root = build(level, minRow, minColumn, rows, columns, 0, keys.length);
+        long top = minRow;
+        long left = minColumn;
+
+        // 立っているビットごとに 2^j 世代ずつ進める
+        for (int j = 0; (generations >>> j) != 0; j++) {
+            if (((generations >>> j) & 1L) == 0) {
+                continue;
+            }
+            int stepExponent = Math.min(j, MAX_STEP_EXPONENT);
+            for (long count = 1L << (j - stepExponent); count > 0; count--) {
+                // 進めた結果が中央部分からはみ出さないように、周囲を空の領域で広げる
+                while (root.level < stepExponent + 2 || !isPadded(root)) {
+                    if (root.level >= MAX_LEVEL - 1) {
+                        throw new IllegalStateException();
+                    }
+                    long offset = 1L << (root.level - 1);
+                    root = expand(root);
+                    top -= offset;
+                    left -= offset;
+                }
+                long offset = 1L << (root.level - 1);
+                root = expand(root);
+                top -= offset;
+                left -= offset;
+
+                // 中央部分を 2^stepExponent 世代進める
+                long centerOffset = 1L << (root.level - 2);
+                root = successor(root, stepExponent);
+                top += centerOffset;
+                left += centerOffset;
+
+                // ノード数が上限を超えていれば、表を整理する
+                evictIfNeeded(root);
+            }
+        }
+
+        // 四分木を生命体の配置に戻す
+        var nextLives = new LongHashSet((int) Math.min(root.population, Integer.MAX_VALUE / 2));
+        collect(root, top, left, nextLives);
+        return nextLives;
+    }
+
+    /**
+     * 指定された子ノードをもつノードを、表から取得または新規に登録して返します。
+     *
+     * @param nw 北西の子ノード
+     * @param ne 北東の子ノード
+     * @param sw 南西の子ノード
+     * @param se 南東の子ノード
+     * @return 集約されたノード
+     */
+    private Node join(Node nw, Node ne, Node sw, Node se) {
+        int slot = toSlot(nw, ne, sw, se, table.length);
+        for (var node = table[slot]; node != null; node = node.next) {
+            if (node.nw == nw && node.ne == ne && node.sw == sw && node.se == se) {
+                return node;
+            }
+        }
+        var node = new Node(nw, ne, sw, se, nextId++);
+        register(node, slot);
+        return node;
+    }
+
+    /**
+     * 指定されたノードを表に登録します。
+     *
+     * @param node ノード
+     * @param slot 表のインデックス
+     */
+    private void register(Node node, int slot) {
+        node.next = table[slot];
+        table[slot] = node;
+        nodeSize++;
+
+        // 負荷率が 0.75 を超えたら表を拡張する
+        if (nodeSize > table.length / 4 * 3) {
+            var oldTable = table;
+            table = new Node[oldTable.length * 2];
+            for (var head : oldTable) {
+                var node2 = head;
+                while (node2 != null) {
+                    var next = node2.next;
+                    int newSlot = toSlot(node2.nw, node2.ne, node2.sw, node2.se, table.length);
+                    node2.next = table[newSlot];
+                    table[newSlot] = node2;
+                    node2 = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * 指定された子ノードの組に対応する表のインデックスを求めます。
+     *
+     * @param nw 北西の子ノード
+     * @param ne 北東の子ノード
+     * @param sw 南西の子ノード
+     * @param se 南東の子ノード
+     * @param capacity 表の容量（2 のべき乗）
+     * @return 表のインデックス
+     */
+    private static int toSlot(Node nw, Node ne, Node sw, Node se, int capacity) {
+        long hash = nw.id;
+        hash = hash * 0x9E3779B97F4A7C15L + ne.id;
+        hash = hash * 0x9E3779B97F4A7C15L + sw.id;
+        hash = hash * 0x9E3779B97F4A7C15L + se.id;
+        hash ^= hash >>> 29;
+        return (int) (hash ^ (hash >>> 32)) & (capacity - 1);
+    }
+
+    /**
+     * ノード数が上限を超えていれば、指定されたノードから辿れるノードだけを残して表を整理します。
+     * 残したノードのメモもすべて破棄します。
+     *
+     * @param root 残すノードの根
+     */
+    private void evictIfNeeded(Node root) {
+        if (nodeSize <= maxNodeSize) {
+            return;
+        }
+        table = new Node[INITIAL_TABLE_CAPACITY];
+        nodeSize = 0;
+
+        // 生命体が存在しないノードと、指定されたノードから辿れるノードを登録し直す
+        var stack = new ArrayDeque<Node>();
+        for (int level = 1; level <= MAX_LEVEL; level++) {
+            stack.push(emptyNodes[level]);
+        }
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            var node = stack.pop();
+            if (node.level == 0 || contains(node)) {
+                continue;
+            }
+            node.results = null;
+            register(node, toSlot(node.nw, node.ne, node.sw, node.se, table.length));
+            stack.push(node.nw);
+            stack.push(node.ne);
+            stack.push(node.sw);
+            stack.push(node.se);
+        }
+    }
+
+    /**
+     * 指定されたノードが表に登録されているかを判定します。
+     *
+     * @param node ノード
+     * @return 登録されている場合 true
+     */
+    private boolean contains(Node node) {
+        int slot = toSlot(node.nw, node.ne, node.sw, node.se, table.length);
+        for (var registered = table[slot]; registered != null; registered = registered.next) {
+            if (registered == node) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 指定された範囲の生命体の配置から四分木を構築します。
+     *
+     * @param level 構築するノードの階層
+     * @param top 領域の上端の行
+     * @param left 領域の左端の列
+     * @param rows 生命体の行の配列（範囲内を並べ替えます）
+     * @param columns 生命体の列の配列（範囲内を並べ替えます）
+     * @param from 範囲の開始インデックス（この値を含む）
+     * @param to 範囲の終了インデックス（この値を含まない）
+     * @return 構築したノード
+     */
+    private Node build(int level, long top, long left, long[] rows, long[] columns, int from, int to) {
+        if (from == to) {
+            return emptyNodes[level];
+        }
+        if (level == 0) {
+            return liveLeaf;
+        }
+
+        // 上半分と下半分に分けてから、それぞれを左半分と右半分に分ける
+        long half = 1L << (level - 1);
+        int middle = partition(rows, columns, from, to, rows, top + half);
+        int upperMiddle = partition(columns, rows, from, middle, columns, left + half);
+        int lowerMiddle = partition(columns, rows, middle, to, columns, left + half);
+        return join(
+            build(level - 1, top, left, rows, columns, from, upperMiddle),
+            build(level - 1, top, left + half, rows, columns, upperMiddle, middle),
+            build(level - 1, top + half, left, rows, columns, middle, lowerMiddle),
+            build(level - 1, top + half, left + half, rows, columns, lowerMiddle, to));
+    }
+
+    /**
+     * 指定された範囲を、基準の値が境界未満の要素と境界以上の要素に分けて並べ替えます。
+     *
+     * @param values 並べ替える配列
+     * @param pairedValues 同じ順序で並べ替える対の配列
+     * @param from 範囲の開始インデックス（この値を含む）
+     * @param to 範囲の終了インデックス（この値を含まない）
+     * @param keys 基準の値の配列
+     * @param boundary 境界
+     * @return 境界以上の要素の開始インデックス
+     */
+    private static int partition(long[] values, long[] pairedValues, int from, int to, long[] keys, long boundary) {
+        int lower = from;
+        for (int i = from; i < to; i++) {
+            if (keys[i] < boundary) {
+                swap(values, i, lower);
+                swap(pairedValues, i, lower);
+                lower++;
+            }
+        }
+        return lower;
+    }
+
+    /**
+     * 配列の要素を入れ替えます。
+     *
+     * @param array 配列
+     * @param i 入れ替える要素のインデックス
+     * @param j 入れ替える要素のインデックス
+     */
+    private static void swap(long[] array, int i, int j) {
+        long temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+
+    /**
+     * 四分木に含まれる生命体の位置を集合に追加します。
+     *
+     * @param node ノード
+     * @param top 領域の上端の行
+     * @param left 領域の左端の列
+     * @param lives 追加先の集合
+     */
+    private static void collect(Node node, long top, long left, LongHashSet lives) {
+        if (node.population == 0) {
+            return;
+        }
+        if (node.level == 0) {
+            lives.add(SparseLifeGameField.toKey((int) top, (int) left));
+            return;
+        }
+        long half = 1L << (node.level - 1);
+        collect(node.nw, top, left, lives);
+        collect(node.ne, top, left + half, lives);
+        collect(node.sw, top + half, left, lives);
+        collect(node.se, top + half, left + half, lives);
+    }
+
+    /**
+     * 指定されたノードを中央に置いた、1 つ上の階層のノードを返します。
+     *
+     * @param node ノード
+     * @return 周囲を空の領域で広げたノード
+     */
+    private Node expand(Node node) {
+        var empty = emptyNodes[node.level - 1];
+        return join(
+            join(empty, empty, empty, node.nw),
+            join(empty, empty, node.ne, empty),
+            join(empty, node.sw, empty, empty),
+            join(node.se, empty, empty, empty));
+    }
+
+    /**
+     * 指定されたノードの生命体が、すべて中央の 1/4 の幅の領域に収まっているかを判定します。
+     *
+     * @param node 階層 3 以上のノード
+     * @return 収まっている場合 true
+     */
+    private static boolean isPadded(Node node) {
+        return node.level >= 3
+            && node.nw.population == node.nw.se.se.population
+            && node.ne.population == node.ne.sw.sw.population
+            && node.sw.population == node.sw.ne.ne.population
+            && node.se.population == node.se.nw.nw.population;
+    }
+
+    /**
+     * 指定されたノードの中央部分（1 つ下の階層の大きさ）を 2^j 世代進めた結果を求めます。
+     *
+     * <p>
+     * 重なり合う 9 つの部分領域をそれぞれ進めてから、
+     * それらを組み合わせた 4 つの部分領域をもう一度進めることで、中央部分を求めます。
+     * j が階層 - 2 より小さい場合は、2 回目は進めずに組み合わせるだけにします。
+     * </p>
+     *
+     * @param node 階層 2 以上のノード
+     * @param j 進める世代数の指数（階層 - 2 を上限とします）
+     * @return 中央部分を進めた結果のノード
+     */
+    private Node successor(Node node, int j) {
+        if (node.population == 0) {
+            return emptyNodes[node.level - 1];
+        }
+        int step = Math.min(j, node.level - 2);
+        if (node.results == null) {
+            node.results = new Node[node.level - 1];
+        }
+        if (node.results[step] != null) {
+            return node.results[step];
+        }
+
+        Node result;
+        if (node.level == 2) {
+            result = successorOfSmallest(node);
+        } else {
+            var nw = node.nw;
+            var ne = node.ne;
+            var sw = node.sw;
+            var se = node.se;
+            var c1 = successor(nw, step);
+            var c2 = successor(join(nw.ne, ne.nw, nw.se, ne.sw), step);
+            var c3 = successor(ne, step);
+            var c4 = successor(join(nw.sw, nw.se, sw.nw, sw.ne), step);
+            var c5 = successor(join(nw.se, ne.sw, sw.ne, se.nw), step);
+            var c6 = successor(join(ne.sw, ne.se, se.nw, se.ne), step);
+            var c7 = successor(sw, step);
+            var c8 = successor(join(sw.ne, se.nw, sw.se, se.sw), step);
+            var c9 = successor(se, step);
+
+            if (step < node.level - 2) {
+                // 1 回目で必要な世代数を進め終えているため、中央部分を組み合わせるだけにする
+                result = join(
+                    join(c1.se, c2.sw, c4.ne, c5.nw),
+                    join(c2.se, c3.sw, c5.ne, c6.nw),
+                    join(c4.se, c5.sw, c7.ne, c8.nw),
+                    join(c5.se, c6.sw, c8.ne, c9.nw));
+            } else {
+                // 組み合わせた 4 つの部分領域を、もう一度進める
+                result = join(
+                    successor(join(c1, c2, c4, c5), step),
+                    successor(join(c2, c3, c5, c6), step),
+                    successor(join(c4, c5, c7, c8), step),
+                    successor(join(c5, c6, c8, c9), step));
+            }
+        }
+        node.results[step] = result;
+        return result;
+    }
+
+    /**
+     * 階層 2（4 × 4）のノードの中央 2 × 2 を、標準のライフゲームのルールで 1 世代進めます。
+     *
+     * @param node 階層 2 のノード
+     * @return 中央部分を進めた結果の階層 1 のノード
+     */
+    private Node successorOfSmallest(Node node) {
+        var nextLeaves = new Node[4];
+        for (int i = 0; i < 4; i++) {
+            int row = 1 + i / 2;
+            int column = 1 + i % 2;
+            int lifeCount = 0;
+            for (int rowDelta = -1; rowDelta <= 1; rowDelta++) {
+                for (int columnDelta = -1; columnDelta <= 1; columnDelta++) {
+                    if (rowDelta != 0 || columnDelta != 0) {
+                        lifeCount += getLeaf(node, row + rowDelta, column + columnDelta).population;
+                    }
+                }
+            }
+            boolean hasLife = getLeaf(node, row, column).population != 0;
+            boolean willHaveLife = (lifeCount == 3) || (hasLife && lifeCount == 2);
+            nextLeaves[i] = willHaveLife ? liveLeaf : deadLeaf;
+        }
+        return join(nextLeaves[0], nextLeaves[1], nextLeaves[2], nextLeaves[3]);
+    }
+
+    /**
+     * 階層 2 のノードから、指定された位置の葉ノードを取得します。
+     *
+     * @param node 階層 2 のノード
+     * @param row 行（0 から 3）
+     * @param column 列（0 から 3）
+     * @return 葉ノード
+     */
+    private static Node getLeaf(Node node, int row, int column) {
+        var child = (row < 2) ? ((column < 2) ? node.nw : node.ne) : ((column < 2) ? node.sw : node.se);
+        int innerRow = row % 2;
+        int innerColumn = column % 2;
+        return (innerRow == 0) ? ((innerColumn == 0) ? child.nw : child.ne) : ((innerColumn == 0) ? child.sw : child.se);
+    }
+}
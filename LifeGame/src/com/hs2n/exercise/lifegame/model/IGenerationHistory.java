@@ -0,0 +1,98 @@
+package com.hs2n.exercise.lifegame.model;
+
+import com.hs2n.exercise.lifegame.model.core.ILifeGameField;
+
+/**
+ * ライフゲームのモデルが管理する、過去の世代の二次元平面の履歴を表すインターフェースです。
+ *
+ * <p>
+ * 世代の番号をキーとして二次元平面を保持します。
+ * 世代は番号の昇順に追加され、{@link LifeGame#advance(long)} で一気に進めた場合は番号が飛びます。
+ * 実装によっては、追加された二次元平面をそのままの形では保持せず、取得するときに復元します。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ * @param <L> 生命体の型
+ */
+public interface IGenerationHistory<L> extends AutoCloseable {
+
+    /**
+     * 指定された世代の二次元平面を履歴に追加します。
+     * 世代の番号は、すでに追加した世代より大きくなければなりません。
+     *
+     * @param generationIndex 世代の番号
+     * @param lifeGameField 二次元平面
+     */
+    void put(long generationIndex, ILifeGameField<L> lifeGameField);
+
+    /**
+     * 指定された世代の二次元平面を取得します。
+     *
+     * @param generationIndex 世代の番号
+     * @return 二次元平面。履歴にない世代の場合は null
+     */
+    ILifeGameField<L> get(long generationIndex);
+
+    /**
+     * 指定された世代が選択できるかを判定します。
+     *
+     * @param generationIndex 世代の番号
+     * @return 選択できる場合は true
+     */
+    boolean containsKey(long generationIndex);
+
+    /**
+     * 指定された世代より後で、選択できる最初の世代の番号を取得します。
+     *
+     * @param generationIndex 世代の番号
+     * @return 世代の番号。ない場合は null
+     */
+    Long higherKey(long generationIndex);
+
+    /**
+     * 指定された世代より前で、選択できる最後の世代の番号を取得します。
+     *
+     * @param generationIndex 世代の番号
+     * @return 世代の番号。ない場合は null
+     */
+    Long lowerKey(long generationIndex);
+
+    /**
+     * 履歴が空かどうかを判定します。
+     *
+     * @return 空の場合は true
+     */
+    boolean isEmpty();
+
+    /**
+     * 選択できる世代の数を取得します。
+     *
+     * @return 世代の数
+     */
+    long size();
+
+    /**
+     * ヒープ上のメモリの上限を設定します。
+     *
+     * @param memoryBudget メモリの上限（バイト数）
+     */
+    void setMemoryBudget(long memoryBudget);
+
+    /**
+     * 1 世代の更新にかかった時間を記録します。
+     * 既定の実装では何もしません。
+     *
+     * @param nanos 1 世代の更新にかかった時間（ナノ秒）
+     */
+    default void recordStepNanos(long nanos) {
+    }
+
+    /**
+     * 履歴が使用している資源を解放します。
+     * 既定の実装では何もしません。
+     */
+    @Override
+    default void close() {
+    }
+}
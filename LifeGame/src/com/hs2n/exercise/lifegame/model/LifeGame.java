@@ -1,14 +1,26 @@
 package com.hs2n.exercise.lifegame.model;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
-import com.hs2n.exercise.lifegame.model.core.AbstractLifeGameField;
 import com.hs2n.exercise.lifegame.model.core.ICell;
+import com.hs2n.exercise.lifegame.model.core.IDeltaEncodableField;
+import com.hs2n.exercise.lifegame.model.core.IEditableLifeGameField;
 import com.hs2n.exercise.lifegame.model.core.ILifeGameField;
+import com.hs2n.exercise.lifegame.model.core.IZobristHashedField;
 import com.hs2n.exercise.lifegame.model.core.Position;
 import com.hs2n.exercise.lifegame.util.EventNotifier;
 
@@ -18,11 +30,41 @@ import com.hs2n.exercise.lifegame.util.EventNotifier;
  * 過去の世代は履歴として管理します。
  *
  * <p>
+ * {@link #advance(long)} や {@link #step(int)} で複数の世代を一気に進めた場合、途中の世代は履歴に残りません。
+ * そのため、履歴に残っている世代の番号は連続しているとは限りません。
+ * </p>
+ *
+ * <p>
  * 初期状態（計算済みの世代が 1 世代のみ）の場合に限り、
  * 二次元平面のセルや生命体の配置を編集することができます。
  * </p>
  *
  * <p>
+ * 二次元平面が {@link IZobristHashedField} を実装している場合、世代を進めるたびにハッシュを比較して、
+ * 直近の世代と全く同じ状態の繰り返し（固定物体や振動子）を検出します。
+ * 周期を検出した後は、新たに計算も履歴への追加もせずに、周期内の世代を使い回して世代を進めます。
+ * </p>
+ *
+ * <p>
+ * {@link #setLookAheadSize(int)} で先読みする世代数を設定すると、最新世代を表示している間に、
+ * 先の世代をバックグラウンドのスレッドで計算しておきます。
+ * 次の世代に進めるときは、計算済みの世代を取り出すだけで済みます。
+ * 先読みは、リセットやランダム生成、セルの編集で初期状態が変わると取り消します。
+ * </p>
+ *
+ * <p>
+ * {@link #nextAsync()} などの非同期の操作は、モデル専用のシミュレーションスレッドで順番に実行します。
+ * 画面のスレッドからは操作を依頼するだけで、世代の計算を待たずに描画に戻れます。
+ * 状態を変更する操作は一度に 1 つのスレッドから呼び出す必要がありますが、状態の読み取りはどのスレッドからでもできます。
+ * 非同期の操作を使い始めると、先読みする世代数が 0 でも世代の計算は先読みのスレッドで行い、
+ * 計算を待つ間も読み取りを妨げないようにします。
+ * </p>
+ *
+ * <p>
+ * 使い終わったら {@link #close()} で閉じて、シミュレーションスレッドや先読みのスレッド、履歴の資源を解放します。
+ * </p>
+ *
+ * <p>
  * 二次元平面全体やセルの状態が変化したときにモデル内でイベントが発生します。
  * イベント発生の通知を受けるためのイベントハンドラーをモデルに登録することができます。
  * イベント通知を契機にビューの再描画処理を呼び出すなどして、モデルとの同期をとることができます。
@@ -33,35 +75,133 @@ import com.hs2n.exercise.lifegame.util.EventNotifier;
  * @param <L> 生命体の型
  * @param <F> 二次元平面の型
  */
-public class LifeGame<L, F extends AbstractLifeGameField<L>> {
+public class LifeGame<L, F extends IEditableLifeGameField<L>> implements AutoCloseable {
+
+    /**
+     * 周期を検出するためにハッシュを保持する、直近の世代の数です。この数以下の周期を検出できます。
+     */
+    private static final int MAX_CYCLE_PERIOD = 256;
+
+    /**
+     * モデルの状態を読み書きするときの排他制御に使用します。
+     */
+    private final Object lockObj = new Object();
+
+    /**
+     * 非同期の操作を順番に実行するシミュレーションスレッドのスレッドプールです。
+     * 非同期の操作を初めて依頼したときに生成します。
+     */
+    private ExecutorService simulationExecutor;
+
+    /**
+     * モデルを閉じたかを表すフラグです。
+     * シミュレーションスレッドで待っている操作からも参照するため、volatile とします。
+     */
+    private volatile boolean isClosed;
 
     /**
      * モデルが管理する二次元平面の最新の状態です。
      */
     private F latestLifeGameField;
 
+    /**
+     * 最新の状態の世代の番号です。
+     */
+    private long latestGenerationIndex;
+
+    /**
+     * 先読みを始めてから、最新の状態を表す二次元平面です。先読みを始めていない場合は null です。
+     * 先読みを始めると、以降の世代は先読みのスレッドが計算するため、最新の平面は更新しません。
+     * 最新の状態は、先読みで計算済みの世代（変更されない二次元平面）を取り出して差し替えます。
+     */
+    private ILifeGameField<L> latestField;
+
+    /**
+     * 先読みを始めてから、最新の状態を表す二次元平面の Zobrist ハッシュです。
+     */
+    private OptionalLong latestFieldHash = OptionalLong.empty();
+
+    /**
+     * 先の世代を先読みして計算する処理です。
+     */
+    private final LookAheadWorker<L> lookAheadWorker = new LookAheadWorker<>();
+
     /**
      * モデルが管理する二次元平面の履歴です。
-     * 最新の状態の 1 世代前からの情報をすべて保持します。
+     * 最新の状態より前の世代を、世代の番号をキーとして保持します。
+     * 保持の仕方（差分での保持やファイルへの書き出しなど）は履歴の実装に任せます。
      * 初期状態は空です。
      */
-    private List<ILifeGameField<L>> history;
+    private IGenerationHistory<L> history;
+
+    /**
+     * 履歴を作成する関数です。リセットするたびに新しい履歴を作成します。
+     * 既定では、ヒープ上に差分で保持する {@link GenerationHistory} を作成します。
+     */
+    private Supplier<? extends IGenerationHistory<L>> historyFactory = GenerationHistory::new;
+
+    /**
+     * 履歴のヒープ上のメモリの上限（バイト数）です。
+     */
+    private long historyMemoryBudget = GenerationHistory.DEFAULT_MEMORY_BUDGET;
+
+    /**
+     * まとめて世代を進めるときに、途中の世代を履歴に残す間隔です。0 の場合は途中の世代を残しません。
+     */
+    private int batchHistoryInterval;
 
     /**
      * モデル内で現在選択されている世代の番号です。
      */
-    private int generationIndex;
+    private long generationIndex;
 
     /**
-     * 世代の番号の範囲を示す条件式（述語）です。
+     * 選択中の世代の二次元平面です。求めていない場合は null です。
+     * 世代を選択したスレッドで求めておき、読み取るたびに履歴から復元し直さないようにします。
      */
-    private Predicate<Integer> generationRange = (v -> v >= 0 && v < getCalculatedGenerationSize());
+    private ILifeGameField<L> selectedLifeGameField;
+
+    /**
+     * 選択中の世代の二次元平面を求めたときの、世代の番号です。
+     */
+    private long selectedGenerationIndex;
+
+    /**
+     * 直近の世代の二次元平面の Zobrist ハッシュです。
+     * 世代の番号を {@link #MAX_CYCLE_PERIOD} で割った余りの位置に格納します。
+     */
+    private final long[] recentHashes = new long[MAX_CYCLE_PERIOD];
+
+    /**
+     * ハッシュを連続して格納し始めた世代の番号です。格納していない場合は -1 です。
+     * 世代を一気に進めると途中の世代のハッシュが得られないため、格納し直します。
+     */
+    private long hashedFromIndex = -1;
+
+    /**
+     * 検出した周期です。検出していない場合は 0 です。
+     */
+    private int cyclePeriod;
+
+    /**
+     * 周期を検出した世代の番号です。
+     * 周期を検出した後は最新の平面を更新しないため、最新の平面はこの世代の状態のままになります。
+     */
+    private long cycleDetectedIndex;
+
+    /**
+     * 選択できる世代の番号を示す条件式（述語）です。
+     * 周期を検出した後の世代は、履歴に残っていなくても周期内の世代を使い回して選択できます。
+     */
+    private Predicate<Long> generationRange = (v -> v == latestGenerationIndex || history.containsKey(v)
+        || (cyclePeriod > 0 && v >= cycleDetectedIndex && v <= latestGenerationIndex));
 
     /**
      * 平面全体の状態が変化したときに使用するイベント通知オブジェクトです。
+     * 通知先は最新の状態を描画し直すだけなので、描画が追いつかない間に発生したイベントは 1 つにまとめます。
      */
     private EventNotifier<LifeGame<L, F>, FieldChangeEventParams> fieldChangeEventNotifier = new EventNotifier<>(this,
-        true);
+        true, true, EventNotifier.UNBOUNDED, EventNotifier.OverflowPolicy.DROP_OLDEST);
 
     /**
      * 平面全体の状態が変化したときにイベント通知先に渡すパラメーターのクラスです。
@@ -113,19 +253,35 @@ public class LifeGame<L, F extends AbstractLifeGameField<L>> {
      * ライフゲームを初期状態にリセットします。
      */
     public void reset() {
-        latestLifeGameField.initializeCells();
-        initializeHistory();
+        synchronized (lockObj) {
+            latestLifeGameField.initializeCells();
+            initializeHistory();
+            startLookAhead();
 
-        // リセットにより全体の状態が変化するため、平面変化のイベントを発生させる
-        fieldChangeEventNotifier.fire(new FieldChangeEventParams());
+            // リセットにより全体の状態が変化するため、平面変化のイベントを発生させる
+            fireFieldChangeEvent();
+        }
     }
 
     /**
      * 履歴を空にして、世代番号を初期状態にします。
      */
     private void initializeHistory() {
-        history = new ArrayList<>();
+        // 最新の状態が初期状態に戻るため、先読みを取り消す
+        lookAheadWorker.cancel();
+        latestField = null;
+        latestFieldHash = OptionalLong.empty();
+        selectedLifeGameField = null;
+
+        if (history != null) {
+            history.close();
+        }
+        history = historyFactory.get();
+        history.setMemoryBudget(historyMemoryBudget);
+        latestGenerationIndex = 0;
         generationIndex = 0;
+        hashedFromIndex = -1;
+        cyclePeriod = 0;
     }
 
     /**
@@ -144,14 +300,19 @@ public class LifeGame<L, F extends AbstractLifeGameField<L>> {
      * @param random 乱数オブジェクト
      */
     public void generateLife(double birthRate, Random random) {
-        // 初期状態かチェックする
-        validateInitialState();
+        synchronized (lockObj) {
+            // 初期状態かチェックする
+            validateInitialState();
 
-        // 二次元平面のインスタンスに処理を委譲する
-        latestLifeGameField.generateLife(birthRate, random);
+            // 二次元平面のインスタンスに処理を委譲する
+            // （初期状態が変わるため、先読みは取り消してから始め直す）
+            cancelLookAhead();
+            latestLifeGameField.generateLife(birthRate, random);
+            startLookAhead();
 
-        // 全体の状態が変化するため、平面変化のイベントを発生させる
-        fieldChangeEventNotifier.fire(new FieldChangeEventParams());
+            // 全体の状態が変化するため、平面変化のイベントを発生させる
+            fireFieldChangeEvent();
+        }
     }
 
     /**
@@ -160,65 +321,934 @@ public class LifeGame<L, F extends AbstractLifeGameField<L>> {
      * @param position セルの位置
      */
     public void toggleCellAt(Position position) {
-        // 初期状態かチェックする
-        validateInitialState();
+        synchronized (lockObj) {
+            // 初期状態かチェックする
+            validateInitialState();
 
-        // 指定したセルが有効かどうかをチェックする
-        if (latestLifeGameField.isEnableCellAt(position)) {
-            // 有効の場合、無効にする
-            latestLifeGameField.disableCellAt(position);
-        } else {
-            // 無効の場合、有効にする
-            latestLifeGameField.enableCellAt(position);
-        }
+            // 指定したセルが有効かどうかをチェックする
+            cancelLookAhead();
+            if (latestLifeGameField.isEnableCellAt(position)) {
+                // 有効の場合、無効にする
+                latestLifeGameField.disableCellAt(position);
+            } else {
+                // 無効の場合、有効にする
+                latestLifeGameField.enableCellAt(position);
+            }
+            startLookAhead();
 
-        // セル変化のイベントを発生させる
-        cellChangeEventNotifier.fire(new CellChangeEventParams(position));
+            // セル変化のイベントを発生させる
+            cellChangeEventNotifier.fire(new CellChangeEventParams(position));
+        }
     }
 
     public void rotateCellStateAt(Position position) {
-        // 初期状態かチェックする
-        validateInitialState();
+        synchronized (lockObj) {
+            // 初期状態かチェックする
+            validateInitialState();
 
-        latestLifeGameField.rotateCellState(latestLifeGameField.getCellAt(position));
+            cancelLookAhead();
+            latestLifeGameField.rotateCellState(latestLifeGameField.getCellAt(position));
+            startLookAhead();
 
-        // セル変化のイベントを発生させる
-        cellChangeEventNotifier.fire(new CellChangeEventParams(position));
+            // セル変化のイベントを発生させる
+            cellChangeEventNotifier.fire(new CellChangeEventParams(position));
+        }
+    }
+
+    /**
+     * 最新の二次元平面について、世代の状態に関わらない設定（表示範囲など）を変更して、平面変化のイベントを発生させます。
+     *
+     * <p>
+     * 変更はモデルの排他制御の内側で行うため、セルの読み取りや他の操作と競合しません。
+     * 画面のスレッドからは、{@link #runAsync(Consumer)} で他の操作と順番に実行するように依頼します。
+     * 生命体の配置や有効セルは変更しないでください。
+     * </p>
+     *
+     * @param configurer 二次元平面の設定を変更する処理
+     */
+    public void configureLifeGameField(Consumer<? super F> configurer) {
+        synchronized (lockObj) {
+            configurer.accept(latestLifeGameField);
+
+            // 表示される状態が変化するため、平面変化のイベントを発生させる
+            fireFieldChangeEvent();
+        }
     }
 
     public void next() {
-        // 最新世代の場合、最新の平面を更新して、更新直前の世代を履歴に追加する
-        if (generationIndex == history.size()) {
-            history.add(latestLifeGameField.update());
+        // 先読みを始めている場合、先読みで計算済みの次の世代を取り出す
+        // （計算が済んでいない場合は、読み取りを妨げないように排他制御の外側で待つ）
+        // 取り出した後に最新の状態が変化した場合は、取り出した世代を捨てて、変化した後の状態から取り出し直す
+        boolean isApplied;
+        do {
+            isApplied = applyNext(takeLookAheadResult());
+        } while (!isApplied);
+    }
+
+    /**
+     * 次の世代に進めます。
+     * 先読みで計算済みの次の世代を取り出した場合は、取り出した後に最新の状態が変化していないかを確かめてから使用します。
+     *
+     * @param result 先読みで計算済みの次の世代の結果。取り出していない場合は null
+     * @return 進めた場合 true。取り出した世代が使えなくなっていた場合 false
+     */
+    private boolean applyNext(LookAheadWorker.Result<L> result) {
+        synchronized (lockObj) {
+            if (result != null && (result.getEpoch() != lookAheadWorker.getEpoch()
+                || generationIndex != latestGenerationIndex || cyclePeriod > 0)) {
+                // リセットや編集で先読みが取り消された場合は、取り出した世代は以前の状態の続きのため捨てる
+                // 先読みが続いたまま最新世代以外が選択された場合は、エンジンが 1 世代先に進んでいるため取り消す
+                if (result.getEpoch() == lookAheadWorker.getEpoch()) {
+                    lookAheadWorker.cancel();
+                }
+                return false;
+            }
+
+            if (generationIndex == latestGenerationIndex && cyclePeriod > 0) {
+                // 周期を検出済みの場合、計算も履歴への追加もせずに、周期内の世代を使い回して進める
+                latestGenerationIndex++;
+                generationIndex = latestGenerationIndex;
+            } else if (result != null) {
+                // 先読みを始めている場合、取り出した次の世代を最新の状態とする
+                history.recordStepNanos(result.getStepNanos());
+                history.put(latestGenerationIndex, latestField);
+                latestField = result.getLifeGameField();
+                latestFieldHash = result.getZobristHash();
+                latestGenerationIndex++;
+                generationIndex = latestGenerationIndex;
+
+                // 直近の世代と同じ状態に戻っていないかを調べる
+                detectCycle();
+            } else if (generationIndex == latestGenerationIndex) {
+                // 最新世代の場合、最新の平面を更新して、更新直前の世代を履歴に追加する
+                // （更新にかかった時間は、履歴を間引くときのチェックポイントの間隔の目安にする）
+                if (hashedFromIndex < 0) {
+                    recordHash();
+                }
+                long startNanos = System.nanoTime();
+                if (latestField != null) {
+                    // まとめて進めた後など、最新の状態を固定している場合は、複製した二次元平面を更新して最新の状態とする
+                    // （先読みを取り出した後に始まった先読みは、更新前の世代の続きのため取り消す）
+                    lookAheadWorker.cancel();
+                    var nextLifeGameField = (IEditableLifeGameField<L>) ((IEditableLifeGameField<L>) latestField)
+                        .snapshot();
+                    nextLifeGameField.step();
+                    history.recordStepNanos(System.nanoTime() - startNanos);
+                    history.put(latestGenerationIndex, latestField);
+                    latestField = nextLifeGameField;
+                    latestFieldHash = hashOf(nextLifeGameField);
+                } else {
+                    var previousLifeGameField = latestLifeGameField.update();
+                    history.recordStepNanos(System.nanoTime() - startNanos);
+                    history.put(latestGenerationIndex, previousLifeGameField);
+                }
+                latestGenerationIndex++;
+                generationIndex = latestGenerationIndex;
+
+                // 直近の世代と同じ状態に戻っていないかを調べる
+                detectCycle();
+                startLookAhead();
+            } else if (generationIndex >= getLatestFieldIndex()) {
+                // 周期を検出した後の世代の場合、1 つ次の世代に進める
+                generationIndex++;
+            } else {
+                // 最新世代でない場合、履歴に残っている次の世代に進める
+                var nextGenerationIndex = history.higherKey(generationIndex);
+                generationIndex = (nextGenerationIndex != null) ? nextGenerationIndex : getLatestFieldIndex();
+            }
+
+            // 全体の状態が変化するため、平面変化のイベントを発生させる
+            fireFieldChangeEvent();
+            return true;
+        }
+    }
+
+    /**
+     * 先読みを始めている最新世代の場合に、先読みで計算済みの次の世代を取り出します。
+     * 計算が済んでいない場合は、計算が済むまで待ちます。
+     * 待っている間に先読みが取り消された場合は、その時点の最新の状態から取り出し直します。
+     *
+     * @return 次の世代の結果。最新世代でない場合や、周期を検出済みの場合、先読みを始めていない場合は null
+     */
+    private LookAheadWorker.Result<L> takeLookAheadResult() {
+        while (true) {
+            synchronized (lockObj) {
+                if (generationIndex != latestGenerationIndex || cyclePeriod > 0 || latestField == null) {
+                    return null;
+                }
+                // まとめて進めた後などで最新の状態を固定していても、先読みを使わない設定の場合は始めない
+                if (!lookAheadWorker.isStarted() && !isLookAheadEnabled()) {
+                    return null;
+                }
+                if (hashedFromIndex < 0) {
+                    recordHash();
+                }
+                if (!lookAheadWorker.isStarted()) {
+                    lookAheadWorker.start(latestField);
+                }
+            }
+            var result = lookAheadWorker.take();
+            if (result != null) {
+                return result;
+            }
+        }
+    }
+
+    /**
+     * 最新の二次元平面を指定された世代数だけ一気に進めて、最新世代を選択します。
+     *
+     * <p>
+     * 更新直前の世代だけを履歴に追加し、途中の世代は履歴に残しません。
+     * 二次元平面の実装によっては、1 世代ずつ進めるよりも高速に計算します。
+     * </p>
+     *
+     * @param generations 進める世代数
+     */
+    public void advance(long generations) {
+        if (generations <= 0) {
+            throw new IllegalArgumentException();
+        }
+
+        while (true) {
+            // 先読みを始めている場合、先読みを取り消して（1 世代ずつのため、進めた後の世代から始め直す）、
+            // 最新の状態を複製した二次元平面を、排他制御の外側で一気に進める
+            ILifeGameField<L> baseLifeGameField;
+            long baseEpoch;
+            long baseIndex;
+            synchronized (lockObj) {
+                baseLifeGameField = (cyclePeriod > 0) ? null : latestField;
+                if (baseLifeGameField != null) {
+                    lookAheadWorker.cancel();
+                }
+                baseEpoch = lookAheadWorker.getEpoch();
+                baseIndex = latestGenerationIndex;
+            }
+            var advancedLifeGameField = (baseLifeGameField != null)
+                ? advanceLatestFieldCopy(baseLifeGameField, generations)
+                : null;
+
+            synchronized (lockObj) {
+                // 進めている間に最新の状態が変化した場合は、進めた結果を捨てて、変化した後の状態から進め直す
+                if (!isLatestUnchanged(baseEpoch, baseIndex)) {
+                    continue;
+                }
+
+                if (cyclePeriod > 0) {
+                    // 周期を検出済みの場合、計算せずに世代の番号だけを進める
+                    latestGenerationIndex += generations;
+                    generationIndex = latestGenerationIndex;
+                    fireFieldChangeEvent();
+                    return;
+                }
+
+                // 最新の平面を進めて、進める直前の世代を履歴に追加する
+                // （途中の世代のハッシュは得られないため、周期の検出は進めた後の世代からやり直す）
+                if (advancedLifeGameField != null) {
+                    history.put(latestGenerationIndex, latestField);
+                    latestField = advancedLifeGameField;
+                    latestFieldHash = hashOf(advancedLifeGameField);
+                } else {
+                    history.put(latestGenerationIndex, latestLifeGameField.advance(generations));
+                }
+                latestGenerationIndex += generations;
+                generationIndex = latestGenerationIndex;
+                hashedFromIndex = -1;
+                startLookAhead();
+
+                // 全体の状態が変化するため、平面変化のイベントを発生させる
+                fireFieldChangeEvent();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 排他制御の外側で計算を始めたときから、最新の状態が変化していないかを判定します。
+     *
+     * <p>
+     * 最新の状態を変更する操作は、いずれも先読みを取り消すか（リセットや初期状態の編集、先読みの開始）、
+     * 最新世代の番号を進めます。そのため、計算を始めたときのエポックと最新世代の番号を比べれば判定できます。
+     * 排他制御の内側で呼び出す必要があります。
+     * </p>
+     *
+     * @param baseEpoch 計算を始めたときの先読みのエポック
+     * @param baseIndex 計算を始めたときの最新世代の番号
+     * @return 変化していない場合 true
+     */
+    private boolean isLatestUnchanged(long baseEpoch, long baseIndex) {
+        return lookAheadWorker.getEpoch() == baseEpoch && latestGenerationIndex == baseIndex;
+    }
+
+    /**
+     * 最新の状態を複製した二次元平面を、指定された世代数だけ一気に進めます。
+     * 排他制御の外側で呼び出します。
+     *
+     * @param baseLifeGameField 最新の状態の二次元平面（変更されない二次元平面）
+     * @param generations 進める世代数
+     * @return 進めた二次元平面
+     */
+    private IEditableLifeGameField<L> advanceLatestFieldCopy(ILifeGameField<L> baseLifeGameField, long generations) {
+        // 最新の状態は変更されないため、複製と計算は排他制御の外側で行う
+        var advancedLifeGameField = (IEditableLifeGameField<L>) ((IEditableLifeGameField<L>) baseLifeGameField)
+            .snapshot();
+        advancedLifeGameField.advance(generations);
+        return advancedLifeGameField;
+    }
+
+    /**
+     * 最新世代から指定された世代数だけ、イベントを発生させずにまとめて進めて、最新世代を選択します。
+     *
+     * <p>
+     * 1 世代ずつ {@link #next()} を呼び出す場合と異なり、途中の世代ごとのイベントの発生や、
+     * 履歴への追加、周期の検出を行わずに、二次元平面の世代を続けて進めます。
+     * 進める直前の世代のほかは、{@link #setBatchHistoryInterval(int)} で設定した間隔ごとの世代だけを履歴に残します。
+     * 平面変化のイベントは、進め終わったときに 1 回だけ発生させます。
+     * </p>
+     *
+     * @param generations 進める世代数
+     */
+    public void step(int generations) {
+        if (generations <= 0) {
+            throw new IllegalArgumentException();
+        }
+        runBatch(generations, null);
+    }
+
+    /**
+     * 最新世代から指定された条件を満たすまで、イベントを発生させずにまとめて進めて、最新世代を選択します。
+     *
+     * <p>
+     * 1 世代進めるたびに最新の二次元平面で条件を判定し、条件を満たすか、最大の世代数に達したら止めます。
+     * 条件に渡す二次元平面は計算中のものなので、条件の中で保持したり変更したりしないでください。
+     * 途中の世代の扱いは {@link #step(int)} と同じです。
+     * </p>
+     *
+     * @param condition 止める条件
+     * @param maxGenerations 進める最大の世代数
+     * @return 進めた世代数
+     */
+    public int runUntil(Predicate<? super ILifeGameField<L>> condition, int maxGenerations) {
+        if (condition == null || maxGenerations <= 0) {
+            throw new IllegalArgumentException();
         }
-        // 世代の番号をインクリメントする
-        generationIndex++;
+        return runBatch(maxGenerations, condition);
+    }
+
+    /**
+     * 最新世代から世代をまとめて進めます。
+     *
+     * <p>
+     * 先読みを取り消して、最新の状態を複製した二次元平面を排他制御の外側で進め、進め終わった二次元平面を最新の状態とします。
+     * 途中の世代は進め終わるまで手元に保持し、最新の状態と一緒にまとめて履歴に追加します。
+     * 進めている間に最新の状態が変化した場合（リセットや編集、ほかのスレッドからの世代の更新）は、
+     * 進めた結果を捨てて、変化した後の状態から進め直します。
+     * 先読みを始めていない場合も最新の状態は固定したままとし、以降の世代は {@link #next()} で複製して 1 世代ずつ計算します。
+     * 周期を検出済みの場合は、計算せずに周期内の世代で条件を判定して、世代の番号だけを進めます。
+     * </p>
+     *
+     * @param maxGenerations 進める最大の世代数
+     * @param condition 止める条件。条件がない場合は null
+     * @return 進めた世代数
+     */
+    private int runBatch(int maxGenerations, Predicate<? super ILifeGameField<L>> condition) {
+        while (true) {
+            long fromIndex;
+            long baseEpoch;
+            int interval;
+            IEditableLifeGameField<L> engine;
+            synchronized (lockObj) {
+                if (cyclePeriod > 0) {
+                    int generations = countCycleGenerations(maxGenerations, condition);
+                    latestGenerationIndex += generations;
+                    generationIndex = latestGenerationIndex;
+                    fireFieldChangeEvent();
+                    return generations;
+                }
+                fromIndex = latestGenerationIndex;
+                interval = batchHistoryInterval;
+                lookAheadWorker.cancel();
+                baseEpoch = lookAheadWorker.getEpoch();
+                engine = (IEditableLifeGameField<L>) ((IEditableLifeGameField<L>) getLatestField()).snapshot();
+            }
+
+            // 最新の状態を複製した二次元平面はこのスレッドだけが更新するため、排他制御の外側で進める
+            // （履歴に残す世代は、最新の状態と食い違わないように、進め終わるまで手元に保持する）
+            var checkpoints = new LinkedHashMap<Long, ILifeGameField<L>>();
+            long startNanos = System.nanoTime();
+            int generations = runEngine(engine, fromIndex, maxGenerations, interval, condition, checkpoints);
+            long stepNanos = (System.nanoTime() - startNanos) / generations;
+
+            synchronized (lockObj) {
+                // 進めている間に最新の状態が変化した場合は、進めた結果を捨てて、変化した後の状態から進め直す
+                if (!isLatestUnchanged(baseEpoch, fromIndex)) {
+                    continue;
+                }
+
+                // 1 世代あたりの平均の時間を、履歴を間引くときのチェックポイントの間隔の目安にする
+                history.recordStepNanos(stepNanos);
+                checkpoints.forEach(history::put);
+                latestField = engine;
+                latestFieldHash = hashOf(engine);
+                finishBatch(generations);
+            }
+            return generations;
+        }
+    }
+
+    /**
+     * 指定された二次元平面の世代を続けて進めて、履歴に残す間隔ごとの世代を集めます。
+     *
+     * @param engine 進める二次元平面
+     * @param fromIndex 進める直前の世代の番号
+     * @param maxGenerations 進める最大の世代数
+     * @param interval 途中の世代を履歴に残す間隔。0 の場合は残さない
+     * @param condition 止める条件。条件がない場合は null
+     * @param checkpoints 履歴に残す世代を、世代の番号の順に追加するマップ
+     * @return 進めた世代数
+     */
+    private int runEngine(IEditableLifeGameField<L> engine, long fromIndex, int maxGenerations, int interval,
+        Predicate<? super ILifeGameField<L>> condition, Map<Long, ILifeGameField<L>> checkpoints) {
+        int generations = 0;
+        if (condition == null) {
+            // 条件がない場合は、履歴に残す世代の間隔ごとに一気に進める
+            // （二次元平面の実装によっては、1 世代ずつ進めるよりも高速に計算する）
+            while (generations < maxGenerations) {
+                int restGenerations = maxGenerations - generations;
+                int chunkGenerations = (interval > 0) ? Math.min(interval, restGenerations) : restGenerations;
+                checkpoints.put(fromIndex + generations, engine.advance(chunkGenerations));
+                generations += chunkGenerations;
+            }
+        } else {
+            // 条件がある場合は 1 世代ずつ進めて、履歴に残す世代だけ更新直前の二次元平面を作成する
+            while (generations < maxGenerations) {
+                if (generations == 0 || (interval > 0 && generations % interval == 0)) {
+                    checkpoints.put(fromIndex + generations, engine.update());
+                } else {
+                    engine.step();
+                }
+                generations++;
+                if (condition.test(engine)) {
+                    break;
+                }
+            }
+        }
+        return generations;
+    }
+
+    /**
+     * 周期を検出済みの場合に、周期内の世代で条件を判定して、進める世代数を求めます。
+     * 周期内のどの世代も条件を満たさない場合は、以降の世代も満たさないため、最大の世代数とします。
+     *
+     * @param maxGenerations 進める最大の世代数
+     * @param condition 止める条件。条件がない場合は null
+     * @return 進める世代数
+     */
+    private int countCycleGenerations(int maxGenerations, Predicate<? super ILifeGameField<L>> condition) {
+        if (condition == null) {
+            return maxGenerations;
+        }
+        int limit = Math.min(maxGenerations, cyclePeriod);
+        for (int generations = 1; generations <= limit; generations++) {
+            long offset = (latestGenerationIndex + generations - cycleDetectedIndex) % cyclePeriod;
+            var lifeGameField = (offset == 0) ? getLatestField()
+                : history.get(cycleDetectedIndex - cyclePeriod + offset);
+            if (condition.test(lifeGameField)) {
+                return generations;
+            }
+        }
+        return maxGenerations;
+    }
+
+    /**
+     * まとめて進め終わった世代を最新世代として選択して、平面変化のイベントを発生させます。
+     * 途中の世代のハッシュは得られないため、周期の検出は進めた後の世代からやり直します。
+     *
+     * @param generations 進めた世代数
+     */
+    private void finishBatch(int generations) {
+        latestGenerationIndex += generations;
+        generationIndex = latestGenerationIndex;
+        hashedFromIndex = -1;
+        startLookAhead();
 
         // 全体の状態が変化するため、平面変化のイベントを発生させる
-        fieldChangeEventNotifier.fire(new FieldChangeEventParams());
+        fireFieldChangeEvent();
     }
 
     public void previous() {
-        if (isFirstGeneration()) {
-            throw new IllegalStateException();
+        synchronized (lockObj) {
+            if (isFirstGeneration()) {
+                throw new IllegalStateException();
+            }
+            // 周期を検出した後の世代の場合は 1 つ前の世代に、それ以外は履歴に残っている前の世代に戻す
+            if (generationIndex > getLatestFieldIndex()) {
+                generationIndex--;
+            } else {
+                generationIndex = history.lowerKey(generationIndex);
+            }
+
+            // 全体の状態が変化するため、平面変化のイベントを発生させる
+            fireFieldChangeEvent();
         }
-        // 世代の番号をデクリメントする
-        generationIndex--;
+    }
 
-        // 全体の状態が変化するため、平面変化のイベントを発生させる
-        fieldChangeEventNotifier.fire(new FieldChangeEventParams());
+    /**
+     * 次の世代に進める操作を、シミュレーションスレッドで非同期に実行します。
+     *
+     * @return 操作の完了を表す Future
+     * @see #runAsync(Consumer)
+     */
+    public CompletableFuture<Void> nextAsync() {
+        return runAsync(LifeGame::next);
     }
 
-    public void setGenerationIndex(int generationIndex) {
-        if (!generationRange.test(generationIndex)) {
-            throw new IndexOutOfBoundsException();
+    /**
+     * 次の世代に進める操作を、期限を指定してシミュレーションスレッドで非同期に実行します。
+     *
+     * @param timeout 期限（依頼してからの時間）
+     * @return 操作の完了を表す Future
+     * @see #runAsync(Consumer, Duration)
+     */
+    public CompletableFuture<Void> nextAsync(Duration timeout) {
+        return runAsync(LifeGame::next, timeout);
+    }
+
+    /**
+     * 指定された世代数だけ一気に進める操作を、シミュレーションスレッドで非同期に実行します。
+     *
+     * @param generations 進める世代数
+     * @return 操作の完了を表す Future
+     * @see #runAsync(Consumer)
+     */
+    public CompletableFuture<Void> advanceAsync(long generations) {
+        return runAsync(lifeGame -> lifeGame.advance(generations));
+    }
+
+    /**
+     * 指定された操作を、シミュレーションスレッドで非同期に実行します。
+     *
+     * <p>
+     * 依頼した操作は、依頼した順に 1 つずつ実行します。
+     * 実行を始める前に Future を取り消した場合、その操作は実行しません。
+     * 実行を始めた操作は、途中で止めずに最後まで実行します。
+     * 操作で発生した例外は、Future の例外として返します。
+     * モデルを閉じた後に依頼した操作は、{@link RejectedExecutionException} で完了します。
+     * </p>
+     *
+     * @param operation モデルに対する操作
+     * @return 操作の完了を表す Future
+     */
+    public CompletableFuture<Void> runAsync(Consumer<? super LifeGame<L, F>> operation) {
+        var future = new CompletableFuture<Void>();
+        try {
+            getSimulationExecutor().execute(() -> {
+                // 取り消された操作や、期限を過ぎた操作、モデルを閉じた後の操作は実行しない
+                if (future.isDone()) {
+                    return;
+                }
+                if (isClosed) {
+                    future.cancel(false);
+                    return;
+                }
+                try {
+                    operation.accept(this);
+                    future.complete(null);
+                } catch (Throwable e) {
+                    // Error の場合も待っている側に伝えてから、シミュレーションスレッドに投げ直す
+                    future.completeExceptionally(e);
+                    if (e instanceof Error) {
+                        throw (Error) e;
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // モデルを閉じた後に依頼された場合は、実行できないことを Future の例外として返す
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 指定された操作を、期限を指定してシミュレーションスレッドで非同期に実行します。
+     *
+     * <p>
+     * 期限までに完了しなかった場合、Future は {@link java.util.concurrent.TimeoutException} で完了します。
+     * 期限までに実行を始めなかった操作は実行しません。
+     * 自動で世代を進める場合など、計算が追いつかないときに古い依頼を捨てるために使用します。
+     * </p>
+     *
+     * @param operation モデルに対する操作
+     * @param timeout 期限（依頼してからの時間）
+     * @return 操作の完了を表す Future
+     */
+    public CompletableFuture<Void> runAsync(Consumer<? super LifeGame<L, F>> operation, Duration timeout) {
+        return runAsync(operation).orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * シミュレーションスレッドのスレッドプールを取得します。
+     * 初めて取得したときに生成して、計算を先読みのスレッドで行うように先読みを始めます。
+     *
+     * @return シミュレーションスレッドのスレッドプール
+     * @throws RejectedExecutionException モデルを閉じた後の場合
+     */
+    private ExecutorService getSimulationExecutor() throws RejectedExecutionException {
+        synchronized (lockObj) {
+            if (isClosed) {
+                throw new RejectedExecutionException();
+            }
+            if (simulationExecutor == null) {
+                // デーモンスレッドを扱うために独自の ThreadFactory を用意する
+                ThreadFactory threadFactory = r -> {
+                    var thread = new Thread(r, "lifegame-simulation");
+                    thread.setDaemon(true);
+                    return thread;
+                };
+                simulationExecutor = Executors.newSingleThreadExecutor(threadFactory);
+                startLookAhead();
+            }
+            return simulationExecutor;
+        }
+    }
+
+    /**
+     * モデルを閉じて、シミュレーションスレッドと先読みのスレッドを停止し、履歴の資源を解放します。
+     *
+     * <p>
+     * 依頼済みでまだ始まっていない非同期の操作は実行しません。
+     * 実行中の操作は最後まで実行してから、シミュレーションスレッドで履歴を閉じます。
+     * 閉じた後は、モデルの状態を変更しないでください。既に閉じている場合は何もしません。
+     * </p>
+     */
+    @Override
+    public void close() {
+        ExecutorService executor;
+        synchronized (lockObj) {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+            lookAheadWorker.shutdown();
+            executor = simulationExecutor;
+            if (executor == null) {
+                history.close();
+                return;
+            }
+        }
+
+        // 実行中の操作が履歴を使い終わってから閉じるため、シミュレーションスレッドの最後の操作として閉じる
+        executor.execute(() -> {
+            synchronized (lockObj) {
+                history.close();
+            }
+        });
+        executor.shutdown();
+    }
+
+    public void setGenerationIndex(long generationIndex) {
+        synchronized (lockObj) {
+            if (!generationRange.test(generationIndex)) {
+                throw new IndexOutOfBoundsException();
+            }
+            this.generationIndex = generationIndex;
+            fireFieldChangeEvent();
+        }
+    }
+
+    public long getGenerationIndex() {
+        synchronized (lockObj) {
+            return generationIndex;
+        }
+    }
+
+    public long getLatestGenerationIndex() {
+        synchronized (lockObj) {
+            return latestGenerationIndex;
+        }
+    }
+
+    /**
+     * 直近の世代と同じ状態の繰り返しを検出したかを判定します。
+     *
+     * @return 検出した場合 true
+     */
+    public boolean isCycleDetected() {
+        synchronized (lockObj) {
+            return cyclePeriod > 0;
+        }
+    }
+
+    /**
+     * 検出した周期を取得します。固定物体の場合は 1 になります。
+     *
+     * @return 周期。検出していない場合は 0
+     */
+    public int getCyclePeriod() {
+        synchronized (lockObj) {
+            return cyclePeriod;
         }
-        this.generationIndex = generationIndex;
-        fieldChangeEventNotifier.fire(new FieldChangeEventParams());
     }
 
-    public int getGenerationIndex() {
-        return generationIndex;
+    /**
+     * 検出した周期の最初の世代の番号を取得します。
+     * この世代以降は、周期ごとに同じ状態を繰り返します。
+     *
+     * @return 周期の最初の世代の番号。検出していない場合は -1
+     */
+    public long getCycleStartIndex() {
+        synchronized (lockObj) {
+            return (cyclePeriod > 0) ? cycleDetectedIndex - cyclePeriod : -1;
+        }
+    }
+
+    /**
+     * 先読みする世代数を設定します。0 の場合は先読みしません。
+     *
+     * <p>
+     * 先読みを始めると、以降の世代は先読みのスレッドで計算します。
+     * 先読みする世代数を 0 に戻した後も、次の世代は先読みのスレッドで 1 世代ずつ計算します。
+     * </p>
+     *
+     * @param lookAheadSize 先読みする世代数
+     */
+    public void setLookAheadSize(int lookAheadSize) {
+        synchronized (lockObj) {
+            lookAheadWorker.setLookAheadSize(lookAheadSize);
+            startLookAhead();
+        }
+    }
+
+    /**
+     * 先読みする世代数を取得します。
+     *
+     * @return 先読みする世代数
+     */
+    public int getLookAheadSize() {
+        return lookAheadWorker.getLookAheadSize();
+    }
+
+    /**
+     * 先読みを使うかを判定します。
+     * 先読みする世代数が設定されているか、非同期の操作を使い始めていれば、先読みを使います。
+     * モデルを閉じた後は使いません。
+     *
+     * @return 先読みを使う場合 true
+     */
+    private boolean isLookAheadEnabled() {
+        if (isClosed) {
+            return false;
+        }
+        return lookAheadWorker.getLookAheadSize() > 0 || simulationExecutor != null;
+    }
+
+    /**
+     * 先読みを使う場合に、最新の状態を起点として先読みを始めます。
+     * 始めている場合や、周期を検出済みで計算が不要な場合は何もしません。
+     */
+    private void startLookAhead() {
+        if (!isLookAheadEnabled()) {
+            return;
+        }
+        if (lookAheadWorker.isStarted() || cyclePeriod > 0) {
+            return;
+        }
+        // 最新の平面を最新の状態として固定して、以降は変更しないようにする
+        if (latestField == null) {
+            latestField = latestLifeGameField;
+            latestFieldHash = hashOf(latestLifeGameField);
+        }
+        lookAheadWorker.start(latestField);
+    }
+
+    /**
+     * 初期状態を編集する前に、先読みを取り消して、最新の平面を最新の状態に戻します。
+     */
+    private void cancelLookAhead() {
+        lookAheadWorker.cancel();
+        latestField = null;
+        latestFieldHash = OptionalLong.empty();
+        selectedLifeGameField = null;
+    }
+
+    /**
+     * 最新の状態を表す二次元平面を取得します。
+     *
+     * @return 先読みを始めている場合は最新の状態の二次元平面、それ以外は最新の平面
+     */
+    private ILifeGameField<L> getLatestField() {
+        return (latestField != null) ? latestField : latestLifeGameField;
+    }
+
+    /**
+     * 最新の状態の Zobrist ハッシュを取得します。
+     *
+     * @return Zobrist ハッシュ。求められない場合は空
+     */
+    private OptionalLong getLatestHash() {
+        return (latestField != null) ? latestFieldHash : hashOf(latestLifeGameField);
+    }
+
+    /**
+     * 指定された二次元平面の Zobrist ハッシュを取得します。
+     *
+     * @param lifeGameField 二次元平面
+     * @return Zobrist ハッシュ。求められない場合は空
+     */
+    private OptionalLong hashOf(ILifeGameField<L> lifeGameField) {
+        if (!(lifeGameField instanceof IZobristHashedField)) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(((IZobristHashedField<L>) lifeGameField).getZobristHash());
+    }
+
+    /**
+     * 最新の平面が表している世代の番号を取得します。
+     * 周期を検出した後は、最新世代ではなく周期を検出した世代になります。
+     *
+     * @return 世代の番号
+     */
+    private long getLatestFieldIndex() {
+        return (cyclePeriod > 0) ? cycleDetectedIndex : latestGenerationIndex;
+    }
+
+    /**
+     * 最新の平面のハッシュを、最新世代のハッシュとして格納します。
+     * 格納していなかった場合は、最新世代から格納し始めます。
+     */
+    private void recordHash() {
+        var hash = getLatestHash();
+        if (hash.isEmpty()) {
+            return;
+        }
+        recentHashes[(int) (latestGenerationIndex % MAX_CYCLE_PERIOD)] = hash.getAsLong();
+        if (hashedFromIndex < 0) {
+            hashedFromIndex = latestGenerationIndex;
+        }
+    }
+
+    /**
+     * 最新世代のハッシュを直近の世代のハッシュと比較して、同じ状態の繰り返しを検出します。
+     *
+     * <p>
+     * ハッシュが一致した世代は、念のため状態そのものを比較して確かめます。
+     * 最も近い世代から順に比較するため、検出する周期は最小の周期になります。
+     * </p>
+     */
+    private void detectCycle() {
+        var latestHash = getLatestHash();
+        if (latestHash.isEmpty() || hashedFromIndex < 0) {
+            return;
+        }
+        long hash = latestHash.getAsLong();
+        long fromIndex = Math.max(hashedFromIndex, latestGenerationIndex - MAX_CYCLE_PERIOD + 1);
+        for (long index = latestGenerationIndex - 1; index >= fromIndex; index--) {
+            if (recentHashes[(int) (index % MAX_CYCLE_PERIOD)] == hash && isSameAsLatest(history.get(index))) {
+                cyclePeriod = (int) (latestGenerationIndex - index);
+                cycleDetectedIndex = latestGenerationIndex;
+
+                // 以降の世代は計算しないため、先読みも取り消す
+                lookAheadWorker.cancel();
+                return;
+            }
+        }
+        recordHash();
+    }
+
+    /**
+     * 指定された二次元平面が、最新の平面と全く同じ状態かを判定します。
+     *
+     * @param lifeGameField 比較する二次元平面
+     * @return 同じ状態の場合 true
+     */
+    private boolean isSameAsLatest(ILifeGameField<L> lifeGameField) {
+        if (lifeGameField instanceof IDeltaEncodableField) {
+            // 差分を作成できる場合は、差分が空かどうかで判定する
+            var delta = ((IDeltaEncodableField<L>) lifeGameField).diff(getLatestField());
+            return delta != null && delta.size() == 0;
+        }
+
+        // 差分を作成できない場合は、セルを 1 つずつ比較する
+        for (int rowIndex = 0; rowIndex < getRowSize(); rowIndex++) {
+            for (int columnIndex = 0; columnIndex < getColumnSize(); columnIndex++) {
+                var cell = lifeGameField.getCellAt(rowIndex, columnIndex);
+                var latestCell = getLatestField().getCellAt(rowIndex, columnIndex);
+                if (cell.hasLife() != latestCell.hasLife()
+                    || (cell.hasLife() && !cell.getLife().equals(latestCell.getLife()))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 履歴のヒープ上のメモリの上限を設定します。
+     * 既定の履歴では、保持量の見積もりが上限を超えると、チェックポイントだけを残して途中の世代を間引きます。
+     * 間引いた世代も選択でき、選択したときに直前のチェックポイントから進め直して求めます。
+     *
+     * @param historyMemoryBudget 履歴のメモリの上限（バイト数）
+     */
+    public void setHistoryMemoryBudget(long historyMemoryBudget) {
+        synchronized (lockObj) {
+            history.setMemoryBudget(historyMemoryBudget);
+            this.historyMemoryBudget = historyMemoryBudget;
+        }
+    }
+
+    /**
+     * 履歴を作成する関数を設定して、空の履歴に差し替えます。
+     * 例えば {@link MappedGenerationHistory} を作成する関数を設定すると、
+     * ヒープに収まらない数の世代をファイルに書き出して保持できます。
+     * 初期状態の場合のみ設定できます。
+     *
+     * @param historyFactory 履歴を作成する関数
+     */
+    public void setHistoryFactory(Supplier<? extends IGenerationHistory<L>> historyFactory) {
+        synchronized (lockObj) {
+            validateInitialState();
+            this.historyFactory = historyFactory;
+            initializeHistory();
+            startLookAhead();
+        }
+    }
+
+    /**
+     * まとめて世代を進めるときに、途中の世代を履歴に残す間隔を設定します。
+     * 例えば 10 の場合は、進める直前の世代から 10 世代ごとの世代を履歴に残します。
+     *
+     * @param batchHistoryInterval 履歴に残す間隔。0 の場合は途中の世代を残しません
+     * @see #step(int)
+     * @see #runUntil(Predicate, int)
+     */
+    public void setBatchHistoryInterval(int batchHistoryInterval) {
+        if (batchHistoryInterval < 0) {
+            throw new IllegalArgumentException();
+        }
+        synchronized (lockObj) {
+            this.batchHistoryInterval = batchHistoryInterval;
+        }
+    }
+
+    /**
+     * まとめて世代を進めるときに、途中の世代を履歴に残す間隔を取得します。
+     *
+     * @return 履歴に残す間隔。0 の場合は途中の世代を残しません
+     */
+    public int getBatchHistoryInterval() {
+        synchronized (lockObj) {
+            return batchHistoryInterval;
+        }
+    }
+
+    /**
+     * 履歴のメモリの上限を取得します。
+     *
+     * @return 履歴のメモリの上限（バイト数）
+     */
+    public long getHistoryMemoryBudget() {
+        synchronized (lockObj) {
+            return historyMemoryBudget;
+        }
     }
 
     public int getRowSize() {
@@ -229,39 +1259,129 @@ public class LifeGame<L, F extends AbstractLifeGameField<L>> {
         return latestLifeGameField.getColumnSize();
     }
 
-    public int getCalculatedGenerationSize() {
-        return history.size() + 1;
+    /**
+     * 計算済みの世代数を取得します。
+     * 一気に進めたために履歴に残っていない世代も含みます。
+     *
+     * @return 計算済みの世代数
+     */
+    public long getCalculatedGenerationSize() {
+        synchronized (lockObj) {
+            return latestGenerationIndex + 1;
+        }
     }
 
     public boolean isInitialState() {
-        return history.size() == 0;
+        synchronized (lockObj) {
+            return history.isEmpty();
+        }
     }
 
     public boolean isFirstGeneration() {
-        return generationIndex == 0;
+        synchronized (lockObj) {
+            return generationIndex == 0;
+        }
     }
 
     public boolean isEnabledCellAt(Position position) {
-        return latestLifeGameField.isEnableCellAt(position);
+        return isEnabledCellAt(position.getRow(), position.getColumn());
+    }
+
+    /**
+     * 指定された行と列のインデックスに対応するセルが有効かどうかを判定します。
+     * 位置のインスタンスを生成せずに判定します。
+     *
+     * @param rowIndex 行インデックス
+     * @param columnIndex 列インデックス
+     * @return 有効セルの場合 true、無効セルの場合 false
+     */
+    public boolean isEnabledCellAt(int rowIndex, int columnIndex) {
+        synchronized (lockObj) {
+            return latestLifeGameField.isEnableCellAt(rowIndex, columnIndex);
+        }
     }
 
     public ICell<L> getCurrentCellAt(Position position) {
-        return getCurrentLifeGameField().getCellAt(position);
+        return getCurrentCellAt(position.getRow(), position.getColumn());
     }
 
+    /**
+     * 選択中の世代の二次元平面から、指定された行と列のインデックスに対応するセルを取得します。
+     * 位置のインスタンスを生成せずに取得します。
+     *
+     * @param rowIndex 行インデックス
+     * @param columnIndex 列インデックス
+     * @return セル
+     */
+    public ICell<L> getCurrentCellAt(int rowIndex, int columnIndex) {
+        synchronized (lockObj) {
+            return getCurrentLifeGameField().getCellAt(rowIndex, columnIndex);
+        }
+    }
+
+    /**
+     * 選択中の世代の二次元平面を取得します。
+     * 求めていない場合は、履歴などから求めて、次に取得するときのために保持しておきます。
+     *
+     * @return 選択中の世代の二次元平面
+     */
     private ILifeGameField<L> getCurrentLifeGameField() {
-        if (generationIndex == history.size()) {
-            return latestLifeGameField;
+        if (selectedLifeGameField == null || selectedGenerationIndex != generationIndex) {
+            selectedLifeGameField = findCurrentLifeGameField();
+            selectedGenerationIndex = generationIndex;
+        }
+        return selectedLifeGameField;
+    }
+
+    /**
+     * 選択中の世代の二次元平面を、最新の状態や履歴から求めます。
+     * 履歴の実装によっては、差分からの復元やチェックポイントからの再計算を行います。
+     *
+     * @return 選択中の世代の二次元平面
+     */
+    private ILifeGameField<L> findCurrentLifeGameField() {
+        long latestFieldIndex = getLatestFieldIndex();
+        if (generationIndex >= latestFieldIndex) {
+            // 周期を検出した後の世代は、周期内の対応する世代を使い回す
+            // （周期の最初の世代は最新の平面と同じ状態のため、最新の平面を返す）
+            long offset = (cyclePeriod > 0) ? (generationIndex - latestFieldIndex) % cyclePeriod : 0;
+            if (offset == 0) {
+                return getLatestField();
+            }
+            return history.get(latestFieldIndex - cyclePeriod + offset);
         }
         return history.get(generationIndex);
     }
 
+    /**
+     * 選択中の世代の二次元平面を求め直してから、平面変化のイベントを発生させます。
+     *
+     * <p>
+     * 履歴からの復元は、世代を選択したスレッド（非同期の操作ではシミュレーションスレッド）で済ませておきます。
+     * イベントを受けて描画するスレッドは、求め済みの二次元平面を読み取るだけで済みます。
+     * </p>
+     */
+    private void fireFieldChangeEvent() {
+        selectedLifeGameField = null;
+        getCurrentLifeGameField();
+        fieldChangeEventNotifier.fire(new FieldChangeEventParams());
+    }
+
     private void validateInitialState() {
         if (!isInitialState()) {
             throw new IllegalStateException();
         }
     }
 
+    /**
+     * 平面全体の状態が変化したときのイベントのうち、通知する前に新しいイベントにまとめた数を取得します。
+     *
+     * @return まとめたイベントの数
+     */
+    public long getCoalescedFieldChangeEventCount() {
+        return fieldChangeEventNotifier.getCoalescedEventCount();
+    }
+
     public void addFieldChangedEventHandler(BiConsumer<LifeGame<L, F>, FieldChangeEventParams> eventHandler) {
         fieldChangeEventNotifier.addEventHandler(eventHandler);
     }
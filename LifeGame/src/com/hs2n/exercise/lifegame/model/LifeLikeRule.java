@@ -0,0 +1,198 @@
+package com.hs2n.exercise.lifegame.model;
+
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * 誕生と生存の条件を近傍の生命体の数だけで定める、Life-like なルールを表すクラスです。
+ *
+ * <p>
+ * ルールは「B3/S23」のような B/S 表記のルール文字列で指定します。
+ * B の後には生命体が誕生する近傍の生命体の数を、S の後には生命体が生存する近傍の生命体の数を並べます。
+ * それぞれの数の集合は、数 n を n ビット目に対応させた 9 ビットのビットマスクとして保持します。
+ * </p>
+ *
+ * <p>
+ * インスタンスは不変なので、複数の二次元平面やスレッドで共有できます。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ */
+public final class LifeLikeRule {
+
+    /**
+     * 近傍に存在する生命体の数の最大値です。
+     */
+    private static final int MAX_NEIBOR_COUNT = 8;
+
+    /**
+     * ビットマスクの範囲を示すマスクです。
+     */
+    private static final int COUNT_MASK = (1 << (MAX_NEIBOR_COUNT + 1)) - 1;
+
+    /**
+     * B/S 表記のルール文字列のパターンです。（大文字小文字を区別しません）
+     */
+    private static final Pattern RULESTRING_PATTERN = Pattern.compile("B([0-8]*)/S([0-8]*)", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * 標準のライフゲーム（Conway's Game of Life）のルールです。
+     */
+    public static final LifeLikeRule CONWAY = parse("B3/S23");
+
+    /**
+     * 生命体が誕生する近傍の生命体の数のビットマスクです。
+     */
+    private final int birthMask;
+
+    /**
+     * 生命体が生存する近傍の生命体の数のビットマスクです。
+     */
+    private final int survivalMask;
+
+    /**
+     * 指定されたビットマスクでルールを構築します。
+     *
+     * @param birthMask 生命体が誕生する近傍の生命体の数のビットマスク
+     * @param survivalMask 生命体が生存する近傍の生命体の数のビットマスク
+     */
+    private LifeLikeRule(int birthMask, int survivalMask) {
+        this.birthMask = birthMask;
+        this.survivalMask = survivalMask;
+    }
+
+    /**
+     * 指定されたビットマスクのルールを取得します。
+     *
+     * @param birthMask 生命体が誕生する近傍の生命体の数のビットマスク（0 から 511 まで）
+     * @param survivalMask 生命体が生存する近傍の生命体の数のビットマスク（0 から 511 まで）
+     * @return ルール
+     */
+    public static LifeLikeRule of(int birthMask, int survivalMask) {
+        if ((birthMask & ~COUNT_MASK) != 0 || (survivalMask & ~COUNT_MASK) != 0) {
+            throw new IllegalArgumentException();
+        }
+        return new LifeLikeRule(birthMask, survivalMask);
+    }
+
+    /**
+     * B/S 表記のルール文字列を解析して、ルールを取得します。
+     *
+     * @param rulestring 「B36/S23」のようなルール文字列
+     * @return ルール
+     * @throws IllegalArgumentException ルール文字列が B/S 表記として正しくない場合
+     */
+    public static LifeLikeRule parse(String rulestring) throws IllegalArgumentException {
+        if (rulestring == null) {
+            throw new IllegalArgumentException();
+        }
+        var matcher = RULESTRING_PATTERN.matcher(rulestring.trim());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException(rulestring);
+        }
+        return new LifeLikeRule(toMask(matcher.group(1)), toMask(matcher.group(2)));
+    }
+
+    /**
+     * 数字を並べた文字列を、数字に対応するビットを立てたビットマスクに変換します。
+     *
+     * @param digits 数字を並べた文字列
+     * @return ビットマスク
+     */
+    private static int toMask(String digits) {
+        int mask = 0;
+        for (char digit : digits.toCharArray()) {
+            mask |= 1 << (digit - '0');
+        }
+        return mask;
+    }
+
+    /**
+     * 生命体が誕生する近傍の生命体の数のビットマスクを取得します。
+     *
+     * @return ビットマスク
+     */
+    public int getBirthMask() {
+        return birthMask;
+    }
+
+    /**
+     * 生命体が生存する近傍の生命体の数のビットマスクを取得します。
+     *
+     * @return ビットマスク
+     */
+    public int getSurvivalMask() {
+        return survivalMask;
+    }
+
+    /**
+     * 生命体が存在しないセルに、生命体が誕生するかを判定します。
+     *
+     * @param neiborLifeCount 近傍に存在する生命体の数
+     * @return 誕生する場合は true
+     */
+    public boolean isBirth(int neiborLifeCount) {
+        return (birthMask & (1 << neiborLifeCount)) != 0;
+    }
+
+    /**
+     * 生命体が存在するセルで、生命体が生存するかを判定します。
+     *
+     * @param neiborLifeCount 近傍に存在する生命体の数
+     * @return 生存する場合は true
+     */
+    public boolean isSurvival(int neiborLifeCount) {
+        return (survivalMask & (1 << neiborLifeCount)) != 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(birthMask, survivalMask);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        var other = getClass().cast(obj);
+        if (birthMask != other.birthMask) {
+            return false;
+        }
+        if (survivalMask != other.survivalMask) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * ルールを B/S 表記のルール文字列で返します。
+     */
+    @Override
+    public String toString() {
+        return "B" + toDigits(birthMask) + "/S" + toDigits(survivalMask);
+    }
+
+    /**
+     * ビットマスクを、立っているビットに対応する数字を昇順に並べた文字列に変換します。
+     *
+     * @param mask ビットマスク
+     * @return 数字を並べた文字列
+     */
+    private static String toDigits(int mask) {
+        var digits = new StringBuilder();
+        for (int count = 0; count <= MAX_NEIBOR_COUNT; count++) {
+            if ((mask & (1 << count)) != 0) {
+                digits.append(count);
+            }
+        }
+        return digits.toString();
+    }
+}
@@ -0,0 +1,397 @@
+package com.hs2n.exercise.lifegame.model;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.OptionalLong;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import com.hs2n.exercise.lifegame.model.core.IEditableLifeGameField;
+import com.hs2n.exercise.lifegame.model.core.ILifeGameField;
+import com.hs2n.exercise.lifegame.model.core.IZobristHashedField;
+
+/**
+ * 最新世代より先の世代を、バックグラウンドのスレッドで先読みして計算しておくクラスです。
+ *
+ * <p>
+ * 先読みを始めるときに、起点となる世代の二次元平面を複製して、先読み専用の二次元平面（エンジン）とします。
+ * エンジンは先読みのスレッドだけが更新するため、起点の二次元平面や計算済みの世代と競合しません。
+ * 計算した世代は、先読みする世代数に達するまでキューに溜めておき、{@link #take()} で古い順に取り出します。
+ * </p>
+ *
+ * <p>
+ * 先読みを取り消すと、世代ごとに増やす番号（エポック）を進めて、それまでのエンジンと計算済みの世代を捨てます。
+ * 取り消す前に始めた計算は、結果を書き込む時点でエポックが変わっていることに気付いて、結果を捨てて終了します。
+ * そのため、取り消しで計算の終了を待つ必要はありません。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ * @param <L> 生命体の型
+ */
+class LookAheadWorker<L> {
+
+    /**
+     * 先読みで計算した 1 世代分の結果を表すクラスです。
+     *
+     * @author Juno NISHIZAKI
+     *
+     * @param <L> 生命体の型
+     */
+    static class Result<L> {
+
+        /**
+         * 計算した世代の二次元平面です。
+         */
+        private final ILifeGameField<L> lifeGameField;
+
+        /**
+         * 計算した世代の二次元平面の Zobrist ハッシュです。求められない場合は空です。
+         */
+        private final OptionalLong zobristHash;
+
+        /**
+         * 世代の更新にかかった時間（ナノ秒）です。
+         */
+        private final long stepNanos;
+
+        /**
+         * 計算を始めたときのエポックです。
+         */
+        private final long epoch;
+
+        /**
+         * 指定された二次元平面とハッシュの結果を構築します。
+         *
+         * @param lifeGameField 二次元平面
+         * @param zobristHash Zobrist ハッシュ
+         * @param stepNanos 世代の更新にかかった時間（ナノ秒）
+         * @param epoch 計算を始めたときのエポック
+         */
+        private Result(ILifeGameField<L> lifeGameField, OptionalLong zobristHash, long stepNanos, long epoch) {
+            this.lifeGameField = lifeGameField;
+            this.zobristHash = zobristHash;
+            this.stepNanos = stepNanos;
+            this.epoch = epoch;
+        }
+
+        /**
+         * 計算した世代の二次元平面を取得します。
+         *
+         * @return 二次元平面
+         */
+        ILifeGameField<L> getLifeGameField() {
+            return lifeGameField;
+        }
+
+        /**
+         * 計算した世代の二次元平面の Zobrist ハッシュを取得します。
+         *
+         * @return Zobrist ハッシュ。求められない場合は空
+         */
+        OptionalLong getZobristHash() {
+            return zobristHash;
+        }
+
+        /**
+         * 世代の更新にかかった時間を取得します。
+         *
+         * @return 世代の更新にかかった時間（ナノ秒）
+         */
+        long getStepNanos() {
+            return stepNanos;
+        }
+
+        /**
+         * 計算を始めたときのエポックを取得します。
+         * 現在のエポックと異なる場合、取り出した後に先読みが取り消されたことを表します。
+         *
+         * @return エポック
+         */
+        long getEpoch() {
+            return epoch;
+        }
+    }
+
+    /**
+     * 先読みの状態を操作するときの排他制御に使用します。
+     */
+    private final Object lockObj = new Object();
+
+    /**
+     * 先読みの計算に使用するスレッドプールです。最初に使用するときに生成します。
+     */
+    private ExecutorService lookAheadExecutor;
+
+    /**
+     * 先読みする世代数です。0 の場合は、{@link #take()} で求められた世代だけを計算します。
+     */
+    private int lookAheadSize;
+
+    /**
+     * {@link #take()} で待っている間、少なくとも計算しておく世代数です。
+     */
+    private int requiredSize;
+
+    /**
+     * 計算済みで、まだ取り出していない世代です。古い順に並べます。
+     */
+    private final Deque<Result<L>> results = new ArrayDeque<>();
+
+    /**
+     * 先読み専用の二次元平面です。先読みしていない場合は null です。
+     */
+    private IEditableLifeGameField<L> engine;
+
+    /**
+     * 先読みを取り消すたびに進める番号です。
+     */
+    private long epoch;
+
+    /**
+     * 現在のエポックの計算が、スレッドプールで実行中かを表すフラグです。
+     */
+    private boolean isRunning;
+
+    /**
+     * 先読みの計算で発生した例外です。発生していない場合は null です。
+     */
+    private RuntimeException failure;
+
+    /**
+     * スレッドプールを停止したかを表すフラグです。
+     */
+    private boolean isShutdown;
+
+    /**
+     * 先読みする世代数を取得します。
+     *
+     * @return 先読みする世代数
+     */
+    int getLookAheadSize() {
+        synchronized (lockObj) {
+            return lookAheadSize;
+        }
+    }
+
+    /**
+     * 先読みする世代数を設定します。
+     * 先読みしている場合は、新しい世代数まで計算を続けます。
+     *
+     * @param lookAheadSize 先読みする世代数
+     */
+    void setLookAheadSize(int lookAheadSize) {
+        if (lookAheadSize < 0) {
+            throw new IllegalArgumentException();
+        }
+        synchronized (lockObj) {
+            this.lookAheadSize = lookAheadSize;
+            schedule();
+        }
+    }
+
+    /**
+     * 現在のエポックを取得します。
+     * 先読みを取り消すたびに変わるため、先読みの外側で始めた計算の間に取り消されたかを確かめるためにも使用します。
+     *
+     * @return エポック
+     */
+    long getEpoch() {
+        synchronized (lockObj) {
+            return epoch;
+        }
+    }
+
+    /**
+     * 先読みを始めているかを判定します。
+     *
+     * @return 始めている場合 true
+     */
+    boolean isStarted() {
+        synchronized (lockObj) {
+            return engine != null;
+        }
+    }
+
+    /**
+     * 指定された世代を起点として、先読みを始めます。
+     * 先読みしていた場合は、取り消してから始め直します。
+     *
+     * @param baseLifeGameField 起点となる世代の二次元平面。以降は変更しない必要があります
+     * @throws IllegalArgumentException 二次元平面を複製できない場合
+     * @throws IllegalStateException スレッドプールを停止した後の場合
+     */
+    void start(ILifeGameField<L> baseLifeGameField) throws IllegalArgumentException, IllegalStateException {
+        if (!(baseLifeGameField instanceof IEditableLifeGameField)) {
+            throw new IllegalArgumentException();
+        }
+        var baseEngine = ((IEditableLifeGameField<L>) baseLifeGameField).snapshot();
+        if (!(baseEngine instanceof IEditableLifeGameField)) {
+            throw new IllegalArgumentException();
+        }
+        synchronized (lockObj) {
+            if (isShutdown) {
+                throw new IllegalStateException();
+            }
+            cancel();
+            engine = (IEditableLifeGameField<L>) baseEngine;
+            schedule();
+        }
+    }
+
+    /**
+     * 先読みを取り消して、計算済みの世代を捨てます。実行中の計算の終了は待ちません。
+     * {@link #take()} で待っている場合は、待つのをやめさせます。
+     */
+    void cancel() {
+        synchronized (lockObj) {
+            epoch++;
+            results.clear();
+            engine = null;
+            isRunning = false;
+            failure = null;
+            lockObj.notifyAll();
+        }
+    }
+
+    /**
+     * 先読みを取り消して、スレッドプールを停止します。
+     * 実行中の計算の終了は待ちません。停止した後は先読みを始められません。
+     */
+    void shutdown() {
+        synchronized (lockObj) {
+            cancel();
+            isShutdown = true;
+            if (lookAheadExecutor != null) {
+                lookAheadExecutor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * 先読みした次の世代を取り出します。
+     * 計算が済んでいない場合は、計算が済むまで待ちます。
+     *
+     * @return 次の世代の結果。先読みを始めていない場合や、待っている間に先読みが取り消された場合は null
+     * @throws IllegalStateException 待っている間に割り込まれた場合
+     */
+    Result<L> take() throws IllegalStateException {
+        synchronized (lockObj) {
+            if (engine == null) {
+                return null;
+            }
+            long takeEpoch = epoch;
+            try {
+                // 少なくとも 1 世代は計算するように求めて、計算が済むまで待つ
+                requiredSize = 1;
+                schedule();
+                while (results.isEmpty()) {
+                    if (failure != null) {
+                        throw failure;
+                    }
+                    lockObj.wait();
+                    if (takeEpoch != epoch) {
+                        // 待っている間に取り消された場合、待ち始めた世代の次の世代は返せないため、待つのをやめる
+                        return null;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                requiredSize = 0;
+            }
+
+            // 取り出した分を補うように計算を続ける
+            var result = results.poll();
+            schedule();
+            return result;
+        }
+    }
+
+    /**
+     * 計算済みの世代が足りない場合に、スレッドプールで計算を始めます。
+     * 排他制御の内側で呼び出す必要があります。
+     */
+    private void schedule() {
+        if (engine == null || isRunning || failure != null || isShutdown) {
+            return;
+        }
+        if (results.size() >= Math.max(lookAheadSize, requiredSize)) {
+            return;
+        }
+        if (lookAheadExecutor == null) {
+            initializeLookAheadExecutor();
+        }
+        isRunning = true;
+        long taskEpoch = epoch;
+        var taskEngine = engine;
+        lookAheadExecutor.execute(() -> fill(taskEpoch, taskEngine));
+    }
+
+    /**
+     * スレッドプールを単一スレッドで初期化します。
+     * スレッドプールはデーモンスレッドで動作します。
+     */
+    private void initializeLookAheadExecutor() {
+        // デーモンスレッドを扱うために独自の ThreadFactory を用意する
+        ThreadFactory threadFactory = r -> {
+            var thread = new Thread(r, "lifegame-look-ahead");
+            thread.setDaemon(true);
+            return thread;
+        };
+        lookAheadExecutor = Executors.newSingleThreadExecutor(threadFactory);
+    }
+
+    /**
+     * 計算済みの世代が先読みする世代数に達するまで、エンジンの世代を進めます。
+     * 先読みのスレッドで実行します。
+     *
+     * @param taskEpoch 計算を始めたときのエポック
+     * @param taskEngine 計算を始めたときのエンジン
+     */
+    private void fill(long taskEpoch, IEditableLifeGameField<L> taskEngine) {
+        while (true) {
+            synchronized (lockObj) {
+                if (taskEpoch != epoch) {
+                    return;
+                }
+                if (results.size() >= Math.max(lookAheadSize, requiredSize)) {
+                    isRunning = false;
+                    return;
+                }
+            }
+
+            // 世代の更新は、排他制御の外側で行う（エンジンはこのスレッドだけが更新する）
+            // 更新した世代は、エンジンを続けて更新しても変わらないように、複製して結果とする
+            Result<L> result;
+            try {
+                long startNanos = System.nanoTime();
+                taskEngine.step();
+                long stepNanos = System.nanoTime() - startNanos;
+                var zobristHash = (taskEngine instanceof IZobristHashedField)
+                    ? OptionalLong.of(((IZobristHashedField<L>) taskEngine).getZobristHash())
+                    : OptionalLong.empty();
+                result = new Result<>(taskEngine.snapshot(), zobristHash, stepNanos, taskEpoch);
+            } catch (RuntimeException e) {
+                synchronized (lockObj) {
+                    if (taskEpoch == epoch) {
+                        failure = e;
+                        isRunning = false;
+                        lockObj.notifyAll();
+                    }
+                }
+                return;
+            }
+
+            synchronized (lockObj) {
+                if (taskEpoch != epoch) {
+                    return;
+                }
+                results.add(result);
+                lockObj.notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,605 @@
+package com.hs2n.exercise.lifegame.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import com.hs2n.exercise.lifegame.model.core.FieldDelta;
+import com.hs2n.exercise.lifegame.model.core.IDeltaEncodableField;
+import com.hs2n.exercise.lifegame.model.core.ILifeGameField;
+
+/**
+ * 過去の世代を、メモリマップトファイルに書き出して保持する履歴です。
+ *
+ * <p>
+ * すべての世代を、最初に追加した世代（アンカー）からの差分のキーフレームか、
+ * 直前の世代からの差分としてセグメントファイルに書き出します。
+ * 差分は、キーの増分を可変長の整数に詰めた、コンパクトなバイナリ形式で書き出します。
+ * 世代ごとの書き出し位置も、別のインデックスファイルに書き出します。
+ * ファイルはいずれも {@link FileChannel#map} でメモリにマップして読み書きするため、
+ * 世代を読み出すときはマップしたページから直接差分を復元し、ヒープ上のバッファへの複製は行いません。
+ * </p>
+ *
+ * <p>
+ * ヒープ上には、アンカーと最後に追加した世代、最近取得した世代の LRU キャッシュだけを保持します。
+ * キャッシュの数はメモリの上限から決めるため、計算した世代の数が増えてもヒープの使用量は一定に保たれます。
+ * </p>
+ *
+ * <p>
+ * 二次元平面は {@link IDeltaEncodableField} を実装している必要があります。
+ * ファイルは一時ファイルとして作成し、{@link #close()} で削除します。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ * @param <L> 生命体の型
+ */
+public class MappedGenerationHistory<L> implements IGenerationHistory<L> {
+
+    /**
+     * キーフレームの間隔の既定値です。
+     */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 32;
+
+    /**
+     * セグメントファイルを 1 回にマップする大きさ（64 MiB）です。
+     * これより大きい差分を書き出す場合は、差分の大きさに合わせてマップします。
+     */
+    private static final long SEGMENT_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * インデックスファイルを 1 回にマップする大きさ（8 MiB、約 100 万世代分）です。
+     */
+    private static final long INDEX_SEGMENT_SIZE = 8L * 1024 * 1024;
+
+    /**
+     * 書き出し位置の、セグメント内のオフセットを表すビット数です。
+     */
+    private static final int OFFSET_BITS = 40;
+
+    /**
+     * アンカーからの差分のキーフレームを表す、レコードの種別です。
+     */
+    private static final byte KEYFRAME_RECORD = 0;
+
+    /**
+     * 直前の世代からの差分を表す、レコードの種別です。
+     */
+    private static final byte DELTA_RECORD = 1;
+
+    /**
+     * キャッシュする世代の最小の数です。
+     */
+    private static final int MIN_CACHE_SIZE = 2;
+
+    /**
+     * 連続する世代の範囲を表すクラスです。
+     *
+     * @author Juno NISHIZAKI
+     *
+     */
+    private static class Run {
+
+        /**
+         * 最初の世代の番号です。
+         */
+        private final long start;
+
+        /**
+         * 最後の世代の番号です。
+         */
+        private long end;
+
+        /**
+         * 最初の世代の、インデックスファイル上の通し番号です。
+         */
+        private final long firstOrdinal;
+
+        /**
+         * 指定された世代 1 つからなる範囲を構築します。
+         *
+         * @param start 世代の番号
+         * @param firstOrdinal インデックスファイル上の通し番号
+         */
+        private Run(long start, long firstOrdinal) {
+            this.start = start;
+            this.end = start;
+            this.firstOrdinal = firstOrdinal;
+        }
+    }
+
+    /**
+     * キーフレームの間隔です。
+     */
+    private final int keyframeInterval;
+
+    /**
+     * 差分を書き出すセグメントファイルのチャネルです。
+     */
+    private final FileChannel segmentChannel;
+
+    /**
+     * 書き出し位置を書き出すインデックスファイルのチャネルです。
+     */
+    private final FileChannel indexChannel;
+
+    /**
+     * セグメントファイルをマップしたバッファです。
+     */
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+    /**
+     * インデックスファイルをマップしたバッファです。
+     */
+    private final List<MappedByteBuffer> indexSegments = new ArrayList<>();
+
+    /**
+     * セグメントファイルの、マップ済みの範囲の末尾です。
+     */
+    private long segmentFileSize;
+
+    /**
+     * 最後のセグメント内の、次に書き出すオフセットです。
+     */
+    private int writeOffset;
+
+    /**
+     * 書き出した世代の数です。次に書き出す世代の通し番号になります。
+     */
+    private long ordinalSize;
+
+    /**
+     * 選択できる世代の範囲です。最初の世代の番号をキーとして保持します。
+     */
+    private final NavigableMap<Long, Run> generationRuns = new TreeMap<>();
+
+    /**
+     * 最初に追加した世代の二次元平面です。キーフレームの差分の起点にします。
+     */
+    private ILifeGameField<L> anchor;
+
+    /**
+     * 最後に追加した世代の二次元平面です。次に追加する世代の差分の起点にします。
+     */
+    private ILifeGameField<L> lastField;
+
+    /**
+     * 最後のキーフレームより後に追加した差分の数です。
+     */
+    private int deltaCount;
+
+    /**
+     * ヒープ上のメモリの上限（バイト数）です。
+     */
+    private long memoryBudget = GenerationHistory.DEFAULT_MEMORY_BUDGET;
+
+    /**
+     * キャッシュする世代の数です。
+     */
+    private int cacheCapacity = MIN_CACHE_SIZE;
+
+    /**
+     * 最近取得した世代のキャッシュです。（アクセス順の LRU）
+     */
+    private final Map<Long, ILifeGameField<L>> decodedCache = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, ILifeGameField<L>> eldest) {
+            return size() > cacheCapacity;
+        }
+    };
+
+    /**
+     * 最後に取得した世代の番号です。
+     * ビューはセルごとに同じ世代を取得するため、キャッシュを引く前にまず照合します。
+     */
+    private long recentGenerationIndex = -1;
+
+    /**
+     * 最後に取得した世代の二次元平面です。
+     */
+    private ILifeGameField<L> recentField;
+
+    /**
+     * 一時ファイルのディレクトリに、既定の間隔でキーフレームを書き出す空の履歴を構築します。
+     *
+     * @throws UncheckedIOException ファイルの作成に失敗した場合
+     */
+    public MappedGenerationHistory() throws UncheckedIOException {
+        this(null, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * 指定されたディレクトリに、指定された間隔でキーフレームを書き出す空の履歴を構築します。
+     *
+     * @param directory ファイルを作成するディレクトリ（null の場合は一時ファイルのディレクトリ）
+     * @param keyframeInterval キーフレームの間隔
+     * @throws UncheckedIOException ファイルの作成に失敗した場合
+     */
+    public MappedGenerationHistory(Path directory, int keyframeInterval) throws UncheckedIOException {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.keyframeInterval = keyframeInterval;
+        try {
+            segmentChannel = openTempFile(directory, ".seg");
+            indexChannel = openTempFile(directory, ".idx");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 閉じたときに削除される一時ファイルを作成して、読み書きするチャネルを開きます。
+     *
+     * @param directory ファイルを作成するディレクトリ（null の場合は一時ファイルのディレクトリ）
+     * @param suffix ファイル名の接尾辞
+     * @return チャネル
+     * @throws IOException ファイルの作成に失敗した場合
+     */
+    private static FileChannel openTempFile(Path directory, String suffix) throws IOException {
+        var path = (directory != null)
+            ? Files.createTempFile(directory, "lifegame-history", suffix)
+            : Files.createTempFile("lifegame-history", suffix);
+        return FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+            StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    /**
+     * ヒープ上のメモリの上限を設定します。
+     * 上限は、最近取得した世代をキャッシュする数に反映します。
+     */
+    @Override
+    public void setMemoryBudget(long memoryBudget) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.memoryBudget = memoryBudget;
+        updateCacheCapacity();
+    }
+
+    /**
+     * メモリの上限と二次元平面の大きさの見積もりから、キャッシュする世代の数を決めます。
+     */
+    private void updateCacheCapacity() {
+        long fieldSize = (lastField != null) ? Math.max(1, ((IDeltaEncodableField<L>) lastField).estimateSize()) : 1;
+        // アンカーと最後に追加した世代の分を除いた残りをキャッシュに割り当てる
+        long capacity = memoryBudget / fieldSize - 2;
+        cacheCapacity = (int) Math.max(MIN_CACHE_SIZE, Math.min(capacity, Integer.MAX_VALUE));
+    }
+
+    /**
+     * 指定された世代の二次元平面を、差分としてファイルに書き出します。
+     *
+     * @throws IllegalArgumentException 二次元平面が差分を作成できない場合
+     * @throws UncheckedIOException ファイルへの書き出しに失敗した場合
+     */
+    @Override
+    public void put(long generationIndex, ILifeGameField<L> lifeGameField)
+        throws IllegalArgumentException, UncheckedIOException {
+        if (!generationRuns.isEmpty() && generationIndex <= generationRuns.lastEntry().getValue().end) {
+            throw new IllegalArgumentException();
+        }
+        if (!(lifeGameField instanceof IDeltaEncodableField)) {
+            throw new IllegalArgumentException();
+        }
+        if (anchor == null) {
+            anchor = lifeGameField;
+        }
+
+        // キーフレームの間隔に達した場合はアンカーからの差分を、それ以外は直前の世代からの差分を書き出す
+        boolean isKeyframe = lastField == null || deltaCount + 1 >= keyframeInterval;
+        var origin = (IDeltaEncodableField<L>) (isKeyframe ? anchor : lastField);
+        var delta = origin.diff(lifeGameField);
+        if (delta == null) {
+            throw new IllegalArgumentException();
+        }
+        long position = writeRecord(isKeyframe ? KEYFRAME_RECORD : DELTA_RECORD, delta);
+        writeIndex(ordinalSize, position);
+        deltaCount = isKeyframe ? 0 : deltaCount + 1;
+
+        // 選択できる世代の範囲を広げる（直前の世代に続く場合は範囲を延ばす）
+        var lastRun = generationRuns.isEmpty() ? null : generationRuns.lastEntry().getValue();
+        if (lastRun != null && lastRun.end == generationIndex - 1) {
+            lastRun.end = generationIndex;
+        } else {
+            generationRuns.put(generationIndex, new Run(generationIndex, ordinalSize));
+        }
+        ordinalSize++;
+
+        // 追加した世代は直後に参照されることが多いため、キャッシュしておく
+        lastField = lifeGameField;
+        updateCacheCapacity();
+        decodedCache.put(generationIndex, lifeGameField);
+    }
+
+    /**
+     * 指定された世代の二次元平面を、マップしたファイルから差分を読み出して復元します。
+     */
+    @Override
+    public ILifeGameField<L> get(long generationIndex) {
+        if (recentField != null && recentGenerationIndex == generationIndex) {
+            return recentField;
+        }
+        if (!containsKey(generationIndex)) {
+            return null;
+        }
+        var lifeGameField = decodedCache.get(generationIndex);
+        if (lifeGameField == null) {
+            lifeGameField = decode(generationIndex);
+            decodedCache.put(generationIndex, lifeGameField);
+        }
+        recentGenerationIndex = generationIndex;
+        recentField = lifeGameField;
+        return lifeGameField;
+    }
+
+    /**
+     * 指定された世代の二次元平面を、直前のキーフレームかキャッシュ済みの世代から差分を適用して復元します。
+     *
+     * @param generationIndex 世代の番号
+     * @return 二次元平面
+     */
+    private ILifeGameField<L> decode(long generationIndex) {
+        // 指定された世代から遡って、起点となる世代までの差分を集める
+        var deltas = new ArrayList<FieldDelta>();
+        ILifeGameField<L> origin = null;
+        for (Long index = generationIndex; index != null; index = lowerKey(index)) {
+            if (index != generationIndex) {
+                var cachedField = decodedCache.get(index);
+                if (cachedField != null) {
+                    origin = cachedField;
+                    break;
+                }
+            }
+            long position = readIndex(toOrdinal(index));
+            deltas.add(readDelta(position));
+            if (readKind(position) == KEYFRAME_RECORD) {
+                origin = anchor;
+                break;
+            }
+        }
+
+        // 起点の世代に、古い順に差分をまとめて適用する
+        Collections.reverse(deltas);
+        return ((IDeltaEncodableField<L>) origin).patch(deltas);
+    }
+
+    /**
+     * 指定された世代の、インデックスファイル上の通し番号を求めます。
+     *
+     * @param generationIndex 選択できる世代の番号
+     * @return 通し番号
+     */
+    private long toOrdinal(long generationIndex) {
+        var run = generationRuns.floorEntry(generationIndex).getValue();
+        return run.firstOrdinal + (generationIndex - run.start);
+    }
+
+    /**
+     * 差分をレコードとしてセグメントファイルに書き出します。
+     *
+     * <p>
+     * レコードは、種別（1 バイト）、セルの数（可変長）、セルごとのキーの増分（ZigZag 符号化した可変長）と
+     * 状態コード（1 バイト）を並べた形式です。
+     * 内部表現のインデックスのように昇順に並んだキーは、増分が小さいため 1 セルあたり 2 から 3 バイトに収まります。
+     * </p>
+     *
+     * @param kind レコードの種別
+     * @param delta 差分
+     * @return 書き出し位置（上位がセグメントの番号、下位がセグメント内のオフセット）
+     */
+    private long writeRecord(byte kind, FieldDelta delta) {
+        // 最悪の場合の大きさが最後のセグメントに収まらなければ、新しいセグメントをマップする
+        long maxRecordSize = Byte.BYTES + 5 + (long) delta.size() * (10 + Byte.BYTES);
+        if (segments.isEmpty() || segments.get(segments.size() - 1).capacity() - writeOffset < maxRecordSize) {
+            mapSegment(Math.max(SEGMENT_SIZE, maxRecordSize));
+        }
+        var segment = segments.get(segments.size() - 1);
+        int startOffset = writeOffset;
+
+        int offset = startOffset;
+        segment.put(offset++, kind);
+        offset = putVarLong(segment, offset, delta.size());
+        long previousKey = 0;
+        for (int i = 0; i < delta.size(); i++) {
+            long key = delta.getKey(i);
+            long gap = key - previousKey;
+            offset = putVarLong(segment, offset, (gap << 1) ^ (gap >> 63));
+            segment.put(offset++, (byte) delta.getStateCode(i));
+            previousKey = key;
+        }
+        writeOffset = offset;
+        return ((long) (segments.size() - 1) << OFFSET_BITS) | startOffset;
+    }
+
+    /**
+     * セグメントファイルの末尾に、新しいセグメントをマップします。
+     *
+     * @param size マップする大きさ
+     * @throws UncheckedIOException マップに失敗した場合
+     */
+    private void mapSegment(long size) throws UncheckedIOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Record too large: " + size);
+        }
+        try {
+            segments.add(segmentChannel.map(FileChannel.MapMode.READ_WRITE, segmentFileSize, size));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segmentFileSize += size;
+        writeOffset = 0;
+    }
+
+    /**
+     * 指定された書き出し位置のレコードの種別を読み出します。
+     *
+     * @param position 書き出し位置
+     * @return レコードの種別
+     */
+    private byte readKind(long position) {
+        return segments.get((int) (position >>> OFFSET_BITS)).get((int) (position & ((1L << OFFSET_BITS) - 1)));
+    }
+
+    /**
+     * 指定された書き出し位置のレコードを、マップしたページから直接読み出して差分を復元します。
+     *
+     * @param position 書き出し位置
+     * @return 差分
+     */
+    private FieldDelta readDelta(long position) {
+        var segment = segments.get((int) (position >>> OFFSET_BITS));
+        int offset = (int) (position & ((1L << OFFSET_BITS) - 1)) + Byte.BYTES;
+
+        // 可変長の整数を読み出すたびに、読み出した値とバイト数を受け取る
+        long[] varLong = new long[2];
+        offset = getVarLong(segment, offset, varLong);
+        int size = (int) varLong[0];
+        var builder = new FieldDelta.Builder(size);
+        long key = 0;
+        for (int i = 0; i < size; i++) {
+            offset = getVarLong(segment, offset, varLong);
+            long zigzag = varLong[0];
+            key += (zigzag >>> 1) ^ -(zigzag & 1);
+            builder.add(key, segment.get(offset++));
+        }
+        return builder.build();
+    }
+
+    /**
+     * 指定された通し番号の世代の書き出し位置を、インデックスファイルに書き出します。
+     *
+     * @param ordinal 通し番号
+     * @param position 書き出し位置
+     * @throws UncheckedIOException マップに失敗した場合
+     */
+    private void writeIndex(long ordinal, long position) throws UncheckedIOException {
+        long byteOffset = ordinal * Long.BYTES;
+        int segmentNumber = (int) (byteOffset / INDEX_SEGMENT_SIZE);
+        if (segmentNumber == indexSegments.size()) {
+            try {
+                indexSegments.add(indexChannel.map(FileChannel.MapMode.READ_WRITE,
+                    segmentNumber * INDEX_SEGMENT_SIZE, INDEX_SEGMENT_SIZE));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        indexSegments.get(segmentNumber).putLong((int) (byteOffset % INDEX_SEGMENT_SIZE), position);
+    }
+
+    /**
+     * 指定された通し番号の世代の書き出し位置を、インデックスファイルから読み出します。
+     *
+     * @param ordinal 通し番号
+     * @return 書き出し位置
+     */
+    private long readIndex(long ordinal) {
+        long byteOffset = ordinal * Long.BYTES;
+        return indexSegments.get((int) (byteOffset / INDEX_SEGMENT_SIZE))
+            .getLong((int) (byteOffset % INDEX_SEGMENT_SIZE));
+    }
+
+    /**
+     * 0 以上の整数を、7 ビットずつの可変長の形式で書き出します。
+     *
+     * @param buffer 書き出し先
+     * @param offset 書き出すオフセット
+     * @param value 値
+     * @return 書き出した直後のオフセット
+     */
+    private static int putVarLong(MappedByteBuffer buffer, int offset, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put(offset++, (byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put(offset++, (byte) value);
+        return offset;
+    }
+
+    /**
+     * 7 ビットずつの可変長の形式で書き出された整数を読み出します。
+     *
+     * @param buffer 読み出し元
+     * @param offset 読み出すオフセット
+     * @param result 読み出した値の格納先（0 番目に格納します）
+     * @return 読み出した直後のオフセット
+     */
+    private static int getVarLong(MappedByteBuffer buffer, int offset, long[] result) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get(offset++);
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        result[0] = value;
+        return offset;
+    }
+
+    @Override
+    public boolean containsKey(long generationIndex) {
+        var run = generationRuns.floorEntry(generationIndex);
+        return run != null && generationIndex <= run.getValue().end;
+    }
+
+    @Override
+    public Long higherKey(long generationIndex) {
+        if (containsKey(generationIndex + 1)) {
+            return generationIndex + 1;
+        }
+        return generationRuns.higherKey(generationIndex);
+    }
+
+    @Override
+    public Long lowerKey(long generationIndex) {
+        var run = generationRuns.lowerEntry(generationIndex);
+        if (run == null) {
+            return null;
+        }
+        return Math.min(run.getValue().end, generationIndex - 1);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return generationRuns.isEmpty();
+    }
+
+    @Override
+    public long size() {
+        return ordinalSize;
+    }
+
+    /**
+     * ファイルを閉じて削除します。
+     * マップしたページは、バッファがガベージコレクションで回収されるときに解放されます。
+     */
+    @Override
+    public void close() {
+        segments.clear();
+        indexSegments.clear();
+        decodedCache.clear();
+        recentField = null;
+        anchor = null;
+        lastField = null;
+        try {
+            segmentChannel.close();
+            indexChannel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
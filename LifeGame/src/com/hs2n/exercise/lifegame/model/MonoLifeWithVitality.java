@@ -1,45 +1,75 @@
 package com.hs2n.exercise.lifegame.model;
 
+import java.util.Optional;
 import java.util.function.Predicate;
 
-public class MonoLifeWithVitality implements Cloneable {
+/**
+ * 体力をもつ単一種族の生命体を表すクラスです。
+ *
+ * <p>
+ * インスタンスは不変で、体力ごとに 1 つだけ用意したものを共有します。（Flyweight パターン）
+ * そのため、セルをコピーする際も生命体は参照をコピーするだけで済みます。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ */
+public final class MonoLifeWithVitality {
 
     public static final int VITALITY_MAX = 3;
     private static final Predicate<Integer> INITIAL_VITALITY_RANGE = (v -> v > 0 && v <= VITALITY_MAX);
 
-    private int vitality;
+    /**
+     * 体力ごとの共有インスタンスです。インデックスは体力と一致させています。（0 は使用しません）
+     */
+    private static final MonoLifeWithVitality[] INSTANCES = new MonoLifeWithVitality[VITALITY_MAX + 1];
 
-    public MonoLifeWithVitality() {
-        this(VITALITY_MAX);
+    static {
+        for (int vitality = 1; vitality <= VITALITY_MAX; vitality++) {
+            INSTANCES[vitality] = new MonoLifeWithVitality(vitality);
+        }
+    }
+
+    private final int vitality;
+
+    private MonoLifeWithVitality(int vitality) {
+        this.vitality = vitality;
     }
 
-    public MonoLifeWithVitality(int vitality) {
+    /**
+     * 指定された体力の生命体を取得します。
+     *
+     * @param vitality 体力（1 から {@link #VITALITY_MAX} まで）
+     * @return 指定された体力の生命体
+     * @throws IllegalArgumentException 体力が範囲外の場合
+     */
+    public static MonoLifeWithVitality valueOf(int vitality) throws IllegalArgumentException {
         if (!INITIAL_VITALITY_RANGE.test(vitality)) {
             throw new IllegalArgumentException();
         }
-        this.vitality = vitality;
+        return INSTANCES[vitality];
     }
 
-    public boolean weaken() {
-        if (vitality > 0) {
-            vitality -= 1;
+    /**
+     * 体力を 1 減らした生命体を取得します。
+     *
+     * <p>
+     * 本インスタンス自体は変化しません。
+     * </p>
+     *
+     * @return 体力を 1 減らした生命体。体力が 0 になる場合は空
+     */
+    public Optional<MonoLifeWithVitality> weaken() {
+        if (vitality <= 1) {
+            return Optional.empty();
         }
-        return vitality > 0;
+        return Optional.of(INSTANCES[vitality - 1]);
     }
 
     public int getVitality() {
         return vitality;
     }
 
-    @Override
-    public MonoLifeWithVitality clone() {
-        try {
-            return getClass().cast(super.clone());
-        } catch (CloneNotSupportedException e) {
-            throw new InternalError(e);
-        }
-    }
-
     @Override
     public String toString() {
         return Integer.toString(vitality);
@@ -0,0 +1,703 @@
+package com.hs2n.exercise.lifegame.model;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import com.hs2n.exercise.lifegame.model.core.Cell;
+import com.hs2n.exercise.lifegame.model.core.FieldDelta;
+import com.hs2n.exercise.lifegame.model.core.ICell;
+import com.hs2n.exercise.lifegame.model.core.IDeltaEncodableField;
+import com.hs2n.exercise.lifegame.model.core.IEditableLifeGameField;
+import com.hs2n.exercise.lifegame.model.core.ILifeGameField;
+import com.hs2n.exercise.lifegame.model.core.IZobristHashedField;
+import com.hs2n.exercise.lifegame.model.core.NullCell;
+import com.hs2n.exercise.lifegame.model.core.Position;
+import com.hs2n.exercise.lifegame.model.core.ZobristKeys;
+import com.hs2n.exercise.lifegame.util.LongHashSet;
+import com.hs2n.exercise.lifegame.util.LongIntHashMap;
+
+/**
+ * 標準のライフゲームを果てのない二次元平面で扱うクラスです。
+ *
+ * <p>
+ * 生命体が存在するセルの位置だけを、行と列を 1 つの long に詰めた値の集合として保持します。
+ * 世代の更新では生命体が存在するセルとその近傍だけを走査するため、
+ * 処理時間は二次元平面の広さではなく生命体の数に比例します。
+ * 行と列は int の範囲で循環するため、実用上は果てがないものとして扱えます。
+ * </p>
+ *
+ * <p>
+ * 行サイズと列サイズは表示範囲（ビューポート）の大きさを表します。
+ * セルの位置は表示範囲の左上を原点とした相対位置で指定します。
+ * 表示範囲は過去の世代のインスタンスと共有するため、移動すると履歴の表示もあわせて移動します。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ */
+public class SparseLifeGameField
+    implements IEditableLifeGameField<MonoLife>, IDeltaEncodableField<MonoLife>, IZobristHashedField<MonoLife> {
+
+    /**
+     * 初期化時の表示範囲の行列サイズの範囲を示す条件式（述語）です。
+     */
+    private static final Predicate<Integer> SIZE_RANGE = (v -> v >= 3 && v <= 4096);
+
+    /**
+     * 生命体が存在するセルの状態コードです。差分やハッシュで使用します。
+     */
+    private static final int LIFE_STATE_CODE = MonoLife.ONE.ordinal() + 1;
+
+    /**
+     * 無効セルを表す唯一のインスタンスです。
+     */
+    private final ICell<MonoLife> nullCell = new NullCell<>();
+
+    /**
+     * 表示範囲の行サイズです。
+     */
+    private int rowSize;
+
+    /**
+     * 表示範囲の列サイズです。
+     */
+    private int columnSize;
+
+    /**
+     * 表示範囲の位置です。過去の世代のインスタンスと共有します。
+     */
+    private Viewport viewport;
+
+    /**
+     * 生命体が存在するセルの位置の集合です。
+     */
+    private LongHashSet lives;
+
+    /**
+     * 世代の更新で次の世代の生命体を書き込むための、予備の集合です。
+     * 更新直前の世代の集合を次の更新で使い回します。（ダブルバッファリング）
+     */
+    private LongHashSet spareLives;
+
+    /**
+     * 無効セルの位置の集合です。
+     */
+    private LongHashSet disables;
+
+    /**
+     * 無効セルの位置の集合を他のインスタンスと共有しているかを表すフラグです。
+     * 共有している場合は、有効／無効を変更する直前に複製します。（コピーオンライト）
+     */
+    private boolean isDisablesShared;
+
+    /**
+     * 世代の更新時に近傍の生命体の数を数えるための作業領域です。
+     * 世代をまたいで使い回します。
+     */
+    private LongIntHashMap neiborCounts = new LongIntHashMap();
+
+    /**
+     * 世代を一気に進めるための HashLife のエンジンです。
+     * メモを世代をまたいで活用するため、最初に使用するときに生成して使い回します。
+     */
+    private HashLifeEngine hashLifeEngine;
+
+    /**
+     * 現在の状態の Zobrist ハッシュです。
+     * キーには二次元平面全体での位置を詰めた値を使用します。
+     */
+    private long zobristHash;
+
+    /**
+     * Zobrist ハッシュが現在の状態と一致しているかを表すフラグです。
+     * 一致している間だけ、世代の更新で誕生や消滅したセルの分を増分で反映します。
+     */
+    private boolean isZobristHashValid;
+
+    /**
+     * 表示範囲の位置を表すクラスです。
+     *
+     * @author Juno NISHIZAKI
+     *
+     */
+    private static class Viewport {
+
+        /**
+         * 表示範囲の左上の行です。
+         */
+        private int originRow;
+
+        /**
+         * 表示範囲の左上の列です。
+         */
+        private int originColumn;
+    }
+
+    /**
+     * 指定されたパラメータで果てのない二次元平面を構築します。
+     *
+     * <p>
+     * このコンストラクタはインスタンスの複製用で、update の実装のために使用します。
+     * 指定された表示範囲の位置と無効セルの位置の集合は複製元と共有します。
+     * </p>
+     *
+     * @param rowSize 表示範囲の行サイズ
+     * @param columnSize 表示範囲の列サイズ
+     * @param viewport 表示範囲の位置
+     * @param lives 生命体が存在するセルの位置の集合
+     * @param disables 無効セルの位置の集合
+     */
+    private SparseLifeGameField(int rowSize, int columnSize, Viewport viewport, LongHashSet lives,
+        LongHashSet disables) {
+        // 行サイズを範囲チェックする
+        if (!SIZE_RANGE.test(rowSize)) {
+            throw new IllegalArgumentException();
+        }
+        // 列サイズを範囲チェックする
+        if (!SIZE_RANGE.test(columnSize)) {
+            throw new IllegalArgumentException();
+        }
+        this.rowSize = rowSize;
+        this.columnSize = columnSize;
+        this.viewport = viewport;
+        this.lives = lives;
+        this.disables = disables;
+        this.isDisablesShared = true;
+    }
+
+    /**
+     * 指定された表示範囲の行列サイズで果てのない二次元平面を構築します。
+     * 表示範囲の左上は原点 (0, 0) になります。
+     *
+     * @param rowSize 表示範囲の行サイズ
+     * @param columnSize 表示範囲の列サイズ
+     */
+    public SparseLifeGameField(int rowSize, int columnSize) {
+        this(rowSize, columnSize, new Viewport(), null, null);
+
+        // セルの集合を初期化する
+        initializeCells();
+    }
+
+    /**
+     * 指定された行と列を 1 つの long に詰めます。
+     *
+     * @param row 行
+     * @param column 列
+     * @return 行を上位 32 ビット、列を下位 32 ビットに詰めた値
+     */
+    static long toKey(int row, int column) {
+        return ((long) row << Integer.SIZE) | (column & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 詰めた値から行を取り出します。
+     *
+     * @param key 詰めた値
+     * @return 行
+     */
+    static int toRow(long key) {
+        return (int) (key >> Integer.SIZE);
+    }
+
+    /**
+     * 詰めた値から列を取り出します。
+     *
+     * @param key 詰めた値
+     * @return 列
+     */
+    static int toColumn(long key) {
+        return (int) key;
+    }
+
+    /**
+     * セルの集合を初期化します。
+     * すべてのセルを生命体が存在しない有効セルにします。表示範囲の位置は変わりません。
+     */
+    @Override
+    public void initializeCells() {
+        // 過去の世代と集合を共有しないように、常に新しい集合を割り当てる
+        lives = new LongHashSet();
+        disables = new LongHashSet();
+        isDisablesShared = false;
+        isZobristHashValid = false;
+    }
+
+    /**
+     * 表示範囲内の各セルに対してランダムで生命体を生成します。
+     */
+    @Override
+    public void generateLife(double birthRate, Random random) {
+        // セルの集合をいったん初期化する
+        initializeCells();
+
+        // 表示範囲内のそれぞれのセルに対して、0 から 1 までの乱数の値が発生率を下回った場合、生命体を誕生させる
+        for (int rowIndex = 0; rowIndex < rowSize; rowIndex++) {
+            for (int columnIndex = 0; columnIndex < columnSize; columnIndex++) {
+                if (random.nextDouble() < birthRate) {
+                    lives.add(toKey(viewport.originRow + rowIndex, viewport.originColumn + columnIndex));
+                }
+            }
+        }
+    }
+
+    /**
+     * 表示範囲の行サイズを取得します。
+     */
+    @Override
+    public int getRowSize() {
+        return rowSize;
+    }
+
+    /**
+     * 表示範囲の列サイズを取得します。
+     */
+    @Override
+    public int getColumnSize() {
+        return columnSize;
+    }
+
+    /**
+     * 表示範囲の左上の行を取得します。
+     *
+     * @return 表示範囲の左上の行
+     */
+    public int getOriginRow() {
+        return viewport.originRow;
+    }
+
+    /**
+     * 表示範囲の左上の列を取得します。
+     *
+     * @return 表示範囲の左上の列
+     */
+    public int getOriginColumn() {
+        return viewport.originColumn;
+    }
+
+    /**
+     * 表示範囲を指定された量だけ移動します。
+     * 過去の世代のインスタンスの表示範囲もあわせて移動します。
+     * {@link LifeGame} で管理している場合は、読み取りや他の操作と競合しないように、
+     * {@link LifeGame#configureLifeGameField(java.util.function.Consumer)} を通して呼び出します。
+     *
+     * @param rowDelta 行方向の移動量
+     * @param columnDelta 列方向の移動量
+     */
+    public void moveViewport(int rowDelta, int columnDelta) {
+        viewport.originRow += rowDelta;
+        viewport.originColumn += columnDelta;
+    }
+
+    /**
+     * 生命体の数を取得します。
+     *
+     * @return 二次元平面全体に存在する生命体の数
+     */
+    public int getPopulation() {
+        return lives.size();
+    }
+
+    /**
+     * 表示範囲の左上を原点とした位置に対応するセルを取得します。
+     */
+    @Override
+    public ICell<MonoLife> getCellAt(Position position) {
+        return getCellAt(position.getRow(), position.getColumn());
+    }
+
+    /**
+     * 表示範囲の左上を原点とした行と列のインデックスに対応するセルを取得します。
+     * 位置のインスタンスは生成しません。
+     */
+    @Override
+    public ICell<MonoLife> getCellAt(int rowIndex, int columnIndex) {
+        long key = toKeyAt(rowIndex, columnIndex);
+        if (disables.contains(key)) {
+            return nullCell;
+        }
+        return new SparseCell(key);
+    }
+
+    /**
+     * 二次元平面の世代を 1 つ進めます。
+     *
+     * <p>
+     * 生命体が存在するセルごとに、その近傍 8 セルの「近傍の生命体の数」を 1 ずつ増やします。
+     * 数え上げた結果、3 と等しいセルと、2 と等しく生命体が存在するセルを次の世代の生命体とします。
+     * 一度も数えられなかったセルは近傍の生命体の数が 0 のため、次の世代には生命体が存在しません。
+     * </p>
+     */
+    @Override
+    public void step() {
+        // 生命体が存在するセルの近傍について、近傍の生命体の数を数える
+        neiborCounts.clear();
+        lives.forEach(key -> {
+            int row = toRow(key);
+            int column = toColumn(key);
+            for (int rowDelta = -1; rowDelta <= 1; rowDelta++) {
+                for (int columnDelta = -1; columnDelta <= 1; columnDelta++) {
+                    if (rowDelta != 0 || columnDelta != 0) {
+                        neiborCounts.increment(toKey(row + rowDelta, column + columnDelta));
+                    }
+                }
+            }
+        });
+
+        // 標準のライフゲームのルールに従って、次の世代の生命体の集合を求める
+        // （無効セルには生命体を誕生させない）
+        var previousLives = lives;
+        var nextLives = (spareLives != null) ? spareLives : new LongHashSet(previousLives.size());
+        nextLives.clear();
+        neiborCounts.forEach((key, count) -> {
+            if (count == 3 && !disables.contains(key)) {
+                nextLives.add(key);
+            } else if (count == 2 && previousLives.contains(key)) {
+                nextLives.add(key);
+            }
+        });
+        lives = nextLives;
+        spareLives = previousLives;
+
+        // ハッシュを求めたことがあれば、誕生や消滅したセルの分だけ更新する
+        if (isZobristHashValid) {
+            zobristHash ^= hashChanges(previousLives, nextLives);
+        }
+    }
+
+    /**
+     * 世代の更新で誕生や消滅したセルについて、ハッシュに排他的論理和で足す値を求めます。
+     * 生命体の状態は 1 種類のため、誕生も消滅も同じ値を足すことになります。
+     *
+     * @param previousLives 更新直前の世代の生命体の集合
+     * @param nextLives 次の世代の生命体の集合
+     * @return ハッシュに足す値
+     */
+    private static long hashChanges(LongHashSet previousLives, LongHashSet nextLives) {
+        long[] hashDelta = new long[1];
+        previousLives.forEach(key -> {
+            if (!nextLives.contains(key)) {
+                hashDelta[0] ^= ZobristKeys.of(key, LIFE_STATE_CODE);
+            }
+        });
+        nextLives.forEach(key -> {
+            if (!previousLives.contains(key)) {
+                hashDelta[0] ^= ZobristKeys.of(key, LIFE_STATE_CODE);
+            }
+        });
+        return hashDelta[0];
+    }
+
+    /**
+     * 現在の状態の Zobrist ハッシュを取得します。
+     * 未計算か、編集した直後の場合は、すべての生命体から求め直します。
+     */
+    @Override
+    public long getZobristHash() {
+        if (!isZobristHashValid) {
+            long[] hash = new long[1];
+            lives.forEach(key -> hash[0] ^= ZobristKeys.of(key, LIFE_STATE_CODE));
+            zobristHash = hash[0];
+            isZobristHashValid = true;
+        }
+        return zobristHash;
+    }
+
+    /**
+     * 二次元平面の世代を更新して、更新直前の世代の二次元平面を返します。
+     *
+     * <p>
+     * 更新直前の世代の集合は複製せずに、返す二次元平面にそのまま引き渡します。
+     * 引き渡した集合は予備として使えなくなるため、次の更新で割り当て直します。
+     * </p>
+     */
+    @Override
+    public ILifeGameField<MonoLife> update() {
+        var previousLives = lives;
+        step();
+        spareLives = null;
+
+        // 更新直前の世代を元に新しい二次元平面インスタンスを構築して返す
+        // （無効セルの位置の集合は世代間で共有する）
+        isDisablesShared = true;
+        return new SparseLifeGameField(rowSize, columnSize, viewport, previousLives, disables);
+    }
+
+    /**
+     * 現在の状態を複製した二次元平面を返します。
+     * 表示範囲の位置と無効セルの位置の集合は共有します。
+     */
+    @Override
+    public ILifeGameField<MonoLife> snapshot() {
+        isDisablesShared = true;
+        return new SparseLifeGameField(rowSize, columnSize, viewport, new LongHashSet(lives), disables);
+    }
+
+    /**
+     * この二次元平面から、指定された二次元平面への差分を作成します。
+     *
+     * <p>
+     * 差分のキーは、二次元平面全体での位置を詰めた値です。
+     * 生命体の集合の対称差を求めて、消滅したセルは状態コード 0、誕生したセルは生命体の状態コードとします。
+     * </p>
+     */
+    @Override
+    public FieldDelta diff(ILifeGameField<MonoLife> target) {
+        // 同じ表示範囲と無効セルを共有する二次元平面だけを差分の対象とする
+        if (target == null || target.getClass() != getClass()) {
+            return null;
+        }
+        var other = (SparseLifeGameField) target;
+        if (other.viewport != viewport || other.disables != disables) {
+            return null;
+        }
+
+        var builder = new FieldDelta.Builder();
+        lives.forEach(key -> {
+            if (!other.lives.contains(key)) {
+                builder.add(key, 0);
+            }
+        });
+        other.lives.forEach(key -> {
+            if (!lives.contains(key)) {
+                builder.add(key, LIFE_STATE_CODE);
+            }
+        });
+        return builder.build();
+    }
+
+    /**
+     * この二次元平面に、指定された差分を順に適用した二次元平面を作成します。
+     * 表示範囲の位置と無効セルの位置の集合は共有します。
+     */
+    @Override
+    public ILifeGameField<MonoLife> patch(List<FieldDelta> deltas) {
+        var patchedLives = new LongHashSet(lives);
+        for (var delta : deltas) {
+            for (int i = 0; i < delta.size(); i++) {
+                if (delta.getStateCode(i) != 0) {
+                    patchedLives.add(delta.getKey(i));
+                } else {
+                    patchedLives.remove(delta.getKey(i));
+                }
+            }
+        }
+        isDisablesShared = true;
+        return new SparseLifeGameField(rowSize, columnSize, viewport, patchedLives, disables);
+    }
+
+    /**
+     * この二次元平面が保持しているおおよそのバイト数を見積もります。
+     * 生命体の集合のハッシュ表は要素数の 2 倍から 4 倍の容量をもつため、1 要素あたり 24 バイトとして数えます。
+     */
+    @Override
+    public long estimateSize() {
+        return lives.size() * 24L;
+    }
+
+    /**
+     * 二次元平面の世代を指定された世代数だけ進めます。
+     *
+     * <p>
+     * {@link HashLifeEngine} を使用して、2 のべき乗の世代ずつ一気に進めます。
+     * ただし、HashLife は無効セルを扱えないため、無効セルがある場合は 1 世代ずつ進めます。
+     * </p>
+     *
+     * @throws IllegalStateException 生命体が HashLife で扱える範囲を超えて広がる場合（状態は変わりません）
+     */
+    @Override
+    public ILifeGameField<MonoLife> advance(long generations) throws IllegalStateException {
+        if (generations <= 0) {
+            throw new IllegalArgumentException();
+        }
+        if (!disables.isEmpty()) {
+            return IEditableLifeGameField.super.advance(generations);
+        }
+        if (hashLifeEngine == null) {
+            hashLifeEngine = new HashLifeEngine();
+        }
+
+        // HashLife で進めた結果を最新の生命体の集合とする
+        // （変化したセルを追跡しないため、ハッシュは次に取得するときに求め直す）
+        var previousLives = lives;
+        lives = hashLifeEngine.advance(previousLives, generations);
+        isZobristHashValid = false;
+
+        // 進める直前の世代を元に新しい二次元平面インスタンスを構築して返す
+        isDisablesShared = true;
+        return new SparseLifeGameField(rowSize, columnSize, viewport, previousLives, disables);
+    }
+
+    /**
+     * 指定された位置を無効セルにします。
+     */
+    @Override
+    public void disableCellAt(Position position) {
+        long key = toKeyAt(position.getRow(), position.getColumn());
+        ensureDisablesOwned();
+        disables.add(key);
+        lives.remove(key);
+        isZobristHashValid = false;
+    }
+
+    /**
+     * 指定された位置を有効セルにします。
+     */
+    @Override
+    public void enableCellAt(Position position) {
+        long key = toKeyAt(position.getRow(), position.getColumn());
+        ensureDisablesOwned();
+        disables.remove(key);
+        lives.remove(key);
+        isZobristHashValid = false;
+    }
+
+    /**
+     * 無効セルの位置の集合を他のインスタンスと共有している場合は、変更に備えて複製します。
+     */
+    private void ensureDisablesOwned() {
+        if (isDisablesShared) {
+            disables = new LongHashSet(disables);
+            isDisablesShared = false;
+        }
+    }
+
+    /**
+     * 指定された位置に対応するセルが有効かどうかを判定します。
+     */
+    @Override
+    public boolean isEnableCellAt(Position position) {
+        return isEnableCellAt(position.getRow(), position.getColumn());
+    }
+
+    /**
+     * 指定された行と列のインデックスに対応するセルが有効かどうかを判定します。
+     * 位置のインスタンスは生成しません。
+     */
+    @Override
+    public boolean isEnableCellAt(int rowIndex, int columnIndex) {
+        return !disables.contains(toKeyAt(rowIndex, columnIndex));
+    }
+
+    /**
+     * 指定されたセルの状態をローテーションで変更します。
+     */
+    @Override
+    public void rotateCellState(ICell<MonoLife> cell) {
+        if (!cell.hasLife()) {
+            // セルに生命体が存在しない場合、セルに新しい生命体を配置する
+            cell.putLife(MonoLife.ONE);
+        } else {
+            // セルに生命体が存在する場合、セルから生命体を取り除く
+            cell.removeLife();
+        }
+    }
+
+    /**
+     * 表示範囲の左上を原点とした位置を範囲チェックして、二次元平面全体での位置を詰めた値に変換します。
+     *
+     * @param rowIndex 表示範囲の左上を原点とした行インデックス
+     * @param columnIndex 表示範囲の左上を原点とした列インデックス
+     * @return 二次元平面全体での位置を詰めた値
+     * @throws IndexOutOfBoundsException 指定された位置が表示範囲外の場合
+     */
+    private long toKeyAt(int rowIndex, int columnIndex) throws IndexOutOfBoundsException {
+        if (rowIndex < 0 || rowIndex >= rowSize) {
+            throw new IndexOutOfBoundsException("Row index out of range: " + rowIndex);
+        }
+        if (columnIndex < 0 || columnIndex >= columnSize) {
+            throw new IndexOutOfBoundsException("Column index out of range: " + columnIndex);
+        }
+        return toKey(viewport.originRow + rowIndex, viewport.originColumn + columnIndex);
+    }
+
+    /**
+     * 表示範囲の状態を文字列表現に変換します。
+     * この文字列表現は、主にデバッグの目的で使用します。
+     */
+    @Override
+    public String toString() {
+        var sb = new StringBuilder();
+        for (int rowIndex = 0; rowIndex < rowSize; rowIndex++) {
+            for (int columnIndex = 0; columnIndex < columnSize; columnIndex++) {
+                sb.append(getCellAt(rowIndex, columnIndex));
+            }
+            sb.append(String.format("%n"));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 生命体が存在するセルの位置の集合を直接読み書きする軽量なセルです。
+     *
+     * @author Juno NISHIZAKI
+     *
+     */
+    private class SparseCell implements ICell<MonoLife> {
+
+        /**
+         * 二次元平面全体でのセルの位置を詰めた値です。
+         */
+        private final long key;
+
+        /**
+         * 指定された位置を読み書きするセルを構築します。
+         *
+         * @param key 二次元平面全体でのセルの位置を詰めた値
+         */
+        private SparseCell(long key) {
+            this.key = key;
+        }
+
+        @Override
+        public boolean hasLife() {
+            return lives.contains(key);
+        }
+
+        @Override
+        public MonoLife getLife() throws IllegalStateException {
+            if (!hasLife()) {
+                throw new IllegalStateException();
+            }
+            return MonoLife.ONE;
+        }
+
+        @Override
+        public void putLife(MonoLife life) throws IllegalArgumentException {
+            if (life == null) {
+                throw new IllegalArgumentException();
+            }
+            lives.add(key);
+            isZobristHashValid = false;
+        }
+
+        @Override
+        public void removeLife() {
+            lives.remove(key);
+            isZobristHashValid = false;
+        }
+
+        /**
+         * セルをコピーします。
+         * コピーしたセルは集合から切り離された通常のセルになります。
+         */
+        @Override
+        public ICell<MonoLife> copyCell() {
+            var cell = new Cell<MonoLife>();
+            if (hasLife()) {
+                cell.putLife(MonoLife.ONE);
+            }
+            return cell;
+        }
+
+        @Override
+        public String toString() {
+            if (!hasLife()) {
+                return ".";
+            } else {
+                return MonoLife.ONE.toString();
+            }
+        }
+    }
+}
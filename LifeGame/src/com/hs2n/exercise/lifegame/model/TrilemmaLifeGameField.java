@@ -1,67 +1,90 @@
 package com.hs2n.exercise.lifegame.model;
 
-import java.util.List;
-import java.util.Map;
 import java.util.Random;
-import java.util.stream.Stream;
 
 import com.hs2n.exercise.lifegame.model.core.AbstractLifeGameField;
 import com.hs2n.exercise.lifegame.model.core.ICell;
 import com.hs2n.exercise.lifegame.model.core.ILifeGameField;
-import com.hs2n.exercise.lifegame.model.core.Position;
-import com.hs2n.exercise.lifegame.util.MapCounter;
+import com.hs2n.exercise.lifegame.model.core.NeiborhoodSummary;
+import com.hs2n.exercise.lifegame.model.core.TransitionTable;
 
 public class TrilemmaLifeGameField extends AbstractLifeGameField<TrilemmaLife> {
 
+    /**
+     * 生命体の種類の一覧です。（values メソッドは呼び出すたびに配列を複製するため、保持しておく）
+     */
+    private static final TrilemmaLife[] LIVES = TrilemmaLife.values();
+
     public TrilemmaLifeGameField(int rowSize, int columnSize) {
         super(rowSize, columnSize);
     }
 
-    protected TrilemmaLifeGameField(int rowSize, int columnSize, Map<Position, ICell<TrilemmaLife>> cells) {
-        super(rowSize, columnSize, cells);
+    protected TrilemmaLifeGameField(int rowSize, int columnSize, byte[] states, boolean[] enables) {
+        super(rowSize, columnSize, states, enables);
     }
 
     @Override
-    protected void updateCell(ICell<TrilemmaLife> selfCell, List<ICell<TrilemmaLife>> neiborCells) {
-        var lifeCounts = new MapCounter<>(
-            TrilemmaLife.ROCK,
-            TrilemmaLife.PAPER,
-            TrilemmaLife.SCISSORS);
-
-        neiborCells.stream()
-            .filter(neiborCell -> neiborCell.hasLife())
-            .forEach(neiborCell -> {
-                lifeCounts.increment(neiborCell.getLife());
-            });
-
+    protected void updateCell(ICell<TrilemmaLife> selfCell, NeiborhoodSummary<TrilemmaLife> neiborhood) {
         if (!selfCell.hasLife()) {
-            Stream.of(TrilemmaLife.values())
-                .filter(life -> lifeCounts.getCount(life) == 3
-                    && lifeCounts.getCount(life.getStrongOpponent()) != 3)
-                .forEach(life -> selfCell.putLife(life));
+            for (var life : LIVES) {
+                if (countOf(neiborhood, life) == 3 && countOf(neiborhood, life.getStrongOpponent()) != 3) {
+                    selfCell.putLife(life);
+                }
+            }
 
         } else {
 
             var life = selfCell.getLife();
-            int lifeCount = lifeCounts.getCount(life);
-            int plusWeakOpponentCount = lifeCount + lifeCounts.getCount(life.getWeakOpponent());
-            int plusStrongOpponentCount = lifeCount + lifeCounts.getCount(life.getStrongOpponent());
+            int lifeCount = countOf(neiborhood, life);
+            int plusWeakOpponentCount = lifeCount + countOf(neiborhood, life.getWeakOpponent());
+            int plusStrongOpponentCount = lifeCount + countOf(neiborhood, life.getStrongOpponent());
             if (plusWeakOpponentCount < 2 || plusStrongOpponentCount > 3) {
                 selfCell.removeLife();
             }
         }
     }
 
+    /**
+     * 近傍の集計結果から、指定された種類の生命体の数を取得します。
+     *
+     * @param neiborhood 近傍の集計結果
+     * @param life 生命体の種類
+     * @return 近傍に存在する数
+     */
+    private int countOf(NeiborhoodSummary<TrilemmaLife> neiborhood, TrilemmaLife life) {
+        return neiborhood.getCount(toStateCode(life));
+    }
+
+    @Override
+    protected TransitionTable createTransitionTable() {
+        // 状態コードごとに、グー、チョキ、パーを別の種類として扱う
+        var speciesOfStateCodes = new int[TrilemmaLife.values().length + 1];
+        speciesOfStateCodes[EMPTY_STATE_CODE] = TransitionTable.NO_SPECIES;
+        for (var life : TrilemmaLife.values()) {
+            speciesOfStateCodes[toStateCode(life)] = life.ordinal();
+        }
+        return compileTransitionTable(speciesOfStateCodes);
+    }
+
     @Override
     protected ILifeGameField<TrilemmaLife> copyLifeGameField(int rowSize, int columnSize,
-        Map<Position, ICell<TrilemmaLife>> sourceCells) {
-        return new TrilemmaLifeGameField(rowSize, columnSize, sourceCells);
+        byte[] sourceStates, boolean[] sourceEnables) {
+        return new TrilemmaLifeGameField(rowSize, columnSize, sourceStates, sourceEnables);
+    }
+
+    @Override
+    protected int toStateCode(TrilemmaLife life) {
+        return life.ordinal() + 1;
+    }
+
+    @Override
+    protected TrilemmaLife toLife(int stateCode) {
+        return LIVES[stateCode - 1];
     }
 
     @Override
     protected void birth(ICell<TrilemmaLife> cell, Random random) {
-        var trilemmaLifes = TrilemmaLife.values();
-        cell.putLife(trilemmaLifes[random.nextInt(trilemmaLifes.length)]);
+        cell.putLife(LIVES[random.nextInt(LIVES.length)]);
     }
 
     @Override
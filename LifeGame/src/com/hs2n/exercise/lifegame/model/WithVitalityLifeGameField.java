@@ -1,64 +1,95 @@
 package com.hs2n.exercise.lifegame.model;
 
-import java.util.List;
-import java.util.Map;
 import java.util.Random;
 
 import com.hs2n.exercise.lifegame.model.core.AbstractLifeGameField;
 import com.hs2n.exercise.lifegame.model.core.ICell;
 import com.hs2n.exercise.lifegame.model.core.ILifeGameField;
-import com.hs2n.exercise.lifegame.model.core.Position;
+import com.hs2n.exercise.lifegame.model.core.LaneKernel;
+import com.hs2n.exercise.lifegame.model.core.NeiborhoodSummary;
+import com.hs2n.exercise.lifegame.model.core.TransitionTable;
 
 public class WithVitalityLifeGameField extends AbstractLifeGameField<MonoLifeWithVitality> {
     public WithVitalityLifeGameField(int rowSize, int columnSize) {
         super(rowSize, columnSize);
     }
 
-    protected WithVitalityLifeGameField(int rowSize, int columnSize, Map<Position, ICell<MonoLifeWithVitality>> cells) {
-        super(rowSize, columnSize, cells);
+    protected WithVitalityLifeGameField(int rowSize, int columnSize, byte[] states, boolean[] enables) {
+        super(rowSize, columnSize, states, enables);
     }
 
     @Override
-    protected void updateCell(ICell<MonoLifeWithVitality> selfCell, List<ICell<MonoLifeWithVitality>> neiborCells) {
-        long lifeCount = neiborCells.stream()
-            .filter(neiborCell -> neiborCell.hasLife())
-            .count();
+    protected void updateCell(ICell<MonoLifeWithVitality> selfCell,
+        NeiborhoodSummary<MonoLifeWithVitality> neiborhood) {
+        int lifeCount = neiborhood.getLifeCount();
 
         if (!selfCell.hasLife()) {
             if (lifeCount == 3) {
-                selfCell.putLife(new MonoLifeWithVitality());
+                selfCell.putLife(MonoLifeWithVitality.valueOf(MonoLifeWithVitality.VITALITY_MAX));
             }
         } else {
 
             if (lifeCount < 2 || lifeCount > 3) {
-                var life = selfCell.getLife();
-                if (!life.weaken()) {
-                    selfCell.removeLife();
-                }
+                // 生命体は不変なので、弱らせた生命体を配置し直す（体力が尽きた場合は取り除く）
+                selfCell.getLife().weaken().ifPresentOrElse(selfCell::putLife, selfCell::removeLife);
             }
         }
     }
 
+    @Override
+    protected TransitionTable createTransitionTable() {
+        // 体力の違いは近傍の判定に影響しないため、すべての体力を同じ種類として扱う
+        var speciesOfStateCodes = new int[MonoLifeWithVitality.VITALITY_MAX + 1];
+        speciesOfStateCodes[EMPTY_STATE_CODE] = TransitionTable.NO_SPECIES;
+        return compileTransitionTable(speciesOfStateCodes);
+    }
+
+    @Override
+    protected LaneKernel.LaneRule createLaneRule() {
+        // updateCell と同じルールを、8 セル分まとめてレーンごとの演算で判定する
+        // （状態コードは体力なので、弱らせると 1 減り、0 になると消滅する）
+        return (selfLanes, neiborCountLanes) -> {
+            long lifeLanes = LaneKernel.toLifeLanes(selfLanes);
+            long equalsThree = LaneKernel.equalLanes(neiborCountLanes, 3);
+            long twoOrThree = equalsThree | LaneKernel.equalLanes(neiborCountLanes, 2);
+
+            // 生命体が存在しないセルは 3 と等しい場合に誕生し、
+            // 生命体が存在するセルは 2 か 3 のいずれでもない場合に弱る
+            long birthLanes = equalsThree & ~lifeLanes;
+            long weakenLanes = lifeLanes & ~twoOrThree;
+            return selfLanes - weakenLanes + birthLanes * MonoLifeWithVitality.VITALITY_MAX;
+        };
+    }
+
     @Override
     protected ILifeGameField<MonoLifeWithVitality> copyLifeGameField(int rowSize, int columnSize,
-        Map<Position, ICell<MonoLifeWithVitality>> sourceCells) {
-        return new WithVitalityLifeGameField(rowSize, columnSize, sourceCells);
+        byte[] sourceStates, boolean[] sourceEnables) {
+        return new WithVitalityLifeGameField(rowSize, columnSize, sourceStates, sourceEnables);
+    }
+
+    @Override
+    protected int toStateCode(MonoLifeWithVitality life) {
+        return life.getVitality();
+    }
+
+    @Override
+    protected MonoLifeWithVitality toLife(int stateCode) {
+        // 体力ごとの共有インスタンスを返すため、セルを読むたびに生命体を生成することはない
+        return MonoLifeWithVitality.valueOf(stateCode);
     }
 
     @Override
     protected void birth(ICell<MonoLifeWithVitality> cell, Random random) {
         int vitality = random.nextInt(MonoLifeWithVitality.VITALITY_MAX) + 1;
-        cell.putLife(new MonoLifeWithVitality(vitality));
+        cell.putLife(MonoLifeWithVitality.valueOf(vitality));
     }
 
     @Override
     public void rotateCellState(ICell<MonoLifeWithVitality> cell) {
         if (!cell.hasLife()) {
-            cell.putLife(new MonoLifeWithVitality());
+            cell.putLife(MonoLifeWithVitality.valueOf(MonoLifeWithVitality.VITALITY_MAX));
         } else {
-            if (!cell.getLife().weaken()) {
-                cell.removeLife();
-            }
+            cell.getLife().weaken().ifPresentOrElse(cell::putLife, cell::removeLife);
         }
     }
 }
@@ -1,12 +1,16 @@
 package com.hs2n.exercise.lifegame.model.core;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntBinaryOperator;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * ライフゲームの二次元平面を表す共通の抽象クラスです。
@@ -16,15 +20,140 @@ import java.util.stream.IntStream;
  * サブクラス側でルールを記述するだけで任意のライフゲームが作成できることを目指します。
  * </p>
  *
+ * <p>
+ * セルの集合は、生命体の状態を表す状態コードの一次元配列と、有効セルを表すマスクで保持します。
+ * 生命体と状態コードの相互変換はサブクラス側で定めます。
+ * 状態コード 0 は生命体が存在しないことを表し、生命体には 1 から 127 までの値を割り当てます。
+ * </p>
+ *
+ * <p>
+ * 世代の更新方法は {@link UpdateMode} で切り替えられます。
+ * {@link UpdateMode#ACTIVE_SET} では、前の世代で状態が変化したセルとその近傍だけを更新します。
+ * セルの次状態が自セルと近傍の状態だけで決まる限り、変化のなかったセルの次状態は変わらないためです。
+ * {@link UpdateMode#TILED} では、同じ考え方をタイル単位で適用します。
+ * </p>
+ *
+ * <p>
+ * ルールは、近傍の状態を生命体の数として集計した {@link NeiborhoodSummary} を受け取る updateCell に記述します。
+ * 集計結果は世代の更新の間で使い回すため、セルごとのインスタンス生成は発生しません。
+ * 近傍のセルのリストを受け取る従来の updateCell でルールを記述する場合は、
+ * 互換用の {@link ListBasedLifeGameField} を継承します。（低速です）
+ * </p>
+ *
+ * <p>
+ * ルールが近傍の生命体の種類ごとの数だけで決まる場合、サブクラス側で {@link #createTransitionTable()} を
+ * オーバーライドして遷移表を用意すると、updateCell の代わりに遷移表の参照で次状態を求めます。
+ * さらに、ルールが自セルの状態と近傍の生命体の数だけで決まる場合は、{@link #createLaneRule()} で
+ * 8 セル分の次状態をまとめて求めるルールを用意すると、{@link UpdateMode#FULL_SCAN} では
+ * {@link LaneKernel} で行の区間ごとにまとめて更新します。
+ * </p>
+ *
+ * <p>
+ * 並列度を 2 以上に設定すると、{@link UpdateMode#FULL_SCAN} と {@link UpdateMode#TILED} では
+ * 二次元平面を行の帯に分けて Fork/Join フレームワークで並列に更新します。
+ * 各セルの次状態は更新直前の世代だけから決まり、帯ごとに書き込む範囲も重ならないため、
+ * 更新結果は逐次で更新した場合と同じになります。
+ * ただし、サブクラス側の updateCell は複数のスレッドから同時に呼び出されることになります。
+ * </p>
+ *
+ * <p>
+ * 現在の状態の Zobrist ハッシュは、最初に取得したときに求めて、以降は世代の更新で状態が変化したセルの分だけ更新します。
+ * 一度も取得していない二次元平面では、ハッシュのための処理は行いません。
+ * </p>
+ *
  * @author Juno NISHIZAKI
  *
  * @param <L> 生命体の型
  */
-public abstract class AbstractLifeGameField<L> implements ILifeGameField<L> {
+public abstract class AbstractLifeGameField<L>
+    implements IEditableLifeGameField<L>, IDeltaEncodableField<L>, IZobristHashedField<L> {
     /**
      * 初期化時の行列サイズの範囲を示す条件式（述語）です。
      */
-    private static final Predicate<Integer> SIZE_RANGE = (v -> v >= 3 && v <= 100);
+    private static final Predicate<Integer> SIZE_RANGE = (v -> v >= 3 && v <= 4096);
+
+    /**
+     * 生命体が存在しないことを表す状態コードです。
+     */
+    protected static final int EMPTY_STATE_CODE = 0;
+
+    /**
+     * 近傍の数です。
+     */
+    private static final int NEIBOR_SIZE = 8;
+
+    /**
+     * タイルの一辺のセル数の既定値です。
+     */
+    public static final int DEFAULT_TILE_SIZE = 16;
+
+    /**
+     * タイルの一辺のセル数として指定できる値を示す条件式（述語）です。
+     */
+    private static final Predicate<Integer> TILE_SIZE_RANGE = (v -> v == 16 || v == 32);
+
+    /**
+     * タイル内のいずれかのセルが変化したことを表すビットです。
+     */
+    private static final int TILE_CHANGED = 1;
+
+    /**
+     * タイルの上端の行のセルが変化したことを表すビットです。
+     */
+    private static final int TILE_TOP_CHANGED = 1 << 1;
+
+    /**
+     * タイルの下端の行のセルが変化したことを表すビットです。
+     */
+    private static final int TILE_BOTTOM_CHANGED = 1 << 2;
+
+    /**
+     * タイルの左端の列のセルが変化したことを表すビットです。
+     */
+    private static final int TILE_LEFT_CHANGED = 1 << 3;
+
+    /**
+     * タイルの右端の列のセルが変化したことを表すビットです。
+     */
+    private static final int TILE_RIGHT_CHANGED = 1 << 4;
+
+    /**
+     * タイルの左上の角のセルが変化したことを表すビットです。
+     */
+    private static final int TILE_TOP_LEFT_CHANGED = 1 << 5;
+
+    /**
+     * タイルの右上の角のセルが変化したことを表すビットです。
+     */
+    private static final int TILE_TOP_RIGHT_CHANGED = 1 << 6;
+
+    /**
+     * タイルの左下の角のセルが変化したことを表すビットです。
+     */
+    private static final int TILE_BOTTOM_LEFT_CHANGED = 1 << 7;
+
+    /**
+     * タイルの右下の角のセルが変化したことを表すビットです。
+     */
+    private static final int TILE_BOTTOM_RIGHT_CHANGED = 1 << 8;
+
+    /**
+     * タイルのすべてのビットです。
+     */
+    private static final int TILE_ALL_CHANGED = (1 << 9) - 1;
+
+    /**
+     * 並列で更新する場合に、1 つのタスクが受け持つセル数の目安です。
+     * 二次元平面全体のセル数がこれ以下の場合は、並列度によらず逐次で更新します。
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 12;
+
+    /**
+     * 並列で更新するためのスレッドプールを、並列度ごとに保持します。
+     * スレッドプールはすべての二次元平面で共有するため、二次元平面を捨ててもスレッドは増えません。
+     * （ワーカースレッドはデーモンスレッドで、しばらく使われなければ終了します）
+     */
+    private static final ConcurrentMap<Integer, ForkJoinPool> SHARED_FORK_JOIN_POOLS = new ConcurrentHashMap<>();
 
     /**
      * 無効セルを表す唯一のインスタンスです。
@@ -42,35 +171,183 @@ public abstract class AbstractLifeGameField<L> implements ILifeGameField<L> {
     private int columnSize;
 
     /**
-     * 行インデックスの範囲を示す条件式（述語）です。
+     * 内部表現の 1 行あたりの要素数です。
+     * 列サイズに左右の番兵の分を加えた値になります。
+     */
+    private int stride;
+
+    /**
+     * 内部表現のインデックスから見た近傍のインデックスの差分です。
+     * 上の行の左から順に、指定位置自体を除いた 8 方向を並べています。
      */
-    private Predicate<Integer> rowRange = (v -> v >= 0 && v < rowSize);
+    private int[] neiborOffsets;
 
     /**
-     * 列インデックスの範囲を示す条件式（述語）です。
+     * {@link #getCellAt(int, int)} で返すセルを、スレッドごとに保持します。最初に使用するときに生成します。
      */
-    private Predicate<Integer> columnRange = (v -> v >= 0 && v < columnSize);
+    private volatile ThreadLocal<StateCell> cellViews;
 
     /**
      * セルの集合を表す内部表現です。
-     * 二次元平面の位置をキーにしたマップで扱います。
-     * 近傍を探索する際の境界判定を簡素化するために、有効セルの周囲を無効セルで敷き詰めています。
+     * 各セルの状態コードを (行インデックス + 1) * stride + (列インデックス + 1) の位置に格納します。
+     * 近傍を探索する際の境界判定を簡素化するために、有効セルの周囲を 1 セル分の無効セルで囲っています。
      * （番兵の役割）
      */
-    private Map<Position, ICell<L>> cells;
+    private byte[] states;
+
+    /**
+     * 世代の更新で次の世代を書き込むための、背面の内部表現です。
+     * 最初に更新するときに割り当てて、以降は前面と交互に使い回します。
+     */
+    private byte[] backStates;
+
+    /**
+     * 有効セルを表すマスクです。
+     * インデックスは状態コードの配列と共通です。
+     */
+    private boolean[] enables;
+
+    /**
+     * 有効セルを表すマスクを他のインスタンスと共有しているかを表すフラグです。
+     * 共有している場合は、有効／無効を変更する直前に複製します。（コピーオンライト）
+     */
+    private boolean isEnablesShared;
+
+    /**
+     * 世代の更新方法です。
+     */
+    private UpdateMode updateMode = UpdateMode.FULL_SCAN;
+
+    /**
+     * 次状態を求めるための遷移表です。
+     * 最初に世代を更新するときに作成します。遷移表をもたない場合は null です。
+     */
+    private TransitionTable transitionTable;
+
+    /**
+     * 遷移表の作成を試みたかを表すフラグです。
+     */
+    private boolean isTransitionTableCreated;
+
+    /**
+     * セルをコピーする際の、生命体のコピー方法です。
+     * 最初にセルをコピーするときに決めて、以降は使い回します。
+     */
+    private LifeCopier<L> lifeCopier;
+
+    /**
+     * 8 セル分の次状態をまとめて求めるルールです。
+     * 最初に世代を更新するときに作成します。ルールをもたない場合は null です。
+     */
+    private LaneKernel.LaneRule laneRule;
+
+    /**
+     * 8 セル分の次状態をまとめて求めるルールの作成を試みたかを表すフラグです。
+     */
+    private boolean isLaneRuleCreated;
+
+    /**
+     * 8 セル分の次状態をまとめて求めるルールを使用するかを表すフラグです。
+     */
+    private boolean isVectorized = true;
+
+    /**
+     * 有効セルを表すマスクを、レーンごとの論理演算で使える形に変換した配列です。
+     * 最初に使用するときに作成して、有効／無効を変更すると破棄します。
+     */
+    private byte[] enableLanes;
+
+    /**
+     * 各セルの近傍キー（近傍の状態コードの重みの合計）です。
+     * インデックスは状態コードの配列と共通です。
+     * 遷移表をもつ場合に {@link UpdateMode#ACTIVE_SET} で使用し、状態が変化したセルの近傍だけを増減します。
+     */
+    private int[] neiborKeys;
+
+    /**
+     * 前の世代の更新で状態が変化したセルのインデックスです。
+     */
+    private int[] changedIndexes;
+
+    /**
+     * 前の世代の更新で状態が変化したセルの数です。
+     */
+    private int changedSize;
+
+    /**
+     * 世代の更新で走査するセルのインデックスを集めるための作業領域です。
+     */
+    private int[] candidateIndexes;
+
+    /**
+     * 走査するセルに追加済みかを判定するための印です。
+     * 世代ごとに印の値を変えることで、毎回の初期化を省いています。
+     */
+    private int[] candidateStamps;
+
+    /**
+     * 現在の世代の更新で使用している印の値です。
+     */
+    private int candidateStamp;
+
+    /**
+     * タイルの一辺のセル数です。
+     */
+    private int tileSize = DEFAULT_TILE_SIZE;
+
+    /**
+     * 前の世代の更新で、タイルごとにどの部分のセルが変化したかを表すビットの組み合わせです。
+     * タイルは行優先で並べています。
+     */
+    private int[] tileChanges;
+
+    /**
+     * 次の世代の更新で、タイルごとにどの部分のセルが変化したかを記録するための作業領域です。
+     */
+    private int[] nextTileChanges;
+
+    /**
+     * 直前の世代の更新で、走査を省略したタイルの数です。
+     */
+    private int skippedTileCount;
+
+    /**
+     * 世代の更新の並列度です。1 の場合は逐次で更新します。
+     */
+    private int parallelism = 1;
+
+    /**
+     * 近傍の生命体の数や状態が変化したセルの記録が、最新の状態と一致しているかを表すフラグです。
+     * セルの集合を編集すると一致しなくなるため、次の世代の更新で数え直します。
+     */
+    private boolean isChangeTrackingValid;
+
+    /**
+     * 現在の状態の Zobrist ハッシュです。
+     * キーには内部表現のインデックスを使用します。
+     */
+    private long zobristHash;
+
+    /**
+     * Zobrist ハッシュが現在の状態と一致しているかを表すフラグです。
+     * 一致している間だけ、世代の更新で状態が変化したセルの分を増分で反映します。
+     */
+    private boolean isZobristHashValid;
 
     /**
      * 指定されたパラメータでライフゲーム二次元平面を構築します。
      *
      * <p>
      * このコンストラクタはインスタンスの複製用で、本クラスまたはサブクラスでのみ使用します。
+     * 指定された有効セルのマスクは複製元と共有します。
      * </p>
      *
      * @param rowSize 行サイズ
      * @param columnSize 列サイズ
-     * @param cells セルの集合を表す内部表現
+     * @param states セルの集合を表す内部表現
+     * @param enables 有効セルを表すマスク
      */
-    protected AbstractLifeGameField(int rowSize, int columnSize, Map<Position, ICell<L>> cells) {
+    protected AbstractLifeGameField(int rowSize, int columnSize, byte[] states, boolean[] enables) {
         // 行サイズを範囲チェックする
         if (!SIZE_RANGE.test(rowSize)) {
             throw new IllegalArgumentException();
@@ -81,7 +358,15 @@ public abstract class AbstractLifeGameField<L> implements ILifeGameField<L> {
         }
         this.rowSize = rowSize;
         this.columnSize = columnSize;
-        this.cells = cells;
+        this.stride = columnSize + 2;
+        this.neiborOffsets = new int[] {
+            -stride - 1, -stride, -stride + 1,
+            -1, 1,
+            stride - 1, stride, stride + 1
+        };
+        this.states = states;
+        this.enables = enables;
+        this.isEnablesShared = true;
     }
 
     /**
@@ -92,7 +377,7 @@ public abstract class AbstractLifeGameField<L> implements ILifeGameField<L> {
      */
     public AbstractLifeGameField(int rowSize, int columnSize) {
         // セルの集合はいったん空のままで構築する
-        this(rowSize, columnSize, new HashMap<>());
+        this(rowSize, columnSize, null, null);
 
         // セルの集合を初期化する
         initializeCells();
@@ -101,47 +386,26 @@ public abstract class AbstractLifeGameField<L> implements ILifeGameField<L> {
     /**
      * セルの集合を初期化します。
      */
+    @Override
     public void initializeCells() {
-        // 行列サイズの範囲内を新規セルのインスタンスで敷き詰める
-        IntStream.range(0, rowSize).boxed()
-            .flatMap(rowIndex -> IntStream.range(0, columnSize).boxed()
-                .map(columnIndex -> new Position(rowIndex, columnIndex)))
-            .forEach(position -> cells.put(position, new Cell<>()));
-
-        // 周囲を無効セルで敷き詰める
-        IntStream.rangeClosed(-1, columnSize).boxed().forEach(columnIndex -> {
-            cells.put(new Position(-1, columnIndex), nullCell);
-            cells.put(new Position(rowSize, columnIndex), nullCell);
-        });
+        // 過去の世代と内部表現を共有しないように、常に新しい配列を割り当てる
+        // （配列の初期値により、すべてのセルは生命体が存在しない無効セルになる）
+        int length = stride * (rowSize + 2);
+        states = new byte[length];
+        enables = new boolean[length];
+        enableLanes = null;
+        isEnablesShared = false;
+        isChangeTrackingValid = false;
+        isZobristHashValid = false;
 
-        // 下記の範囲指定では四隅の処理が無駄になるが、可読性を優先した
-        IntStream.rangeClosed(-1, rowSize).boxed().forEach(rowIndex -> {
-            cells.put(new Position(rowIndex, -1), nullCell);
-            cells.put(new Position(rowIndex, columnSize), nullCell);
-        });
+        // 行列サイズの範囲内を有効セルで敷き詰める（周囲は無効セルのまま残る）
+        for (int rowIndex = 0; rowIndex < rowSize; rowIndex++) {
+            int fromIndex = toIndex(rowIndex, 0);
+            Arrays.fill(enables, fromIndex, fromIndex + columnSize, true);
+        }
 
-        // 上記の処理を伝統的な for 文で記述するとしたら、以下のようになる
-        //
-        //        for (int rowIndex = 0; rowIndex < rowSize; rowIndex++) {
-        //            for (int columnIndex = 0; columnIndex < columnSize; columnIndex++) {
-        //                var position = new Position(rowIndex, columnIndex);
-        //                cells.put(position, new Cell<>());
-        //            }
-        //        }
-        //
-        //        for (int columnIndex = -1; columnIndex <= columnSize; columnIndex++) {
-        //            cells.put(new Position(-1, columnIndex), nullCell);
-        //            cells.put(new Position(rowSize, columnIndex), nullCell);
-        //        }
-        //
-        //        for (int rowIndex = -1; rowIndex <= rowSize; rowIndex++) {
-        //            cells.put(new Position(rowIndex, -1), nullCell);
-        //            cells.put(new Position(rowIndex, columnSize), nullCell);
-        //        }
-        //
-        // 今回は Stream API を学習するために敢えてがんばって記述してみたが、
-        // この程度の内容であれば伝統的な for 文の方が可読性が高いのかもしれない
-        // （そもそも Stream API の使い方として正しいのか若干自信がない…）
+        // 以前は Stream API で二次元平面の位置を列挙してマップに詰めていたが、
+        // 大きな二次元平面でも扱えるように、一次元配列を伝統的な for 文で埋めるようにした
     }
 
     /**
@@ -150,19 +414,23 @@ public abstract class AbstractLifeGameField<L> implements ILifeGameField<L> {
      * @param birthRate 生命体の発生率
      * @param random 乱数オブジェクト
      */
+    @Override
     public void generateLife(double birthRate, Random random) {
         // セルの集合をいったん初期化する
         initializeCells();
 
         // 有効セルのそれぞれに対して、0 から 1 までの乱数の値が発生率を下回った場合、
         // サブクラス側のルールに従って生命体を誕生させる
-        cells.entrySet().stream()
-            .filter(entry -> isEnableCell(entry.getValue()))
-            .forEach(entry -> {
-                if (random.nextDouble() < birthRate) {
-                    birth(entry.getValue(), random);
+        var cell = new StateCell(states, true);
+        for (int rowIndex = 0; rowIndex < rowSize; rowIndex++) {
+            for (int columnIndex = 0; columnIndex < columnSize; columnIndex++) {
+                int index = toIndex(rowIndex, columnIndex);
+                if (enables[index] && random.nextDouble() < birthRate) {
+                    cell.bind(index);
+                    birth(cell, random);
                 }
-            });
+            }
+        }
     }
 
     /**
@@ -178,6 +446,7 @@ public abstract class AbstractLifeGameField<L> implements ILifeGameField<L> {
      *
      * @return 行サイズ
      */
+    @Override
     public int getRowSize() {
         return rowSize;
     }
@@ -187,215 +456,1304 @@ public abstract class AbstractLifeGameField<L> implements ILifeGameField<L> {
      *
      * @return 列サイズ
      */
+    @Override
     public int getColumnSize() {
         return columnSize;
     }
 
     /**
-     * 指定された位置に対応するセルを取得します。
+     * 世代の更新方法を取得します。
+     *
+     * @return 世代の更新方法
      */
-    @Override
-    public ICell<L> getCellAt(Position position) {
-        validatePosition(position);
-        return cells.get(position);
+    public UpdateMode getUpdateMode() {
+        return updateMode;
     }
 
     /**
-     * 二次元平面の世代を更新します。
-     *
-     * <p>
-     * Template Method パターンを適用しております。
-     * 処理の流れは以下のとおりです。
-     * </p>
-     *
-     * <ol>
-     *   <li>事前にセルの集合を表す内部表現のみコピーして、更新直前の世代として扱う</li>
-     *   <li>更新対象の各セルを走査して、更新直前の世代から近傍を取得する</li>
-     *   <li>更新対象のセルとその近傍の状態を元に、サブクラス側で定めたルールに従ってセルを次状態に更新する</li>
-     *   <li>すべてのセルの更新が終われば、更新直前の世代を元に新しい二次元平面インスタンスを構築して返す</li>
-     * </ol>
+     * 世代の更新方法を設定します。
      *
+     * @param updateMode 世代の更新方法
      */
-    @Override
-    public ILifeGameField<L> update() {
-        // 事前にセルの集合を表す内部表現のみコピーして、更新直前の世代として扱う
-        var previousCells = copyCells(cells);
-
-        cells.entrySet().stream()
-            .filter(entry -> isEnableCell(entry.getValue()))
-            .forEach(entry -> {
-                // 更新対象の各セルを走査して、更新直前の世代から近傍を取得する
-                var neiborCells = getNeiborCells(entry.getKey(), previousCells);
-
-                // 更新対象のセルとその近傍の状態を元に、
-                // サブクラス側で定めたルールに従ってセルを次状態に更新する
-                updateCell(entry.getValue(), neiborCells);
-            });
+    public void setUpdateMode(UpdateMode updateMode) {
+        if (updateMode == null) {
+            throw new IllegalArgumentException();
+        }
+        this.updateMode = updateMode;
+        isChangeTrackingValid = false;
+    }
 
-        // 更新直前の世代を元に新しい二次元平面インスタンスを構築して返す
-        return copyLifeGameField(rowSize, columnSize, previousCells);
+    /**
+     * タイルの一辺のセル数を取得します。
+     *
+     * @return タイルの一辺のセル数
+     */
+    public int getTileSize() {
+        return tileSize;
     }
 
     /**
-     * セルの集合を表す内部表現をコピーします。
+     * {@link UpdateMode#TILED} で使用するタイルの一辺のセル数を設定します。
      *
-     * @param <L> 生命体の型
-     * @param sourceCells コピー元
-     * @return コピーした結果
+     * @param tileSize タイルの一辺のセル数（16 または 32）
      */
-    private static <L> Map<Position, ICell<L>> copyCells(Map<Position, ICell<L>> sourceCells) {
-        // 似た名前の変数が多いので、誤ってフィールドを参照してしまわないように
-        // 自衛の意味で static メソッドにしている（他の static メソッドも同じ理由）
+    public void setTileSize(int tileSize) {
+        if (!TILE_SIZE_RANGE.test(tileSize)) {
+            throw new IllegalArgumentException();
+        }
+        this.tileSize = tileSize;
+        isChangeTrackingValid = false;
+    }
 
-        // キーはイミュータブルのため浅いコピー、値は深いコピーにする
-        return sourceCells.entrySet().stream()
-            .collect(Collectors.toMap(
-                entry -> entry.getKey(),
-                entry -> entry.getValue().copyCell(),
-                (oldValue, newValue) -> newValue,
-                HashMap::new));
+    /**
+     * タイルの数を取得します。
+     *
+     * @return 二次元平面を分割したタイルの数
+     */
+    public int getTileCount() {
+        return toTileCount(rowSize) * toTileCount(columnSize);
     }
 
     /**
-     * 指定された位置の近傍を取得します。
+     * 直前の世代の更新で、走査を省略したタイルの数を取得します。
+     * {@link UpdateMode#TILED} 以外で更新した場合は 0 です。
      *
-     * @param <L> 生命体の型
-     * @param position 位置
-     * @param sourceCells セルの集合を表す内部表現（更新直前の世代）
-     * @return 近傍を表すセルのリスト
-     */
-    private static <L> List<ICell<L>> getNeiborCells(Position position, Map<Position, ICell<L>> sourceCells) {
-        // 指定された位置からプラスマイナス 1 の範囲（指定位置自体は除く）を走査する
-        return IntStream.rangeClosed(-1, 1).boxed()
-            .flatMap(rowDelta -> IntStream.rangeClosed(-1, 1).boxed()
-                .filter(columnDelta -> !(rowDelta == 0 && columnDelta == 0))
-                .map(columnDelta -> {
-                    // 近傍の位置を算出する
-                    int rowIndex = position.getRow() + rowDelta;
-                    int columnIndex = position.getColumn() + columnDelta;
-                    // 近傍セルを取得する（終端操作でリストに集約する）
-                    return sourceCells.get(new Position(rowIndex, columnIndex));
-                }))
-            .collect(Collectors.toList());
-    }
-
-    /**
-     * 指定されたセルと近傍の状態を元に、定めたルールに従ってセルを次状態に更新します。
-     * ルールはサブクラス側で自由に定めてよいです。
+     * @return 走査を省略したタイルの数
+     */
+    public int getSkippedTileCount() {
+        return skippedTileCount;
+    }
+
+    /**
+     * 世代の更新の並列度を取得します。
      *
-     * @param selfCell 更新対象のセル
-     * @param neiborCells 更新対象のセルの近傍
+     * @return 並列度
      */
-    protected abstract void updateCell(ICell<L> selfCell, List<ICell<L>> neiborCells);
+    public int getParallelism() {
+        return parallelism;
+    }
 
     /**
-     * 指定されたパラメータで新しい二次元平面インスタンスを構築して返します。
+     * 世代の更新の並列度を設定します。
      *
      * <p>
-     * 構築対象のインスタンスの型がサブクラス側でしか決定できないため、抽象メソッドにしています。
-     * 必要な処理はサブクラス側で複製用のコンストラクタを呼び出すだけです。
-     * （柔軟性を持たせようとしすぎて、やや失敗している感も否めないです）
+     * 2 以上を指定すると、並列度と同じ数のスレッドをもつスレッドプールで更新します。
+     * スレッドプールは、同じ並列度のすべての二次元平面で共有します。
+     * 1 を指定すると逐次で更新します。
      * </p>
      *
-     * @param rowSize 行サイズ
-     * @param columnSize 列サイズ
-     * @param sourceCells セルの集合を表す内部表現（更新直前の世代）
-     * @return 新しい二次元平面のインスタンス
+     * @param parallelism 並列度（1 以上）
      */
-    protected abstract ILifeGameField<L> copyLifeGameField(int rowSize, int columnSize,
-        Map<Position, ICell<L>> sourceCells);
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.parallelism = parallelism;
+    }
 
     /**
-     * 指定された位置を無効セルにします。
+     * 8 セル分の次状態をまとめて求めるルールを使用するかを取得します。
      *
-     * @param position 位置
+     * @return 使用する場合は true
      */
-    public void disableCellAt(Position position) {
-        validatePosition(position);
-        cells.put(position, nullCell);
+    public boolean isVectorized() {
+        return isVectorized;
     }
 
     /**
-     * 指定された位置を有効セルにします。
+     * 8 セル分の次状態をまとめて求めるルールを使用するかを設定します。
      *
-     * @param position 位置
+     * <p>
+     * サブクラス側でルールを用意していない場合は、設定にかかわらず 1 セルずつ更新します。
+     * いずれの場合も更新結果は同じになります。
+     * </p>
+     *
+     * @param isVectorized 使用する場合は true
      */
-    public void enableCellAt(Position position) {
-        validatePosition(position);
-        cells.put(position, new Cell<>());
+    public void setVectorized(boolean isVectorized) {
+        this.isVectorized = isVectorized;
     }
 
     /**
-     * 指定された位置に対応するセルが有効かどうかを判定します。
+     * 指定された処理を、行の帯に分けて実行します。
+     * 並列度が 2 以上で、二次元平面が十分に大きい場合は並列に実行します。
      *
-     * @param position 位置
-     * @return 有効セルの場合 true、無効セルの場合 false
+     * @param unitSize 帯に分ける単位の数（行数またはタイルの行数）
+     * @param unitCellSize 1 単位あたりのセル数
+     * @param bandOperator 単位の範囲（開始を含み、終了を含まない）を受け取って処理し、結果の数を返す処理
+     * @return 各帯の処理結果の数の合計
      */
-    public boolean isEnableCellAt(Position position) {
-        return isEnableCell(getCellAt(position));
+    private int processBands(int unitSize, int unitCellSize, IntBinaryOperator bandOperator) {
+        if (parallelism < 2 || rowSize * columnSize <= PARALLEL_THRESHOLD) {
+            return bandOperator.applyAsInt(0, unitSize);
+        }
+        var forkJoinPool = SHARED_FORK_JOIN_POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+        return forkJoinPool.invoke(new BandTask(0, unitSize, unitCellSize, bandOperator));
     }
 
     /**
-     * 指定されたセルが有効かどうかを判定します。
+     * 指定された位置に対応するセルを取得します。
      *
-     * @param cell 対象のセル
-     * @return 有効セルの場合 true、無効セルの場合 false
+     * <p>
+     * 有効セルの場合は、内部表現を直接読み書きする軽量なセルを返します。
+     * 返したセルは、本メソッドを再び呼び出しても差し替わりません。
+     * </p>
      */
-    private boolean isEnableCell(ICell<L> cell) {
-        return cell != nullCell;
+    @Override
+    public ICell<L> getCellAt(Position position) {
+        validatePosition(position.getRow(), position.getColumn());
+        int index = toIndex(position.getRow(), position.getColumn());
+        if (!enables[index]) {
+            return nullCell;
+        }
+        var cell = new StateCell(states, true);
+        cell.bind(index);
+        return cell;
     }
 
     /**
-     * 指定されたセルの状態をローテーションで変更します。
+     * 指定された行と列のインデックスに対応するセルを取得します。
+     * 位置のインスタンスは生成しません。
      *
      * <p>
-     * 本メソッドは、二次元平面の状態を編集する際の処理を簡素化するために用意しています。
+     * 有効セルの場合は、スレッドごとに使い回すセルを指定された位置に差し替えて返します。
+     * 返したセルは、同じスレッドで次に本メソッドを呼び出すまで有効です。
      * </p>
-     *
-     * @param cell 対象のセル
      */
-    public abstract void rotateCellState(ICell<L> cell);
+    @Override
+    public ICell<L> getCellAt(int rowIndex, int columnIndex) {
+        validatePosition(rowIndex, columnIndex);
+        int index = toIndex(rowIndex, columnIndex);
+        if (!enables[index]) {
+            return nullCell;
+        }
+        var cell = getCellView();
+        cell.bind(index);
+        return cell;
+    }
 
     /**
-     * 指定された位置が範囲内かどうかチェックして、範囲外の場合には例外をスローします。
-     * （範囲内の場合は何もしません）
+     * 呼び出したスレッドで使い回す、現在の内部表現を読み書きするセルを取得します。
+     * 世代の更新で内部表現が差し替わっている場合は、セルを作り直します。
      *
-     * @param position 位置
-     * @throws IndexOutOfBoundsException 指定された位置が範囲外の場合
+     * @return セル
      */
-    private void validatePosition(Position position) throws IndexOutOfBoundsException {
-        if (!rowRange.test(position.getRow())) {
-            throw new IndexOutOfBoundsException("Row index out of range: " + position.getRow());
+    private StateCell getCellView() {
+        // 複数のスレッドで同時に生成した場合は、どちらか一方を使う（セルを 1 度余分に生成するだけ）
+        var views = cellViews;
+        if (views == null) {
+            views = new ThreadLocal<>();
+            cellViews = views;
         }
-        if (!columnRange.test(position.getColumn())) {
-            throw new IndexOutOfBoundsException("Column index out of range: " + position.getColumn());
+        var cell = views.get();
+        if (cell == null || cell.source != states) {
+            cell = new StateCell(states, true);
+            views.set(cell);
         }
+        return cell;
     }
 
     /**
-     * 二次元平面の状態を文字列表現に変換します。
-     * この文字列表現は、主にデバッグの目的で使用します。
+     * 二次元平面の世代を 1 つ進めます。
+     *
+     * <p>
+     * Template Method パターンを適用しております。
+     * 内部表現は前面と背面の 2 つの配列を交互に使い回します。（ダブルバッファリング）
+     * 処理の流れは以下のとおりです。
+     * </p>
+     *
+     * <ol>
+     *   <li>前面の内部表現を背面の配列にまとめてコピーして、背面を次の世代の書き込み先とする</li>
+     *   <li>更新方法に応じて更新対象のセルを決めて、更新直前の世代から近傍を取得する</li>
+     *   <li>更新対象のセルとその近傍の状態を元に、サブクラス側で定めたルールに従ってセルを次状態に更新する</li>
+     *   <li>すべてのセルの更新が終われば、前面と背面を入れ替える</li>
+     * </ol>
+     *
      */
     @Override
-    public String toString() {
-        var sb = new StringBuilder();
-        IntStream.range(0, rowSize).boxed()
-            .flatMap(rowIndex -> IntStream.range(0, columnSize).boxed()
-                .map(columnIndex -> new Position(rowIndex, columnIndex)))
-            .forEach(position -> {
-                sb.append(getCellAt(position));
-                // Stream API で単純な二重ループを記述して
-                // 内側と外側のループの間に改行を差し込むために
-                // 苦し紛れでこのような形にしている
-                // このコメントを書いているうちに、よくよく考えたら
-                // map の段階で文字列の断片を作って終端操作で集約すれば
-                // うまくいくような気もしてきたが、
-                // 検証する時間がないのでいったんこのままにしておく
-                if (position.getColumn() == columnSize - 1) {
-                    sb.append(String.format("%n"));
-                }
-            });
-        return sb.toString();
-    }
+    public void step() {
+        // 前面の内部表現を背面にまとめてコピーして、背面を次の世代の書き込み先とする
+        if (backStates == null) {
+            backStates = new byte[states.length];
+        }
+        System.arraycopy(states, 0, backStates, 0, states.length);
+        var previousStates = states;
+        var nextStates = backStates;
+
+        // ルールを遷移表にまとめておく
+        if (!isTransitionTableCreated) {
+            transitionTable = createTransitionTable();
+            isTransitionTableCreated = true;
+        }
+        if (!isLaneRuleCreated) {
+            laneRule = createLaneRule();
+            isLaneRuleCreated = true;
+        }
 
+        // 更新直前の世代から次の世代を求める
+        skippedTileCount = 0;
+        if (updateMode == UpdateMode.ACTIVE_SET) {
+            updateActiveStates(previousStates, nextStates);
+        } else if (updateMode == UpdateMode.TILED) {
+            updateTiledStates(previousStates, nextStates);
+        } else {
+            updateStates(previousStates, nextStates);
+        }
+
+        // ハッシュを求めたことがあれば、状態が変化したセルの分だけ更新する
+        if (isZobristHashValid) {
+            zobristHash ^= hashChanges(previousStates, nextStates);
+        }
+
+        // 前面と背面を入れ替える
+        states = nextStates;
+        backStates = previousStates;
+    }
+
+    /**
+     * 二次元平面の世代を更新して、更新直前の世代の二次元平面を返します。
+     *
+     * <p>
+     * 更新直前の世代の内部表現は複製せずに、返す二次元平面にそのまま引き渡します。
+     * 引き渡した配列は背面として使えなくなるため、次の更新で背面を割り当て直します。
+     * </p>
+     */
+    @Override
+    public ILifeGameField<L> update() {
+        var previousStates = states;
+        step();
+        backStates = null;
+
+        // 更新直前の世代を元に新しい二次元平面インスタンスを構築して返す
+        // （有効セルのマスクは世代間で共有する）
+        isEnablesShared = true;
+        return copyLifeGameField(rowSize, columnSize, previousStates, enables);
+    }
+
+    /**
+     * 現在の状態を複製した二次元平面を返します。
+     *
+     * <p>
+     * 内部表現は配列ごとまとめて複製し、有効セルのマスクは共有します。
+     * 複製した二次元平面を進める場合に備えて、世代の更新方法やタイルの大きさ、並列度も引き継ぎます。
+     * </p>
+     */
+    @Override
+    public ILifeGameField<L> snapshot() {
+        isEnablesShared = true;
+        var lifeGameField = copyLifeGameField(rowSize, columnSize, states.clone(), enables);
+        if (lifeGameField instanceof AbstractLifeGameField) {
+            var copiedLifeGameField = (AbstractLifeGameField<?>) lifeGameField;
+            copiedLifeGameField.updateMode = updateMode;
+            copiedLifeGameField.tileSize = tileSize;
+            copiedLifeGameField.parallelism = parallelism;
+        }
+        return lifeGameField;
+    }
+
+    /**
+     * 現在の状態の Zobrist ハッシュを取得します。
+     * 未計算か、編集した直後の場合は、すべてのセルから求め直します。
+     */
+    @Override
+    public long getZobristHash() {
+        if (!isZobristHashValid) {
+            long hash = 0L;
+            for (int index = 0; index < states.length; index++) {
+                if (states[index] != EMPTY_STATE_CODE) {
+                    hash ^= ZobristKeys.of(index, states[index]);
+                }
+            }
+            zobristHash = hash;
+            isZobristHashValid = true;
+        }
+        return zobristHash;
+    }
+
+    /**
+     * 世代の更新で状態が変化したセルについて、ハッシュに排他的論理和で足す値を求めます。
+     *
+     * <p>
+     * {@link UpdateMode#ACTIVE_SET} では、状態が変化したセルの記録をそのまま使用します。
+     * それ以外の更新方法では、内部表現の配列の不一致箇所を {@link Arrays#mismatch} で飛ばし読みして集めます。
+     * </p>
+     *
+     * @param previousStates 更新直前の世代の内部表現
+     * @param nextStates 次の世代の内部表現
+     * @return ハッシュに足す値
+     */
+    private long hashChanges(byte[] previousStates, byte[] nextStates) {
+        long hashDelta = 0L;
+        if (updateMode == UpdateMode.ACTIVE_SET) {
+            for (int i = 0; i < changedSize; i++) {
+                int index = changedIndexes[i];
+                hashDelta ^= ZobristKeys.ofChange(index, previousStates[index], nextStates[index]);
+            }
+            return hashDelta;
+        }
+        int length = previousStates.length;
+        int index = 0;
+        while (index < length) {
+            int offset = Arrays.mismatch(previousStates, index, length, nextStates, index, length);
+            if (offset < 0) {
+                break;
+            }
+            index += offset;
+            hashDelta ^= ZobristKeys.ofChange(index, previousStates[index], nextStates[index]);
+            index++;
+        }
+        return hashDelta;
+    }
+
+    /**
+     * この二次元平面から、指定された二次元平面への差分を作成します。
+     *
+     * <p>
+     * 差分のキーは内部表現のインデックスです。
+     * 内部表現の配列の不一致箇所を {@link Arrays#mismatch} で飛ばし読みしながら、状態が変化したセルを集めます。
+     * </p>
+     */
+    @Override
+    public FieldDelta diff(ILifeGameField<L> target) {
+        // 同じ種類、同じ大きさ、同じ有効セルの二次元平面だけを差分の対象とする
+        if (target == null || target.getClass() != getClass()) {
+            return null;
+        }
+        var other = (AbstractLifeGameField<?>) target;
+        if (other.states.length != states.length
+            || (other.enables != enables && !Arrays.equals(other.enables, enables))) {
+            return null;
+        }
+
+        var builder = new FieldDelta.Builder();
+        int index = 0;
+        while (index < states.length) {
+            int offset = Arrays.mismatch(states, index, states.length, other.states, index, states.length);
+            if (offset < 0) {
+                break;
+            }
+            index += offset;
+            builder.add(index, other.states[index]);
+            index++;
+        }
+        return builder.build();
+    }
+
+    /**
+     * この二次元平面に、指定された差分を順に適用した二次元平面を作成します。
+     *
+     * <p>
+     * 内部表現は 1 度だけ複製して、すべての差分をまとめて書き込みます。
+     * 有効セルのマスクは共有します。
+     * </p>
+     */
+    @Override
+    public ILifeGameField<L> patch(List<FieldDelta> deltas) {
+        var patchedStates = states.clone();
+        for (var delta : deltas) {
+            for (int i = 0; i < delta.size(); i++) {
+                patchedStates[(int) delta.getKey(i)] = (byte) delta.getStateCode(i);
+            }
+        }
+        isEnablesShared = true;
+        return copyLifeGameField(rowSize, columnSize, patchedStates, enables);
+    }
+
+    /**
+     * この二次元平面が保持しているおおよそのバイト数を見積もります。
+     * 世代間で共有する有効セルのマスクは含めず、内部表現の大きさだけを数えます。
+     */
+    @Override
+    public long estimateSize() {
+        return states.length + ((backStates != null) ? backStates.length : 0);
+    }
+
+    /**
+     * 更新直前の世代の内部表現から、次の世代の内部表現を求めます。
+     *
+     * <p>
+     * 書き込み先には、あらかじめ更新直前の世代と同じ内容が入っています。
+     * 既定の実装では、有効セルを 1 つずつ走査して、更新対象のセルとその近傍を
+     * 内部表現を直接読み書きする軽量なセルとして updateCell に渡します。
+     * 軽量なセルとリストは走査の間で使い回すため、セルごとのインスタンス生成は発生しません。
+     * </p>
+     *
+     * <p>
+     * 8 セル分の次状態をまとめて求めるルールをもつ場合は、各行を 8 セルずつ {@link LaneKernel} で更新して、
+     * 行の末尾で 8 セルに満たない部分だけを 1 セルずつ更新します。
+     * </p>
+     *
+     * <p>
+     * 並列度が 2 以上の場合は、行の帯ごとに並列に走査します。
+     * </p>
+     *
+     * <p>
+     * ビット並列演算など、より高速な方法で世代を求められるサブクラスはオーバーライドしてもよいです。
+     * その場合も、無効セルの状態コードは常に 0 のままにする必要があります。
+     * </p>
+     *
+     * @param sourceStates 更新直前の世代の内部表現
+     * @param targetStates 次の世代の内部表現の書き込み先
+     */
+    protected void updateStates(byte[] sourceStates, byte[] targetStates) {
+        // 8 セル分をまとめて求める場合は、有効セルのマスクをレーンの形に変換しておく
+        var rule = isVectorized ? laneRule : null;
+        if (rule != null && enableLanes == null) {
+            enableLanes = LaneKernel.toEnableLanes(enables);
+        }
+        var currentEnableLanes = enableLanes;
+
+        processBands(rowSize, columnSize, (fromRowIndex, toRowIndex) -> {
+            // 軽量なセルはスレッド間で共有できないため、帯ごとに用意する
+            var cellUpdater = new CellUpdater(sourceStates, targetStates);
+            for (int rowIndex = fromRowIndex; rowIndex < toRowIndex; rowIndex++) {
+                // 8 セル単位で処理できる部分をまとめて更新して、残りを 1 セルずつ更新する
+                int fromColumnIndex = 0;
+                if (rule != null) {
+                    fromColumnIndex = LaneKernel.updateRow(sourceStates, targetStates, currentEnableLanes,
+                        neiborOffsets, rule, toIndex(rowIndex, 0), columnSize);
+                }
+                for (int columnIndex = fromColumnIndex; columnIndex < columnSize; columnIndex++) {
+                    int index = toIndex(rowIndex, columnIndex);
+                    if (enables[index]) {
+                        cellUpdater.updateCellAt(index);
+                    }
+                }
+            }
+            return 0;
+        });
+    }
+
+    /**
+     * 前の世代で状態が変化したセルとその近傍だけを走査して、次の世代の内部表現を求めます。
+     *
+     * <p>
+     * 遷移表をもつ場合は、近傍キーをセルごとに保持しておき、状態が変化したセルの近傍だけを増減します。
+     * 次状態は保持している近傍キーで遷移表を引いて求めます。
+     * 遷移表をもたない場合は、updateStates と同じく軽量なセルを updateCell に渡して求めます。
+     * セルの集合を編集した直後は、近傍キーを数え直して、すべての有効セルを走査します。
+     * </p>
+     *
+     * @param sourceStates 更新直前の世代の内部表現
+     * @param targetStates 次の世代の内部表現の書き込み先
+     */
+    private void updateActiveStates(byte[] sourceStates, byte[] targetStates) {
+        int length = sourceStates.length;
+        if (!isChangeTrackingValid) {
+            // 近傍キーを数え直して、すべての有効セルを状態が変化したセルとみなす
+            neiborKeys = (transitionTable != null) ? new int[length] : null;
+            changedIndexes = new int[length];
+            candidateIndexes = new int[length];
+            candidateStamps = new int[length];
+            candidateStamp = 0;
+            changedSize = 0;
+            for (int index = 0; index < length; index++) {
+                if (neiborKeys != null && sourceStates[index] != EMPTY_STATE_CODE) {
+                    addNeiborKey(index, transitionTable.weights[sourceStates[index]]);
+                }
+                if (enables[index]) {
+                    changedIndexes[changedSize++] = index;
+                }
+            }
+            isChangeTrackingValid = true;
+        }
+
+        // 状態が変化したセルとその近傍のうち、有効セルを重複なく集める
+        candidateStamp++;
+        if (candidateStamp == 0) {
+            Arrays.fill(candidateStamps, 0);
+            candidateStamp = 1;
+        }
+        int candidateSize = 0;
+        for (int i = 0; i < changedSize; i++) {
+            int changedIndex = changedIndexes[i];
+            candidateSize = addCandidate(changedIndex, candidateSize);
+            for (int neiborOffset : neiborOffsets) {
+                candidateSize = addCandidate(changedIndex + neiborOffset, candidateSize);
+            }
+        }
+
+        // 集めたセルの次状態を求めて、状態が変化したセルを記録する
+        var cellUpdater = new CellUpdater(sourceStates, targetStates);
+        changedSize = 0;
+        for (int i = 0; i < candidateSize; i++) {
+            int index = candidateIndexes[i];
+            int stateCode = sourceStates[index];
+            int nextStateCode;
+            if (neiborKeys != null) {
+                // 保持している近傍キーで遷移表を引く
+                nextStateCode = transitionTable.getNextStateCode(stateCode, neiborKeys[index]);
+                targetStates[index] = (byte) nextStateCode;
+            } else {
+                // 遷移表をもたないため、サブクラス側で定めたルールで更新する
+                cellUpdater.updateCellAt(index);
+                nextStateCode = targetStates[index];
+            }
+            if (nextStateCode != stateCode) {
+                changedIndexes[changedSize++] = index;
+            }
+        }
+
+        // すべてのセルの次状態が決まってから、状態が変化したセルの近傍の近傍キーを増減する
+        if (neiborKeys != null) {
+            var weights = transitionTable.weights;
+            for (int i = 0; i < changedSize; i++) {
+                int index = changedIndexes[i];
+                int delta = weights[targetStates[index]] - weights[sourceStates[index]];
+                if (delta != 0) {
+                    addNeiborKey(index, delta);
+                }
+            }
+        }
+    }
+
+    /**
+     * タイルごとに、タイル自体と隣接するタイルの境界のセルが前の世代で変化したかを調べて、
+     * 変化したタイルだけを走査して次の世代の内部表現を求めます。
+     *
+     * <p>
+     * タイル内のセルの近傍は、タイル自体か、隣接するタイルの境界の行と列（斜めのタイルは角のセル）に含まれます。
+     * そのため、これらのいずれも変化していなければ、タイル内のセルの次状態は変わりません。
+     * 書き込み先にはあらかじめ更新直前の世代と同じ内容が入っているため、走査を省略したタイルはそのままで済みます。
+     * セルの集合を編集した直後は、すべてのタイルを走査します。
+     * 並列度が 2 以上の場合は、タイルの行の帯ごとに並列に走査します。
+     * </p>
+     *
+     * @param sourceStates 更新直前の世代の内部表現
+     * @param targetStates 次の世代の内部表現の書き込み先
+     */
+    private void updateTiledStates(byte[] sourceStates, byte[] targetStates) {
+        int tileRowSize = toTileCount(rowSize);
+        int tileColumnSize = toTileCount(columnSize);
+        if (!isChangeTrackingValid) {
+            // すべてのタイルが変化したものとみなす
+            tileChanges = new int[tileRowSize * tileColumnSize];
+            nextTileChanges = new int[tileRowSize * tileColumnSize];
+            Arrays.fill(tileChanges, TILE_ALL_CHANGED);
+            isChangeTrackingValid = true;
+        }
+
+        skippedTileCount = processBands(tileRowSize, tileSize * columnSize,
+            (fromTileRowIndex, toTileRowIndex) -> updateTileRows(sourceStates, targetStates,
+                fromTileRowIndex, toTileRowIndex, tileRowSize, tileColumnSize));
+
+        // 記録したビットを次の世代の更新で参照できるように入れ替える
+        var temp = tileChanges;
+        tileChanges = nextTileChanges;
+        nextTileChanges = temp;
+    }
+
+    /**
+     * 指定された範囲のタイルの行について、走査が必要なタイルだけを更新します。
+     *
+     * @param sourceStates 更新直前の世代の内部表現
+     * @param targetStates 次の世代の内部表現の書き込み先
+     * @param fromTileRowIndex 範囲の開始のタイルの行インデックス（この値を含む）
+     * @param toTileRowIndex 範囲の終了のタイルの行インデックス（この値を含まない）
+     * @param tileRowSize タイルの行数
+     * @param tileColumnSize タイルの列数
+     * @return 走査を省略したタイルの数
+     */
+    private int updateTileRows(byte[] sourceStates, byte[] targetStates, int fromTileRowIndex, int toTileRowIndex,
+        int tileRowSize, int tileColumnSize) {
+        var cellUpdater = new CellUpdater(sourceStates, targetStates);
+        int skippedCount = 0;
+        for (int tileRowIndex = fromTileRowIndex; tileRowIndex < toTileRowIndex; tileRowIndex++) {
+            for (int tileColumnIndex = 0; tileColumnIndex < tileColumnSize; tileColumnIndex++) {
+                int tileIndex = tileRowIndex * tileColumnSize + tileColumnIndex;
+                if (!isTileAffected(tileRowIndex, tileColumnIndex, tileRowSize, tileColumnSize)) {
+                    nextTileChanges[tileIndex] = 0;
+                    skippedCount++;
+                    continue;
+                }
+
+                // タイル内の有効セルを更新して、変化したセルの位置をビットで記録する
+                int fromRowIndex = tileRowIndex * tileSize;
+                int toRowIndex = Math.min(fromRowIndex + tileSize, rowSize);
+                int fromColumnIndex = tileColumnIndex * tileSize;
+                int toColumnIndex = Math.min(fromColumnIndex + tileSize, columnSize);
+                int tileChange = 0;
+                for (int rowIndex = fromRowIndex; rowIndex < toRowIndex; rowIndex++) {
+                    for (int columnIndex = fromColumnIndex; columnIndex < toColumnIndex; columnIndex++) {
+                        int index = toIndex(rowIndex, columnIndex);
+                        if (!enables[index]) {
+                            continue;
+                        }
+                        cellUpdater.updateCellAt(index);
+                        if (targetStates[index] != sourceStates[index]) {
+                            tileChange |= toTileChange(rowIndex == fromRowIndex, rowIndex == toRowIndex - 1,
+                                columnIndex == fromColumnIndex, columnIndex == toColumnIndex - 1);
+                        }
+                    }
+                }
+                nextTileChanges[tileIndex] = tileChange;
+            }
+        }
+        return skippedCount;
+    }
+
+    /**
+     * 指定された行または列のサイズを分割するのに必要なタイルの数を求めます。
+     *
+     * @param size 行サイズまたは列サイズ
+     * @return タイルの数
+     */
+    private int toTileCount(int size) {
+        return (size + tileSize - 1) / tileSize;
+    }
+
+    /**
+     * タイル内で変化したセルの位置から、変化した部分を表すビットの組み合わせを求めます。
+     *
+     * @param isTop タイルの上端の行の場合 true
+     * @param isBottom タイルの下端の行の場合 true
+     * @param isLeft タイルの左端の列の場合 true
+     * @param isRight タイルの右端の列の場合 true
+     * @return 変化した部分を表すビットの組み合わせ
+     */
+    private static int toTileChange(boolean isTop, boolean isBottom, boolean isLeft, boolean isRight) {
+        int tileChange = TILE_CHANGED;
+        if (isTop) {
+            tileChange |= TILE_TOP_CHANGED;
+        }
+        if (isBottom) {
+            tileChange |= TILE_BOTTOM_CHANGED;
+        }
+        if (isLeft) {
+            tileChange |= TILE_LEFT_CHANGED;
+        }
+        if (isRight) {
+            tileChange |= TILE_RIGHT_CHANGED;
+        }
+        if (isTop && isLeft) {
+            tileChange |= TILE_TOP_LEFT_CHANGED;
+        }
+        if (isTop && isRight) {
+            tileChange |= TILE_TOP_RIGHT_CHANGED;
+        }
+        if (isBottom && isLeft) {
+            tileChange |= TILE_BOTTOM_LEFT_CHANGED;
+        }
+        if (isBottom && isRight) {
+            tileChange |= TILE_BOTTOM_RIGHT_CHANGED;
+        }
+        return tileChange;
+    }
+
+    /**
+     * 指定されたタイル自体か、タイルに接する隣接タイルの境界のセルが前の世代で変化したかを判定します。
+     *
+     * @param tileRowIndex タイルの行インデックス
+     * @param tileColumnIndex タイルの列インデックス
+     * @param tileRowSize タイルの行数
+     * @param tileColumnSize タイルの列数
+     * @return 変化した場合 true
+     */
+    private boolean isTileAffected(int tileRowIndex, int tileColumnIndex, int tileRowSize, int tileColumnSize) {
+        if ((getTileChange(tileRowIndex, tileColumnIndex, tileRowSize, tileColumnSize) & TILE_CHANGED) != 0) {
+            return true;
+        }
+        // 上下左右のタイルは接する辺、斜めのタイルは接する角のセルを調べる
+        return (getTileChange(tileRowIndex - 1, tileColumnIndex, tileRowSize, tileColumnSize)
+            & TILE_BOTTOM_CHANGED) != 0
+            || (getTileChange(tileRowIndex + 1, tileColumnIndex, tileRowSize, tileColumnSize)
+                & TILE_TOP_CHANGED) != 0
+            || (getTileChange(tileRowIndex, tileColumnIndex - 1, tileRowSize, tileColumnSize)
+                & TILE_RIGHT_CHANGED) != 0
+            || (getTileChange(tileRowIndex, tileColumnIndex + 1, tileRowSize, tileColumnSize)
+                & TILE_LEFT_CHANGED) != 0
+            || (getTileChange(tileRowIndex - 1, tileColumnIndex - 1, tileRowSize, tileColumnSize)
+                & TILE_BOTTOM_RIGHT_CHANGED) != 0
+            || (getTileChange(tileRowIndex - 1, tileColumnIndex + 1, tileRowSize, tileColumnSize)
+                & TILE_BOTTOM_LEFT_CHANGED) != 0
+            || (getTileChange(tileRowIndex + 1, tileColumnIndex - 1, tileRowSize, tileColumnSize)
+                & TILE_TOP_RIGHT_CHANGED) != 0
+            || (getTileChange(tileRowIndex + 1, tileColumnIndex + 1, tileRowSize, tileColumnSize)
+                & TILE_TOP_LEFT_CHANGED) != 0;
+    }
+
+    /**
+     * 指定されたタイルが前の世代で変化した部分を表すビットの組み合わせを取得します。
+     *
+     * @param tileRowIndex タイルの行インデックス
+     * @param tileColumnIndex タイルの列インデックス
+     * @param tileRowSize タイルの行数
+     * @param tileColumnSize タイルの列数
+     * @return 変化した部分を表すビットの組み合わせ（範囲外の場合は 0）
+     */
+    private int getTileChange(int tileRowIndex, int tileColumnIndex, int tileRowSize, int tileColumnSize) {
+        if (tileRowIndex < 0 || tileRowIndex >= tileRowSize
+            || tileColumnIndex < 0 || tileColumnIndex >= tileColumnSize) {
+            return 0;
+        }
+        return tileChanges[tileRowIndex * tileColumnSize + tileColumnIndex];
+    }
+
+    /**
+     * 指定されたセルが有効セルで、まだ追加されていなければ、走査するセルに追加します。
+     *
+     * @param index 内部表現のインデックス
+     * @param candidateSize 追加前の走査するセルの数
+     * @return 追加後の走査するセルの数
+     */
+    private int addCandidate(int index, int candidateSize) {
+        if (!enables[index] || candidateStamps[index] == candidateStamp) {
+            return candidateSize;
+        }
+        candidateStamps[index] = candidateStamp;
+        candidateIndexes[candidateSize] = index;
+        return candidateSize + 1;
+    }
+
+    /**
+     * 指定されたセルの近傍 8 セルについて、近傍キーを増減します。
+     *
+     * @param index 内部表現のインデックス
+     * @param delta 増減する値
+     */
+    private void addNeiborKey(int index, int delta) {
+        for (int neiborOffset : neiborOffsets) {
+            neiborKeys[index + neiborOffset] += delta;
+        }
+    }
+
+    /**
+     * 次状態を求めるための遷移表を作成します。
+     *
+     * <p>
+     * 最初に世代を更新するときに 1 度だけ呼び出します。
+     * 既定の実装は null を返し、遷移表を使わずに updateCell で次状態を求めます。
+     * ルールが自セルの状態と近傍の生命体の種類ごとの数だけで決まるサブクラスは、
+     * {@link TransitionTable#compile} でルールを直接記述するか、
+     * {@link #compileTransitionTable(int[])} で updateCell から遷移表を作成して返すと高速になります。
+     * </p>
+     *
+     * @return 遷移表、または null
+     */
+    protected TransitionTable createTransitionTable() {
+        return null;
+    }
+
+    /**
+     * セルをコピーする際の、生命体のコピー方法を作成します。
+     *
+     * <p>
+     * 最初にセルをコピーするときに 1 度だけ呼び出します。
+     * 既定の実装は、生命体の参照をそのままコピーします。
+     * 生命体が Immutable ではないサブクラスは、深いコピーを行うコピー方法を返すようにオーバーライドします。
+     * </p>
+     *
+     * @return 生命体のコピー方法
+     */
+    protected LifeCopier<L> createLifeCopier() {
+        return LifeCopier.identity();
+    }
+
+    /**
+     * 8 セル分の次状態をまとめて求めるルールを作成します。
+     *
+     * <p>
+     * 最初に世代を更新するときに 1 度だけ呼び出します。
+     * 既定の実装は null を返し、1 セルずつ次状態を求めます。
+     * ルールが自セルの状態と近傍の生命体の数だけで決まるサブクラスは、
+     * {@link LaneKernel} の補助メソッドを使って updateCell と同じルールをレーンごとの演算で記述して返すと、
+     * {@link UpdateMode#FULL_SCAN} での更新が高速になります。
+     * </p>
+     *
+     * @return 8 セル分の次状態をまとめて求めるルール、または null
+     */
+    protected LaneKernel.LaneRule createLaneRule() {
+        return null;
+    }
+
+    /**
+     * サブクラス側で定めた updateCell のルールから、遷移表を作成します。
+     *
+     * <p>
+     * 自セルの状態と近傍の種類ごとの数のすべての組み合わせについて、
+     * 種類ごとの代表の状態コード（その種類をもつ最小の状態コード）で近傍を埋めて updateCell を評価します。
+     * そのため、updateCell の結果は近傍の並び順や、同じ種類の中での状態コードの違いに左右されない必要があります。
+     * </p>
+     *
+     * @param speciesOfStateCodes 状態コードごとの生命体の種類（0 から始まる値）。状態コード 0 は
+     *        {@link TransitionTable#NO_SPECIES}
+     * @return 遷移表
+     */
+    protected final TransitionTable compileTransitionTable(int[] speciesOfStateCodes) {
+        // 種類ごとの代表の状態コードを求める
+        int speciesSize = Arrays.stream(speciesOfStateCodes).max().orElse(TransitionTable.NO_SPECIES) + 1;
+        var representativeStateCodes = new byte[Math.max(speciesSize, 0)];
+        for (int stateCode = speciesOfStateCodes.length - 1; stateCode > 0; stateCode--) {
+            if (speciesOfStateCodes[stateCode] >= 0) {
+                representativeStateCodes[speciesOfStateCodes[stateCode]] = (byte) stateCode;
+            }
+        }
+
+        // 近傍を 0 から 7、自セルを 8 とした作業用の内部表現で updateCell を評価する
+        var sourceStates = new byte[NEIBOR_SIZE + 1];
+        var targetStates = new byte[NEIBOR_SIZE + 1];
+        var selfCell = new StateCell(targetStates, false);
+        selfCell.bind(NEIBOR_SIZE);
+        var neiborCellList = new ArrayList<StateCell>(NEIBOR_SIZE);
+        var compileNeiborOffsets = new int[NEIBOR_SIZE];
+        for (int i = 0; i < NEIBOR_SIZE; i++) {
+            var neiborCell = new StateCell(sourceStates, false);
+            neiborCell.bind(i);
+            neiborCellList.add(neiborCell);
+            compileNeiborOffsets[i] = i - NEIBOR_SIZE;
+        }
+        var neiborhood = new NeiborhoodSummary<L>(Collections.unmodifiableList(neiborCellList));
+
+        return TransitionTable.compile(speciesOfStateCodes, (selfStateCode, neiborCounts) -> {
+            int index = 0;
+            for (int species = 0; species < neiborCounts.length; species++) {
+                for (int count = 0; count < neiborCounts[species]; count++) {
+                    sourceStates[index++] = representativeStateCodes[species];
+                }
+            }
+            Arrays.fill(sourceStates, index, NEIBOR_SIZE, (byte) EMPTY_STATE_CODE);
+            targetStates[NEIBOR_SIZE] = (byte) selfStateCode;
+            neiborhood.summarize(sourceStates, NEIBOR_SIZE, compileNeiborOffsets);
+            updateCell(selfCell, neiborhood);
+            return targetStates[NEIBOR_SIZE];
+        });
+    }
+
+    /**
+     * 指定されたセルと近傍の集計結果を元に、定めたルールに従ってセルを次状態に更新します。
+     * ルールはサブクラス側で自由に定めてよいです。
+     *
+     * @param selfCell 更新対象のセル
+     * @param neiborhood 更新対象のセルの近傍の集計結果（呼び出しの外で参照を保持しないこと）
+     */
+    protected abstract void updateCell(ICell<L> selfCell, NeiborhoodSummary<L> neiborhood);
+
+    /**
+     * 指定されたパラメータで新しい二次元平面インスタンスを構築して返します。
+     *
+     * <p>
+     * 構築対象のインスタンスの型がサブクラス側でしか決定できないため、抽象メソッドにしています。
+     * 必要な処理はサブクラス側で複製用のコンストラクタを呼び出すだけです。
+     * （柔軟性を持たせようとしすぎて、やや失敗している感も否めないです）
+     * </p>
+     *
+     * @param rowSize 行サイズ
+     * @param columnSize 列サイズ
+     * @param sourceStates セルの集合を表す内部表現（更新直前の世代）
+     * @param sourceEnables 有効セルを表すマスク
+     * @return 新しい二次元平面のインスタンス
+     */
+    protected abstract ILifeGameField<L> copyLifeGameField(int rowSize, int columnSize,
+        byte[] sourceStates, boolean[] sourceEnables);
+
+    /**
+     * 指定された生命体を状態コードに変換します。
+     *
+     * @param life 生命体
+     * @return 1 から 127 までの状態コード
+     */
+    protected abstract int toStateCode(L life);
+
+    /**
+     * 指定された状態コードを生命体に変換します。
+     *
+     * @param stateCode 1 から 127 までの状態コード
+     * @return 生命体
+     */
+    protected abstract L toLife(int stateCode);
+
+    /**
+     * 指定された位置を無効セルにします。
+     *
+     * @param position 位置
+     */
+    @Override
+    public void disableCellAt(Position position) {
+        validatePosition(position.getRow(), position.getColumn());
+        int index = toIndex(position.getRow(), position.getColumn());
+        ensureEnablesOwned();
+        enables[index] = false;
+        enableLanes = null;
+        states[index] = EMPTY_STATE_CODE;
+        isChangeTrackingValid = false;
+        isZobristHashValid = false;
+    }
+
+    /**
+     * 指定された位置を有効セルにします。
+     *
+     * @param position 位置
+     */
+    @Override
+    public void enableCellAt(Position position) {
+        validatePosition(position.getRow(), position.getColumn());
+        int index = toIndex(position.getRow(), position.getColumn());
+        ensureEnablesOwned();
+        enables[index] = true;
+        enableLanes = null;
+        states[index] = EMPTY_STATE_CODE;
+        isChangeTrackingValid = false;
+        isZobristHashValid = false;
+    }
+
+    /**
+     * 有効セルを表すマスクを他のインスタンスと共有している場合は、変更に備えて複製します。
+     */
+    private void ensureEnablesOwned() {
+        if (isEnablesShared) {
+            enables = enables.clone();
+            isEnablesShared = false;
+        }
+    }
+
+    /**
+     * 指定された位置に対応するセルが有効かどうかを判定します。
+     *
+     * @param position 位置
+     * @return 有効セルの場合 true、無効セルの場合 false
+     */
+    @Override
+    public boolean isEnableCellAt(Position position) {
+        return isEnableCellAt(position.getRow(), position.getColumn());
+    }
+
+    /**
+     * 指定された行と列のインデックスに対応するセルが有効かどうかを判定します。
+     * 位置のインスタンスは生成しません。
+     */
+    @Override
+    public boolean isEnableCellAt(int rowIndex, int columnIndex) {
+        validatePosition(rowIndex, columnIndex);
+        return enables[toIndex(rowIndex, columnIndex)];
+    }
+
+    /**
+     * 内部表現の指定されたインデックスに対応するセルが有効かどうかを判定します。
+     *
+     * @param index 内部表現のインデックス
+     * @return 有効セルの場合 true、無効セルの場合 false
+     */
+    protected final boolean isEnableIndex(int index) {
+        return enables[index];
+    }
+
+    /**
+     * 指定された位置に対応する内部表現のインデックスを求めます。
+     * 位置の範囲チェックは行いません。
+     *
+     * @param rowIndex 行インデックス
+     * @param columnIndex 列インデックス
+     * @return 内部表現のインデックス
+     */
+    protected final int toIndex(int rowIndex, int columnIndex) {
+        return (rowIndex + 1) * stride + (columnIndex + 1);
+    }
+
+    /**
+     * 指定されたセルの状態をローテーションで変更します。
+     *
+     * <p>
+     * 本メソッドは、二次元平面の状態を編集する際の処理を簡素化するために用意しています。
+     * </p>
+     *
+     * @param cell 対象のセル
+     */
+    @Override
+    public abstract void rotateCellState(ICell<L> cell);
+
+    /**
+     * 指定された位置が範囲内かどうかチェックして、範囲外の場合には例外をスローします。
+     * （範囲内の場合は何もしません）
+     *
+     * @param rowIndex 行インデックス
+     * @param columnIndex 列インデックス
+     * @throws IndexOutOfBoundsException 指定された位置が範囲外の場合
+     */
+    private void validatePosition(int rowIndex, int columnIndex) throws IndexOutOfBoundsException {
+        if (rowIndex < 0 || rowIndex >= rowSize) {
+            throw new IndexOutOfBoundsException("Row index out of range: " + rowIndex);
+        }
+        if (columnIndex < 0 || columnIndex >= columnSize) {
+            throw new IndexOutOfBoundsException("Column index out of range: " + columnIndex);
+        }
+    }
+
+    /**
+     * 二次元平面の状態を文字列表現に変換します。
+     * この文字列表現は、主にデバッグの目的で使用します。
+     */
+    @Override
+    public String toString() {
+        var sb = new StringBuilder();
+        for (int rowIndex = 0; rowIndex < rowSize; rowIndex++) {
+            for (int columnIndex = 0; columnIndex < columnSize; columnIndex++) {
+                sb.append(getCellAt(rowIndex, columnIndex));
+            }
+            sb.append(String.format("%n"));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 行の帯を再帰的に二分割して、Fork/Join フレームワークで並列に処理するタスクです。
+     *
+     * @author Juno NISHIZAKI
+     *
+     */
+    private static class BandTask extends RecursiveTask<Integer> {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 範囲の開始の単位（この値を含む）です。
+         */
+        private final int fromUnit;
+
+        /**
+         * 範囲の終了の単位（この値を含まない）です。
+         */
+        private final int toUnit;
+
+        /**
+         * 1 単位あたりのセル数です。
+         */
+        private final int unitCellSize;
+
+        /**
+         * 帯ごとの処理です。
+         */
+        private final IntBinaryOperator bandOperator;
+
+        /**
+         * 指定された範囲を処理するタスクを構築します。
+         *
+         * @param fromUnit 範囲の開始の単位（この値を含む）
+         * @param toUnit 範囲の終了の単位（この値を含まない）
+         * @param unitCellSize 1 単位あたりのセル数
+         * @param bandOperator 帯ごとの処理
+         */
+        private BandTask(int fromUnit, int toUnit, int unitCellSize, IntBinaryOperator bandOperator) {
+            this.fromUnit = fromUnit;
+            this.toUnit = toUnit;
+            this.unitCellSize = unitCellSize;
+            this.bandOperator = bandOperator;
+        }
+
+        @Override
+        protected Integer compute() {
+            // 十分に小さい帯は、そのまま処理する
+            int unitSize = toUnit - fromUnit;
+            if (unitSize == 1 || (long) unitSize * unitCellSize <= PARALLEL_THRESHOLD) {
+                return bandOperator.applyAsInt(fromUnit, toUnit);
+            }
+
+            // 帯を二分割して、前半を別のスレッドに任せる
+            int middleUnit = fromUnit + unitSize / 2;
+            var former = new BandTask(fromUnit, middleUnit, unitCellSize, bandOperator);
+            var latter = new BandTask(middleUnit, toUnit, unitCellSize, bandOperator);
+            former.fork();
+            int latterResult = latter.compute();
+            return former.join() + latterResult;
+        }
+    }
+
+    /**
+     * 更新対象のセルとその近傍の集計結果を updateCell に渡すクラスです。
+     *
+     * <p>
+     * 軽量なセルと集計結果は走査の間で使い回すため、セルごとのインスタンス生成は発生しません。
+     * 遷移表をもつ場合は、updateCell を呼び出さずに遷移表を引いて次状態を書き込みます。
+     * </p>
+     *
+     * @author Juno NISHIZAKI
+     *
+     */
+    private class CellUpdater {
+
+        /**
+         * 更新直前の世代の内部表現です。
+         */
+        private final byte[] sourceStates;
+
+        /**
+         * 次の世代の内部表現の書き込み先です。
+         */
+        private final byte[] targetStates;
+
+        /**
+         * 次の世代の内部表現に書き込む、更新対象のセルです。
+         */
+        private final StateCell selfCell;
+
+        /**
+         * 更新直前の世代の内部表現を読み取る、近傍のセルのリストです。
+         */
+        private final List<StateCell> neiborCellList;
+
+        /**
+         * updateCell に渡すための、近傍の集計結果です。
+         */
+        private final NeiborhoodSummary<L> neiborhood;
+
+        /**
+         * 指定された内部表現を読み書きするインスタンスを構築します。
+         *
+         * @param sourceStates 更新直前の世代の内部表現
+         * @param targetStates 次の世代の内部表現の書き込み先
+         */
+        private CellUpdater(byte[] sourceStates, byte[] targetStates) {
+            this.sourceStates = sourceStates;
+            this.targetStates = targetStates;
+            selfCell = new StateCell(targetStates, false);
+            neiborCellList = new ArrayList<>(NEIBOR_SIZE);
+            for (int i = 0; i < NEIBOR_SIZE; i++) {
+                neiborCellList.add(new StateCell(sourceStates, false));
+            }
+            neiborhood = new NeiborhoodSummary<>(Collections.unmodifiableList(neiborCellList));
+        }
+
+        /**
+         * 指定されたセルを、サブクラス側で定めたルールに従って次状態に更新します。
+         *
+         * @param index 内部表現のインデックス
+         */
+        private void updateCellAt(int index) {
+            // 遷移表をもつ場合は、近傍の状態コードの重みを足し合わせて遷移表を引く
+            if (transitionTable != null) {
+                var weights = transitionTable.weights;
+                int neiborKey = 0;
+                for (int i = 0; i < NEIBOR_SIZE; i++) {
+                    neiborKey += weights[sourceStates[index + neiborOffsets[i]]];
+                }
+                targetStates[index] = (byte) transitionTable.getNextStateCode(sourceStates[index], neiborKey);
+                return;
+            }
+
+            // 更新対象のセルを走査して、更新直前の世代から近傍を取得して集計する
+            // （互換用のリストの近傍のセルも、位置を差し替えるだけなので合わせておく）
+            selfCell.bind(index);
+            for (int i = 0; i < NEIBOR_SIZE; i++) {
+                neiborCellList.get(i).bind(index + neiborOffsets[i]);
+            }
+            neiborhood.summarize(sourceStates, index, neiborOffsets);
+
+            // 更新対象のセルとその近傍の集計結果を元に、
+            // サブクラス側で定めたルールに従ってセルを次状態に更新する
+            updateCell(selfCell, neiborhood);
+        }
+    }
+
+    /**
+     * 内部表現の状態コードを直接読み書きする軽量なセルです。
+     *
+     * <p>
+     * 読み書きする位置は後から差し替えられるため、走査の間で 1 つのインスタンスを使い回すことができます。
+     * 生命体を取得するたびに状態コードから変換するため、取得した生命体の内部状態を変更しても
+     * セルには反映されません。変更を反映するには改めて生命体を配置する必要があります。
+     * </p>
+     *
+     * @author Juno NISHIZAKI
+     *
+     */
+    private class StateCell implements ICell<L> {
+
+        /**
+         * 読み書きする内部表現です。
+         */
+        private final byte[] source;
+
+        /**
+         * 読み書きする位置のインデックスです。
+         */
+        private int index;
+
+        /**
+         * 世代の更新以外で二次元平面を編集するためのセルかを表すフラグです。
+         */
+        private final boolean isEditing;
+
+        /**
+         * 指定された内部表現を読み書きするセルを構築します。
+         *
+         * @param source 読み書きする内部表現
+         * @param isEditing 世代の更新以外で二次元平面を編集するためのセルの場合 true
+         */
+        private StateCell(byte[] source, boolean isEditing) {
+            this.source = source;
+            this.isEditing = isEditing;
+        }
+
+        /**
+         * 読み書きする位置を差し替えます。
+         *
+         * @param index 内部表現のインデックス
+         */
+        private void bind(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public boolean hasLife() {
+            return source[index] != EMPTY_STATE_CODE;
+        }
+
+        @Override
+        public L getLife() throws IllegalStateException {
+            if (!hasLife()) {
+                throw new IllegalStateException();
+            }
+            return toLife(source[index]);
+        }
+
+        @Override
+        public void putLife(L life) throws IllegalArgumentException {
+            if (life == null) {
+                throw new IllegalArgumentException();
+            }
+            source[index] = (byte) toStateCode(life);
+            onEdited();
+        }
+
+        @Override
+        public void removeLife() {
+            source[index] = EMPTY_STATE_CODE;
+            onEdited();
+        }
+
+        /**
+         * 編集するためのセルの場合、近傍の生命体の数やハッシュなどを次に使用するときに求め直すようにします。
+         */
+        private void onEdited() {
+            if (isEditing) {
+                isChangeTrackingValid = false;
+                isZobristHashValid = false;
+            }
+        }
+
+        /**
+         * セルをコピーします。
+         * コピーしたセルは内部表現から切り離された通常のセルになります。
+         */
+        @Override
+        public ICell<L> copyCell() {
+            // コピー方法はセルごとではなく、二次元平面ごとに 1 度だけ決める
+            if (lifeCopier == null) {
+                lifeCopier = createLifeCopier();
+            }
+            var cell = new Cell<L>(lifeCopier);
+            if (hasLife()) {
+                cell.putLife(lifeCopier.copyLife(getLife()));
+            }
+            return cell;
+        }
+
+        @Override
+        public String toString() {
+            if (!hasLife()) {
+                return ".";
+            } else {
+                return getLife().toString();
+            }
+        }
+    }
 }
@@ -1,7 +1,5 @@
 package com.hs2n.exercise.lifegame.model.core;
 
-import java.lang.reflect.InvocationTargetException;
-
 /**
  * ライフゲームの二次元平面のセルを表すクラスです。
  *
@@ -16,19 +14,36 @@ public class Cell<L> implements ICell<L> {
      */
     private L life;
 
+    /**
+     * セルをコピーする際の、生命体のコピー方法です。
+     */
+    private final LifeCopier<L> lifeCopier;
+
     /**
      * 生命体が配置されていない新規セルを構築します。
+     * セルをコピーする際は、生命体の参照をそのままコピーします。
      */
     public Cell() {
-        this(null);
+        this(LifeCopier.identity());
+    }
+
+    /**
+     * 指定されたコピー方法で生命体をコピーする、生命体が配置されていない新規セルを構築します。
+     *
+     * @param lifeCopier 生命体のコピー方法
+     */
+    public Cell(LifeCopier<L> lifeCopier) {
+        this(lifeCopier, null);
     }
 
     /**
      * 指定された生命体を配置した新規セルを構築します。
      *
+     * @param lifeCopier 生命体のコピー方法
      * @param life 生命体
      */
-    private Cell(L life) {
+    private Cell(LifeCopier<L> lifeCopier, L life) {
+        this.lifeCopier = lifeCopier;
         this.life = life;
     }
 
@@ -72,49 +87,11 @@ public class Cell<L> implements ICell<L> {
 
     /**
      * セルをコピーします。
-     * 配置されている生命体の型が Clonable インターフェースを実装している場合は、
-     * clone メソッドを呼び出してコピーします。
+     * 配置されている生命体は、セルの構築時に指定されたコピー方法でコピーします。
      */
     @Override
-    public ICell<L> copyCell() throws UnsupportedOperationException {
-        return new Cell<>(cloneIfImpremented(life));
-    }
-
-    /**
-     * 配置されている生命体の型が Clonable インターフェースを実装している場合は、
-     * clone メソッドを呼び出してコピーします。
-     * それ以外の場合は、指定された値をそのまま返します。
-     *
-     * @param <L> 生命体の型
-     * @param sourceLife コピー元の生命体
-     * @return コピーした生命体
-     */
-    private static <L> L cloneIfImpremented(L sourceLife) {
-        // Clonable インターフェースを実装していない場合。指定された値をそのまま返す
-        // （null の場合も含む）
-        if (!(sourceLife instanceof Cloneable)) {
-            return sourceLife;
-        }
-
-        try {
-            // clone メソッドを呼び出す
-            // public でオーバーライドした clone メソッドを
-            // 適切に呼び出す方法が思いつかなかったので、
-            // リフレクション API を使って、元々 Object クラスで定義されている
-            // clone メソッドの公開性を無理やり書き換えて呼び出すようにしている
-            // このブロックまで到達した場合、Clonable インターフェースが
-            // 実装済みであることは明らかなので、素直に sourceLife.clone() と
-            // 呼び出せてもいい気がするのだが…
-            var cloneMethod = sourceLife.getClass().getDeclaredMethod("clone");
-            cloneMethod.setAccessible(true);
-            @SuppressWarnings("unchecked")
-            L cloneLife = (L) cloneMethod.invoke(sourceLife);
-            return cloneLife;
-        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
-            // 例外が発生した場合は、非検査例外でラップして再スローする
-            // （本来は発生しえないはずだが、保証しきれないので苦し紛れの対処）
-            throw new UnsupportedOperationException(e);
-        }
+    public ICell<L> copyCell() {
+        return new Cell<>(lifeCopier, (life != null) ? lifeCopier.copyLife(life) : null);
     }
 
     /**
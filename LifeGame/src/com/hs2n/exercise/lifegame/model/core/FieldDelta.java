@@ -0,0 +1,149 @@
+package com.hs2n.exercise.lifegame.model.core;
+
+import java.util.Arrays;
+
+/**
+ * ある世代の二次元平面から別の世代の二次元平面への差分を表すクラスです。
+ *
+ * <p>
+ * 状態が変化したセルだけを、セルの位置を表すキーと変化後の状態コードの組として保持します。
+ * キーの意味は差分を作成した二次元平面の実装が定めます。（内部表現のインデックスや、行と列を詰めた値など）
+ * そのため、保持する量は二次元平面の大きさではなく、状態が変化したセルの数に比例します。
+ * </p>
+ *
+ * <p>
+ * インスタンスは不変です。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ */
+public final class FieldDelta {
+
+    /**
+     * 状態が変化したセルの位置を表すキーです。
+     */
+    private final long[] keys;
+
+    /**
+     * 状態が変化したセルの、変化後の状態コードです。
+     */
+    private final byte[] stateCodes;
+
+    /**
+     * 指定されたキーと状態コードの組をもつ差分を構築します。
+     *
+     * @param keys キー
+     * @param stateCodes 変化後の状態コード
+     */
+    private FieldDelta(long[] keys, byte[] stateCodes) {
+        this.keys = keys;
+        this.stateCodes = stateCodes;
+    }
+
+    /**
+     * 状態が変化したセルの数を取得します。
+     *
+     * @return 状態が変化したセルの数
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * 指定された番目の、状態が変化したセルの位置を表すキーを取得します。
+     *
+     * @param i 0 から size() - 1 までの番号
+     * @return キー
+     */
+    public long getKey(int i) {
+        return keys[i];
+    }
+
+    /**
+     * 指定された番目の、状態が変化したセルの変化後の状態コードを取得します。
+     *
+     * @param i 0 から size() - 1 までの番号
+     * @return 変化後の状態コード（生命体が存在しない場合は 0）
+     */
+    public int getStateCode(int i) {
+        return stateCodes[i];
+    }
+
+    /**
+     * 差分を組み立てるクラスです。
+     *
+     * @author Juno NISHIZAKI
+     *
+     */
+    public static final class Builder {
+
+        /**
+         * 初期容量です。
+         */
+        private static final int INITIAL_CAPACITY = 16;
+
+        /**
+         * 追加されたキーです。
+         */
+        private long[] keys;
+
+        /**
+         * 追加された状態コードです。
+         */
+        private byte[] stateCodes;
+
+        /**
+         * 追加された組の数です。
+         */
+        private int size;
+
+        /**
+         * 既定の初期容量で、空の差分を組み立てるインスタンスを構築します。
+         */
+        public Builder() {
+            this(INITIAL_CAPACITY);
+        }
+
+        /**
+         * 指定された数の組を拡張せずに追加できる、空の差分を組み立てるインスタンスを構築します。
+         *
+         * @param expectedSize 想定する組の数
+         */
+        public Builder(int expectedSize) {
+            keys = new long[Math.max(expectedSize, 1)];
+            stateCodes = new byte[Math.max(expectedSize, 1)];
+        }
+
+        /**
+         * 状態が変化したセルを追加します。
+         *
+         * @param key セルの位置を表すキー
+         * @param stateCode 変化後の状態コード
+         * @return このインスタンス
+         */
+        public Builder add(long key, int stateCode) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                stateCodes = Arrays.copyOf(stateCodes, size * 2);
+            }
+            keys[size] = key;
+            stateCodes[size] = (byte) stateCode;
+            size++;
+            return this;
+        }
+
+        /**
+         * 追加された組から差分を作成します。
+         * 配列は要素数ちょうどに切り詰めます。（ちょうどの場合は複製しません）
+         *
+         * @return 差分
+         */
+        public FieldDelta build() {
+            if (size == keys.length) {
+                return new FieldDelta(keys, stateCodes);
+            }
+            return new FieldDelta(Arrays.copyOf(keys, size), Arrays.copyOf(stateCodes, size));
+        }
+    }
+}
@@ -5,9 +5,9 @@ package com.hs2n.exercise.lifegame.model.core;
  *
  * <p>
  * セルに配置する生命体には任意の型が指定できます。
- * ただし、配置する生命体のクラスが Immutable ではない
- * （インスタンスの生成後に内部状態が変わる可能性がある）場合は、
- * clone メソッドをオーバーライドして深いコピーを実装する必要があります。
+ * 生命体のクラスは Immutable にして、セルのコピー時には参照をそのままコピーすることを想定しています。
+ * Immutable ではない（インスタンスの生成後に内部状態が変わる可能性がある）場合は、
+ * 深いコピーを行う {@link LifeCopier} を二次元平面ごとに用意する必要があります。
  * </p>
  *
  * @author Juno NISHIZAKI
@@ -48,11 +48,9 @@ public interface ICell<L> {
 
     /**
      * セルをコピーします。
-     * 配置されている生命体の型が Clonable インターフェースを実装している場合は、
-     * clone メソッドを呼び出してコピーします。
+     * 配置されている生命体は、{@link LifeCopier} で定めたコピー方法でコピーします。
      *
      * @return コピーしたセル
-     * @throws UnsupportedOperationException clone メソッドの呼び出しに失敗した場合
      */
-    ICell<L> copyCell() throws UnsupportedOperationException;
+    ICell<L> copyCell();
 }
@@ -0,0 +1,43 @@
+package com.hs2n.exercise.lifegame.model.core;
+
+import java.util.List;
+
+/**
+ * 世代間の差分を作成したり、差分を適用したりできる二次元平面を表すインターフェースです。
+ *
+ * <p>
+ * 世代の履歴を、一定の間隔で保持する完全な二次元平面（キーフレーム）と、
+ * その間の世代の差分だけで保持するために使用します。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ * @param <L> 生命体の型
+ */
+public interface IDeltaEncodableField<L> extends ILifeGameField<L> {
+
+    /**
+     * この二次元平面から、指定された二次元平面への差分を作成します。
+     *
+     * @param target 差分の行き先の二次元平面
+     * @return 差分。行き先が同じ種類、同じ大きさ、同じ有効セルの二次元平面でない場合は null
+     */
+    FieldDelta diff(ILifeGameField<L> target);
+
+    /**
+     * この二次元平面に、指定された差分を順に適用した二次元平面を作成します。
+     * この二次元平面自体は変更しません。
+     *
+     * @param deltas この二次元平面から作成した差分と、それに続く差分
+     * @return 差分を適用した二次元平面
+     */
+    ILifeGameField<L> patch(List<FieldDelta> deltas);
+
+    /**
+     * この二次元平面が保持しているおおよそのバイト数を見積もります。
+     * 履歴のメモリの上限の判定に使用するため、厳密である必要はありません。
+     *
+     * @return おおよそのバイト数
+     */
+    long estimateSize();
+}
@@ -0,0 +1,140 @@
+package com.hs2n.exercise.lifegame.model.core;
+
+import java.util.Random;
+
+/**
+ * ライフゲームのモデルが最新の状態として扱う、編集可能な二次元平面を表すインターフェースです。
+ *
+ * <p>
+ * 行サイズと列サイズは、モデルやビューが扱う範囲を表します。
+ * 有限の二次元平面では平面全体の大きさに、無限の二次元平面では表示範囲（ビューポート）の大きさになります。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ * @param <L> 生命体の型
+ */
+public interface IEditableLifeGameField<L> extends ILifeGameField<L> {
+
+    /**
+     * セルの集合を初期化します。
+     */
+    void initializeCells();
+
+    /**
+     * 二次元平面の各セルに対してランダムで生命体を生成します。
+     *
+     * @param birthRate 生命体の発生率
+     * @param random 乱数オブジェクト
+     */
+    void generateLife(double birthRate, Random random);
+
+    /**
+     * 行サイズを取得します。
+     *
+     * @return 行サイズ
+     */
+    int getRowSize();
+
+    /**
+     * 列サイズを取得します。
+     *
+     * @return 列サイズ
+     */
+    int getColumnSize();
+
+    /**
+     * 指定された位置を無効セルにします。
+     *
+     * @param position 位置
+     */
+    void disableCellAt(Position position);
+
+    /**
+     * 指定された位置を有効セルにします。
+     *
+     * @param position 位置
+     */
+    void enableCellAt(Position position);
+
+    /**
+     * 指定された位置に対応するセルが有効かどうかを判定します。
+     *
+     * @param position 位置
+     * @return 有効セルの場合 true、無効セルの場合 false
+     */
+    boolean isEnableCellAt(Position position);
+
+    /**
+     * 指定された行と列のインデックスに対応するセルが有効かどうかを判定します。
+     *
+     * <p>
+     * 既定の実装では、位置を生成して {@link #isEnableCellAt(Position)} に委譲します。
+     * </p>
+     *
+     * @param rowIndex 行インデックス
+     * @param columnIndex 列インデックス
+     * @return 有効セルの場合 true、無効セルの場合 false
+     */
+    default boolean isEnableCellAt(int rowIndex, int columnIndex) {
+        return isEnableCellAt(new Position(rowIndex, columnIndex));
+    }
+
+    /**
+     * 指定されたセルの状態をローテーションで変更します。
+     *
+     * @param cell 対象のセル
+     */
+    void rotateCellState(ICell<L> cell);
+
+    /**
+     * 二次元平面の世代を 1 つ進めます。
+     * {@link #update()} と異なり、更新直前の世代の二次元平面は作成しません。
+     */
+    void step();
+
+    /**
+     * 現在の状態を複製した二次元平面を返します。
+     * 返した二次元平面は、以降の世代の更新や編集の影響を受けません。
+     *
+     * @return 現在の状態を複製した二次元平面
+     */
+    ILifeGameField<L> snapshot();
+
+    /**
+     * 二次元平面の世代を更新して、更新直前の世代の二次元平面を返します。
+     *
+     * <p>
+     * 既定の実装では、{@link #snapshot()} で複製してから {@link #step()} で進めます。
+     * </p>
+     */
+    @Override
+    default ILifeGameField<L> update() {
+        var previousLifeGameField = snapshot();
+        step();
+        return previousLifeGameField;
+    }
+
+    /**
+     * 二次元平面の世代を指定された世代数だけ進めます。
+     * {@link #update()} と同じく、進める直前の世代の二次元平面を返します。
+     *
+     * <p>
+     * 既定の実装では、進める直前の世代だけを複製して {@link #step()} を繰り返し呼び出します。
+     * 一気に進める手段をもつ実装では、オーバーライドして高速化できます。
+     * </p>
+     *
+     * @param generations 進める世代数
+     * @return 進める直前の世代の二次元平面
+     */
+    default ILifeGameField<L> advance(long generations) {
+        if (generations <= 0) {
+            throw new IllegalArgumentException();
+        }
+        var previousLifeGameField = snapshot();
+        for (long i = 0; i < generations; i++) {
+            step();
+        }
+        return previousLifeGameField;
+    }
+}
@@ -4,5 +4,22 @@ public interface ILifeGameField<L> {
 
     ICell<L> getCellAt(Position position);
 
+    /**
+     * 指定された行と列のインデックスに対応するセルを取得します。
+     *
+     * <p>
+     * 既定の実装では、位置を生成して {@link #getCellAt(Position)} に委譲します。
+     * 位置を生成せずにセルを取得できる実装では、オーバーライドします。
+     * 実装によっては、返すセルを使い回します（同じスレッドで次に呼び出すまで有効です）。
+     * </p>
+     *
+     * @param rowIndex 行インデックス
+     * @param columnIndex 列インデックス
+     * @return セル
+     */
+    default ICell<L> getCellAt(int rowIndex, int columnIndex) {
+        return getCellAt(new Position(rowIndex, columnIndex));
+    }
+
     ILifeGameField<L> update();
 }
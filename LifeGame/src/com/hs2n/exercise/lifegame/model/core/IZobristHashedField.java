@@ -0,0 +1,35 @@
+package com.hs2n.exercise.lifegame.model.core;
+
+/**
+ * 現在の状態の Zobrist ハッシュを取得できる二次元平面を表すインターフェースです。
+ *
+ * <p>
+ * Zobrist ハッシュは、生命体が存在するセルごとに、位置と状態コードから決まる 64 ビットの値（{@link ZobristKeys}）を
+ * 排他的論理和で足し合わせた値です。
+ * セルの状態が変化したときは、変化前と変化後の値を排他的論理和で足すだけで更新できるため、
+ * 世代の更新では誕生や消滅したセルの分だけを増分で反映します。
+ * </p>
+ *
+ * <p>
+ * 同じ状態の二次元平面は同じハッシュになるため、過去の世代の繰り返し（周期）を検出するために使用します。
+ * ただし、異なる状態が同じハッシュになる可能性もわずかにあるため、一致した場合は状態そのものを比較して確かめます。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ * @param <L> 生命体の型
+ */
+public interface IZobristHashedField<L> extends ILifeGameField<L> {
+
+    /**
+     * 現在の状態の Zobrist ハッシュを取得します。
+     *
+     * <p>
+     * 初めて取得するときや、編集した直後はすべてのセルから求め直します。
+     * 以降の世代の更新では、状態が変化したセルの分だけを増分で更新します。
+     * </p>
+     *
+     * @return Zobrist ハッシュ
+     */
+    long getZobristHash();
+}
@@ -0,0 +1,170 @@
+package com.hs2n.exercise.lifegame.model.core;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * 内部表現の 8 セル分の状態コードを 1 つの long にまとめて、行の区間ごとに次状態を求める更新処理です。
+ *
+ * <p>
+ * 状態コードの配列を long の配列として見なす VarHandle で、連続する 8 セルを 1 回で読み書きします。
+ * long の各バイトを 1 セルに対応するレーンとして扱い、桁あふれがレーンをまたがないように
+ * 足し算と論理演算だけで近傍の生命体の数を求めて、ルールを 8 セル分まとめて適用します。
+ * （レジスタ内の SIMD）
+ * </p>
+ *
+ * <p>
+ * 近傍の 8 方向は、内部表現の番兵のおかげで常に配列の範囲内から読み出せます。
+ * 行の末尾で 8 セルに満たない部分は、呼び出し側で 1 セルずつ更新します。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ */
+public final class LaneKernel {
+
+    /**
+     * 1 回で処理するセルの数（long 1 つあたりのレーン数）です。
+     */
+    public static final int LANE_SIZE = Long.BYTES;
+
+    /**
+     * 各レーンの最下位ビットだけを立てた値です。
+     * 0 または 1 のレーンに掛けると、各レーンに同じ値を並べられます。
+     */
+    public static final long LANE_ONES = 0x0101010101010101L;
+
+    /**
+     * 各レーンの最上位ビットを除いたビットを立てた値です。
+     */
+    private static final long LANE_LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+    /**
+     * 各レーンの最上位ビットだけを立てた値です。
+     */
+    private static final long LANE_HIGH_BITS = 0x8080808080808080L;
+
+    /**
+     * 状態コードの配列から、連続する 8 セル分を long として読み書きするための VarHandle です。
+     * レーンは互いに独立しているため、バイト順はプラットフォームに合わせます。
+     */
+    private static final VarHandle LANES = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    /**
+     * 自セルの状態コードと近傍の生命体の数から、8 セル分の次状態をまとめて求めるルールを表す関数型インターフェースです。
+     *
+     * @author Juno NISHIZAKI
+     *
+     */
+    @FunctionalInterface
+    public interface LaneRule {
+
+        /**
+         * 8 セル分の自セルの状態コードと近傍の生命体の数から、8 セル分の次状態の状態コードを求めます。
+         *
+         * <p>
+         * 引数と戻り値は、いずれも各バイトが 1 セルに対応する値です。
+         * 近傍の生命体の数の各レーンは 0 から 8 までの値になります。
+         * </p>
+         *
+         * @param selfLanes 自セルの状態コードを並べた値
+         * @param neiborCountLanes 近傍の生命体の数を並べた値
+         * @return 次状態の状態コードを並べた値
+         */
+        long getNextLanes(long selfLanes, long neiborCountLanes);
+    }
+
+    /**
+     * インスタンス化を禁止します。
+     */
+    private LaneKernel() {
+    }
+
+    /**
+     * 各レーンについて、生命体が存在する場合は 1、存在しない場合は 0 とした値を求めます。
+     *
+     * @param stateLanes 状態コード（0 から 127 まで）を並べた値
+     * @return 生命体の有無を並べた値
+     */
+    public static long toLifeLanes(long stateLanes) {
+        // 0 以外の値に 0x7F を足すと最上位ビットが立つ（127 以下なのでレーンをまたいで桁あふれしない）
+        return ((stateLanes + LANE_LOW_BITS) & LANE_HIGH_BITS) >>> 7;
+    }
+
+    /**
+     * 各レーンについて、指定された値と等しい場合は 1、等しくない場合は 0 とした値を求めます。
+     *
+     * @param lanes 0 から 127 までの値を並べた値
+     * @param value 比較する値（0 から 127 まで）
+     * @return 比較結果を並べた値
+     */
+    public static long equalLanes(long lanes, int value) {
+        long differenceLanes = lanes ^ (value * LANE_ONES);
+        return toLifeLanes(differenceLanes) ^ LANE_ONES;
+    }
+
+    /**
+     * 各レーンについて、値が指定されたビットマスクに含まれる場合は 1、含まれない場合は 0 とした値を求めます。
+     *
+     * @param lanes 0 から 30 までの値を並べた値
+     * @param valueMask 値 n を n ビット目に対応させたビットマスク
+     * @return 判定結果を並べた値
+     */
+    public static long matchLanes(long lanes, int valueMask) {
+        long matchedLanes = 0L;
+        for (int restMask = valueMask; restMask != 0; restMask &= restMask - 1) {
+            matchedLanes |= equalLanes(lanes, Integer.numberOfTrailingZeros(restMask));
+        }
+        return matchedLanes;
+    }
+
+    /**
+     * 有効セルを表すマスクを、レーンごとの論理演算で使える形に変換します。
+     *
+     * @param enables 有効セルを表すマスク
+     * @return 有効セルは全ビットを立て、無効セルは 0 とした配列
+     */
+    static byte[] toEnableLanes(boolean[] enables) {
+        var enableLanes = new byte[enables.length];
+        for (int index = 0; index < enables.length; index++) {
+            enableLanes[index] = (byte) (enables[index] ? -1 : 0);
+        }
+        return enableLanes;
+    }
+
+    /**
+     * 指定された行の区間のうち、8 セル単位で処理できる部分の次状態を求めます。
+     *
+     * <p>
+     * 無効セルの状態コードは更新直前の世代のまま書き込みます。
+     * </p>
+     *
+     * @param sourceStates 更新直前の世代の内部表現
+     * @param targetStates 次の世代の内部表現の書き込み先
+     * @param enableLanes 有効セルを表すマスクを {@link #toEnableLanes(boolean[])} で変換した配列
+     * @param neiborOffsets 近傍のインデックスの差分
+     * @param rule ルール
+     * @param fromIndex 区間の開始のインデックス
+     * @param length 区間のセル数
+     * @return 処理したセルの数（8 の倍数）
+     */
+    static int updateRow(byte[] sourceStates, byte[] targetStates, byte[] enableLanes, int[] neiborOffsets,
+        LaneRule rule, int fromIndex, int length) {
+        int processedLength = length - length % LANE_SIZE;
+        for (int index = fromIndex; index < fromIndex + processedLength; index += LANE_SIZE) {
+            // 近傍の 8 方向の生命体の有無を足し合わせる（各レーンは最大 8 なので桁あふれしない）
+            long neiborCountLanes = 0L;
+            for (int neiborOffset : neiborOffsets) {
+                neiborCountLanes += toLifeLanes((long) LANES.get(sourceStates, index + neiborOffset));
+            }
+
+            // ルールを適用して、無効セルのレーンは更新直前の世代の値に戻す
+            long selfLanes = (long) LANES.get(sourceStates, index);
+            long enableMask = (long) LANES.get(enableLanes, index);
+            long nextLanes = rule.getNextLanes(selfLanes, neiborCountLanes);
+            LANES.set(targetStates, index, (nextLanes & enableMask) | (selfLanes & ~enableMask));
+        }
+        return processedLength;
+    }
+}
@@ -0,0 +1,36 @@
+package com.hs2n.exercise.lifegame.model.core;
+
+/**
+ * セルをコピーする際の、生命体のコピー方法を表す関数型インターフェースです。
+ *
+ * <p>
+ * 生命体が不変であれば、参照をそのままコピーする {@link #identity()} で十分です。
+ * インスタンスの生成後に内部状態が変わる生命体を扱う場合だけ、深いコピーを行う実装を用意します。
+ * コピー方法はセルごとではなく、二次元平面ごとに 1 度だけ決めます。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ * @param <L> 生命体の型
+ */
+@FunctionalInterface
+public interface LifeCopier<L> {
+
+    /**
+     * 生命体をコピーします。
+     *
+     * @param life コピー元の生命体（null ではない）
+     * @return コピーした生命体
+     */
+    L copyLife(L life);
+
+    /**
+     * 参照をそのままコピーする（生命体を共有する）コピー方法を取得します。
+     *
+     * @param <L> 生命体の型
+     * @return 参照をそのままコピーするコピー方法
+     */
+    static <L> LifeCopier<L> identity() {
+        return life -> life;
+    }
+}
@@ -0,0 +1,64 @@
+package com.hs2n.exercise.lifegame.model.core;
+
+import java.util.List;
+
+/**
+ * 近傍のセルのリストを受け取る updateCell でルールを記述するための、互換用の抽象クラスです。
+ *
+ * <p>
+ * 近傍の集計結果を受け取る updateCell から、近傍のセルのリストを受け取る updateCell に委譲します。
+ * 近傍のセルを 1 つずつ参照するため低速です。
+ * 新しくルールを記述する場合は、{@link AbstractLifeGameField} を直接継承して、
+ * 近傍の集計結果を受け取る updateCell を実装することを推奨します。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ * @param <L> 生命体の型
+ */
+public abstract class ListBasedLifeGameField<L> extends AbstractLifeGameField<L> {
+
+    /**
+     * 指定されたパラメータでライフゲーム二次元平面を構築します。
+     *
+     * <p>
+     * このコンストラクタはインスタンスの複製用で、本クラスまたはサブクラスでのみ使用します。
+     * 指定された有効セルのマスクは複製元と共有します。
+     * </p>
+     *
+     * @param rowSize 行サイズ
+     * @param columnSize 列サイズ
+     * @param states セルの集合を表す内部表現
+     * @param enables 有効セルを表すマスク
+     */
+    protected ListBasedLifeGameField(int rowSize, int columnSize, byte[] states, boolean[] enables) {
+        super(rowSize, columnSize, states, enables);
+    }
+
+    /**
+     * 指定されたパラメータでライフゲーム二次元平面を構築します。
+     *
+     * @param rowSize 行サイズ
+     * @param columnSize 列サイズ
+     */
+    public ListBasedLifeGameField(int rowSize, int columnSize) {
+        super(rowSize, columnSize);
+    }
+
+    /**
+     * 近傍の集計結果から近傍のセルのリストを取り出して、{@link #updateCell(ICell, List)} に委譲します。
+     */
+    @Override
+    protected final void updateCell(ICell<L> selfCell, NeiborhoodSummary<L> neiborhood) {
+        updateCell(selfCell, neiborhood.getNeiborCells());
+    }
+
+    /**
+     * 指定されたセルと近傍の状態を元に、定めたルールに従ってセルを次状態に更新します。
+     * ルールはサブクラス側で自由に定めてよいです。
+     *
+     * @param selfCell 更新対象のセル
+     * @param neiborCells 更新対象のセルの近傍
+     */
+    protected abstract void updateCell(ICell<L> selfCell, List<ICell<L>> neiborCells);
+}
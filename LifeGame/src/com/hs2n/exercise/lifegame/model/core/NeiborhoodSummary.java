@@ -0,0 +1,110 @@
+package com.hs2n.exercise.lifegame.model.core;
+
+import java.util.List;
+
+/**
+ * 更新対象のセルの近傍の状態を、生命体の数として集計したものです。
+ *
+ * <p>
+ * 近傍に存在する生命体の数と、状態コードごとの数を保持します。
+ * インスタンスは世代の更新の間で使い回して、セルごとに集計し直すため、
+ * 集計のたびにインスタンスや配列を生成することはありません。
+ * そのため、ルールの呼び出しの外で参照を保持してはいけません。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ * @param <L> 生命体の型
+ */
+public final class NeiborhoodSummary<L> {
+
+    /**
+     * 状態コードの種類数です。（0 から 127 まで）
+     */
+    private static final int STATE_CODE_SIZE = Byte.MAX_VALUE + 1;
+
+    /**
+     * 状態コードごとの、近傍に存在する数です。
+     */
+    private final int[] stateCounts = new int[STATE_CODE_SIZE];
+
+    /**
+     * 直前に集計した近傍の状態コードです。次の集計の前に、数えた分だけを 0 に戻すために使います。
+     */
+    private final byte[] neiborStateCodes;
+
+    /**
+     * 近傍に存在する生命体の数です。
+     */
+    private int lifeCount;
+
+    /**
+     * 近傍のセルのリストです。
+     */
+    private final List<ICell<L>> neiborCells;
+
+    /**
+     * 指定された近傍のセルのリストと対応する集計結果を構築します。
+     *
+     * @param neiborCells 近傍のセルのリスト（集計する近傍と同じ位置に読み書きの位置を合わせておくこと）
+     */
+    NeiborhoodSummary(List<ICell<L>> neiborCells) {
+        this.neiborCells = neiborCells;
+        this.neiborStateCodes = new byte[neiborCells.size()];
+    }
+
+    /**
+     * 内部表現の指定されたインデックスの近傍を集計し直します。
+     *
+     * @param states 内部表現
+     * @param index 更新対象のセルの内部表現のインデックス
+     * @param neiborOffsets 近傍のインデックスの差分
+     */
+    void summarize(byte[] states, int index, int[] neiborOffsets) {
+        // 直前に数えた状態コードの分だけ 0 に戻す（配列全体は消去しない）
+        for (byte stateCode : neiborStateCodes) {
+            stateCounts[stateCode] = 0;
+        }
+
+        // 近傍の状態コードを数える（状態コード 0 の数は生命体が存在しないセルの数になる）
+        for (int i = 0; i < neiborStateCodes.length; i++) {
+            byte stateCode = states[index + neiborOffsets[i]];
+            neiborStateCodes[i] = stateCode;
+            stateCounts[stateCode]++;
+        }
+        lifeCount = neiborStateCodes.length - stateCounts[AbstractLifeGameField.EMPTY_STATE_CODE];
+    }
+
+    /**
+     * 近傍に存在する生命体の数を取得します。
+     *
+     * @return 近傍に存在する生命体の数（0 から 8 まで）
+     */
+    public int getLifeCount() {
+        return lifeCount;
+    }
+
+    /**
+     * 指定された状態コードの生命体が、近傍に存在する数を取得します。
+     *
+     * @param stateCode 状態コード（1 から 127 まで）
+     * @return 近傍に存在する数
+     */
+    public int getCount(int stateCode) {
+        return stateCounts[stateCode];
+    }
+
+    /**
+     * 近傍のセルのリストを取得します。
+     *
+     * <p>
+     * 近傍のセルの生命体まで参照する必要があるルールのための、低速な互換用の手段です。
+     * 数を数えるだけであれば、{@link #getLifeCount()} や {@link #getCount(int)} を使用します。
+     * </p>
+     *
+     * @return 近傍のセルの変更不可能なリスト
+     */
+    public List<ICell<L>> getNeiborCells() {
+        return neiborCells;
+    }
+}
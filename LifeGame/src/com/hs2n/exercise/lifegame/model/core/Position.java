@@ -2,15 +2,26 @@ package com.hs2n.exercise.lifegame.model.core;
 
 import java.io.Serializable;
 import java.util.Comparator;
-import java.util.Objects;
 
+/**
+ * 二次元平面上のセルの位置を表すクラスです。
+ *
+ * <p>
+ * 外部に公開する API で位置を受け渡すために使用します。
+ * 世代の更新など内部の処理では、位置は行と列のインデックス、または内部表現のインデックスのまま扱い、
+ * このクラスのインスタンスは生成しません。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ */
 public final class Position implements Comparable<Position>, Serializable {
 
-    private static final Comparator<Position> COMPARATOR = Comparator.comparing(Position::getRow)
-        .thenComparing(Position::getColumn);
+    private static final Comparator<Position> COMPARATOR = Comparator.comparingInt(Position::getRow)
+        .thenComparingInt(Position::getColumn);
 
-    private int row;
-    private int column;
+    private final int row;
+    private final int column;
 
     public Position(int row, int colume) {
         this.row = row;
@@ -25,9 +36,13 @@ public final class Position implements Comparable<Position>, Serializable {
         return column;
     }
 
+    /**
+     * ハッシュコードを求めます。
+     * 行と列の値をボクシングせずに、Objects.hash と同じ値を求めます。
+     */
     @Override
     public int hashCode() {
-        return Objects.hash(row, column);
+        return 31 * (31 + row) + column;
     }
 
     @Override
@@ -0,0 +1,182 @@
+package com.hs2n.exercise.lifegame.model.core;
+
+import java.util.Arrays;
+
+/**
+ * 自セルの状態コードと、近傍に存在する生命体の種類ごとの数から、次状態の状態コードを引く遷移表です。
+ *
+ * <p>
+ * 近傍の種類ごとの数は、種類ごとに 9 進数の桁を割り当てた 1 つの整数（近傍キー）にまとめます。
+ * 近傍キーは、近傍の各セルの状態コードに対応する重みを足し合わせるだけで求められます。
+ * そのため、セルごとの次状態は重みの足し算と 1 回の配列の参照で求められます。
+ * </p>
+ *
+ * <p>
+ * 遷移表はルールから一度だけ作成します。作成後は変更できないため、複数のスレッドから参照できます。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ */
+public final class TransitionTable {
+
+    /**
+     * 生命体の種類をもたないこと（生命体が存在しないこと）を表す値です。
+     */
+    public static final int NO_SPECIES = -1;
+
+    /**
+     * 扱える生命体の種類の最大数です。
+     */
+    private static final int MAX_SPECIES_SIZE = 4;
+
+    /**
+     * 近傍の数です。種類ごとの数はそれぞれ 0 から 8 までになります。
+     */
+    private static final int NEIBOR_SIZE = 8;
+
+    /**
+     * 近傍キーで種類ごとの数を表す桁の基数です。
+     */
+    private static final int RADIX = NEIBOR_SIZE + 1;
+
+    /**
+     * 自セルと近傍の状態から、次状態の状態コードを求めるルールを表す関数型インターフェースです。
+     *
+     * @author Juno NISHIZAKI
+     *
+     */
+    @FunctionalInterface
+    public interface TransitionRule {
+
+        /**
+         * 自セルの状態コードと近傍の種類ごとの数から、次状態の状態コードを求めます。
+         *
+         * @param selfStateCode 自セルの状態コード
+         * @param neiborCounts 近傍に存在する生命体の種類ごとの数
+         * @return 次状態の状態コード
+         */
+        int getNextStateCode(int selfStateCode, int[] neiborCounts);
+    }
+
+    /**
+     * 状態コードごとの、近傍キーに足し合わせる重みです。
+     */
+    final int[] weights;
+
+    /**
+     * 近傍キーの種類数です。（9 の種類数乗）
+     */
+    final int keySize;
+
+    /**
+     * 次状態の状態コードです。自セルの状態コード * keySize + 近傍キーの位置に格納します。
+     */
+    final byte[] nextStateCodes;
+
+    /**
+     * 指定された重みと次状態の状態コードをもつ遷移表を構築します。
+     *
+     * @param weights 状態コードごとの重み
+     * @param keySize 近傍キーの種類数
+     * @param nextStateCodes 次状態の状態コード
+     */
+    private TransitionTable(int[] weights, int keySize, byte[] nextStateCodes) {
+        this.weights = weights;
+        this.keySize = keySize;
+        this.nextStateCodes = nextStateCodes;
+    }
+
+    /**
+     * 指定されたルールから遷移表を作成します。
+     *
+     * <p>
+     * 自セルのすべての状態コードと、合計が 8 以下になるすべての種類ごとの数の組み合わせについて
+     * ルールを評価して、結果を表に詰めます。
+     * </p>
+     *
+     * @param speciesOfStateCodes 状態コードごとの生命体の種類（0 から始まる値）。状態コード 0 は {@link #NO_SPECIES}
+     * @param rule ルール
+     * @return 遷移表
+     */
+    public static TransitionTable compile(int[] speciesOfStateCodes, TransitionRule rule) {
+        int stateCodeSize = speciesOfStateCodes.length;
+        if (stateCodeSize < 2 || speciesOfStateCodes[0] != NO_SPECIES) {
+            throw new IllegalArgumentException();
+        }
+        int speciesSize = Arrays.stream(speciesOfStateCodes).max().getAsInt() + 1;
+        if (speciesSize < 1 || speciesSize > MAX_SPECIES_SIZE) {
+            throw new IllegalArgumentException();
+        }
+
+        // 状態コードごとに、種類に対応する桁の重みを求める
+        var weights = new int[stateCodeSize];
+        for (int stateCode = 1; stateCode < stateCodeSize; stateCode++) {
+            int species = speciesOfStateCodes[stateCode];
+            if (species < 0) {
+                throw new IllegalArgumentException();
+            }
+            weights[stateCode] = pow(RADIX, species);
+        }
+
+        // すべての組み合わせについてルールを評価する
+        int keySize = pow(RADIX, speciesSize);
+        var nextStateCodes = new byte[stateCodeSize * keySize];
+        var neiborCounts = new int[speciesSize];
+        for (int key = 0; key < keySize; key++) {
+            // 近傍キーを種類ごとの数に分解する（合計が近傍の数を超える組み合わせは現れない）
+            int total = 0;
+            for (int species = 0, rest = key; species < speciesSize; species++, rest /= RADIX) {
+                neiborCounts[species] = rest % RADIX;
+                total += neiborCounts[species];
+            }
+            if (total > NEIBOR_SIZE) {
+                continue;
+            }
+            for (int stateCode = 0; stateCode < stateCodeSize; stateCode++) {
+                int nextStateCode = rule.getNextStateCode(stateCode, neiborCounts.clone());
+                if (nextStateCode < 0 || nextStateCode >= stateCodeSize) {
+                    throw new IllegalArgumentException();
+                }
+                nextStateCodes[stateCode * keySize + key] = (byte) nextStateCode;
+            }
+        }
+        return new TransitionTable(weights, keySize, nextStateCodes);
+    }
+
+    /**
+     * 整数のべき乗を求めます。
+     *
+     * @param base 底
+     * @param exponent 指数
+     * @return べき乗
+     */
+    private static int pow(int base, int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= base;
+        }
+        return result;
+    }
+
+    /**
+     * 指定された状態コードに対応する、近傍キーに足し合わせる重みを取得します。
+     *
+     * @param stateCode 状態コード
+     * @return 重み
+     */
+    public int getWeight(int stateCode) {
+        return weights[stateCode];
+    }
+
+    /**
+     * 自セルの状態コードと近傍キーから、次状態の状態コードを取得します。
+     *
+     * @param selfStateCode 自セルの状態コード
+     * @param neiborKey 近傍の状態コードの重みを足し合わせた近傍キー
+     * @return 次状態の状態コード
+     */
+    public int getNextStateCode(int selfStateCode, int neiborKey) {
+        return nextStateCodes[selfStateCode * keySize + neiborKey];
+    }
+}
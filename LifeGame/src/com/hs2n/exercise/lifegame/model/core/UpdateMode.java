@@ -0,0 +1,32 @@
+package com.hs2n.exercise.lifegame.model.core;
+
+/**
+ * 二次元平面の世代の更新方法を表す列挙型です。
+ *
+ * <p>
+ * いずれの更新方法でも、更新結果は同じになります。
+ * 二次元平面の状況に応じて、より速く更新できる方法を選択します。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ */
+public enum UpdateMode {
+
+    /**
+     * すべての有効セルを走査して更新します。
+     */
+    FULL_SCAN,
+
+    /**
+     * 前の世代で状態が変化したセルとその近傍だけを走査して更新します。
+     * 二次元平面の大部分が落ち着いている場合に高速です。
+     */
+    ACTIVE_SET,
+
+    /**
+     * 二次元平面をタイルに分割して、前の世代でタイル自体か隣接タイルの境界が変化したタイルだけを走査して更新します。
+     * 広い二次元平面の一部だけが活発に変化している場合に高速です。
+     */
+    TILED
+}
@@ -0,0 +1,62 @@
+package com.hs2n.exercise.lifegame.model.core;
+
+/**
+ * Zobrist ハッシュで、セルの位置と状態コードの組に割り当てる 64 ビットの値を求めるクラスです。
+ *
+ * <p>
+ * 本来の Zobrist ハッシュは、位置と状態コードの組ごとに乱数を並べた表を引きます。
+ * ここでは大きな二次元平面や果てのない二次元平面でも表を持たずに済むように、
+ * 位置と状態コードを SplitMix64 の混合関数に通して、乱数の代わりとなる値をその場で求めます。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ */
+public final class ZobristKeys {
+
+    /**
+     * 位置を混ぜ合わせる際の乗数（黄金比に基づく定数）です。
+     */
+    private static final long KEY_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    /**
+     * 状態コードを混ぜ合わせる際の乗数です。
+     */
+    private static final long STATE_MULTIPLIER = 0xC2B2AE3D27D4EB4FL;
+
+    /**
+     * インスタンス化を禁止します。
+     */
+    private ZobristKeys() {
+    }
+
+    /**
+     * 指定された位置と状態コードの組に割り当てる値を求めます。
+     * 生命体が存在しない状態（状態コード 0）には 0 を割り当てるため、ハッシュには影響しません。
+     *
+     * @param key セルの位置を表す値（内部表現のインデックスや、行と列を詰めた値）
+     * @param stateCode 状態コード
+     * @return 割り当てる値
+     */
+    public static long of(long key, int stateCode) {
+        if (stateCode == 0) {
+            return 0L;
+        }
+        long z = key * KEY_MULTIPLIER + stateCode * STATE_MULTIPLIER;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * 指定された位置のセルの状態が変化したときに、ハッシュに排他的論理和で足す値を求めます。
+     *
+     * @param key セルの位置を表す値
+     * @param stateCode 変化前の状態コード
+     * @param nextStateCode 変化後の状態コード
+     * @return ハッシュに足す値
+     */
+    public static long ofChange(long key, int stateCode, int nextStateCode) {
+        return of(key, stateCode) ^ of(key, nextStateCode);
+    }
+}
@@ -0,0 +1,180 @@
+package com.hs2n.exercise.lifegame.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * イベント通知オブジェクトがイベントハンドラーを呼び出すために使用する、共有の実行環境を表すクラスです。
+ *
+ * <p>
+ * 複数のイベント通知オブジェクトで 1 つの実行環境を共有するため、
+ * イベント通知オブジェクトやモデルを増やしても、イベント通知用のスレッドは増えません。
+ * 実行環境は次のいずれかから選べます。
+ * </p>
+ *
+ * <ul>
+ *   <li>{@link #sharedPool(int)}：デーモンスレッドで動作する、指定されたスレッド数のスレッドプール</li>
+ *   <li>{@link #of(ExecutorService)}：任意のスレッドプール（例えば、仮想スレッドをタスクごとに生成するもの）</li>
+ *   <li>{@link #synchronous()}：スレッドを使わずに、イベントを発生させたスレッドで直接呼び出すもの</li>
+ * </ul>
+ *
+ * <p>
+ * どの実行環境でも、1 つのイベント通知オブジェクトが通知するイベントの順序は保ちます。
+ * （イベント通知オブジェクトは、実行環境に渡す処理を常に 1 つだけにします）
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ */
+public final class EventDispatcher {
+
+    /**
+     * 既定の実行環境を操作するときの排他制御に使用します。
+     */
+    private static final Object LOCK_OBJ = new Object();
+
+    /**
+     * スレッドを使わずに、イベントを発生させたスレッドで直接呼び出す実行環境です。
+     */
+    private static final EventDispatcher SYNCHRONOUS = new EventDispatcher(null);
+
+    /**
+     * 既定の実行環境です。初めて取得したときに生成します。
+     */
+    private static EventDispatcher defaultDispatcher;
+
+    /**
+     * イベントハンドラーを呼び出すスレッドプールです。直接呼び出す場合は null です。
+     */
+    private final ExecutorService executorService;
+
+    /**
+     * 指定されたスレッドプールで実行環境を構築します。
+     *
+     * @param executorService スレッドプール。直接呼び出す場合は null
+     */
+    private EventDispatcher(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
+    /**
+     * デーモンスレッドで動作する、指定されたスレッド数のスレッドプールの実行環境を生成します。
+     *
+     * @param threadSize スレッド数（1 以上）
+     * @return 実行環境
+     */
+    public static EventDispatcher sharedPool(int threadSize) {
+        if (threadSize < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        // デーモンスレッドを扱うために独自の ThreadFactory を用意する
+        var threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = r -> {
+            var thread = new Thread(r, "lifegame-event-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new EventDispatcher(Executors.newFixedThreadPool(threadSize, threadFactory));
+    }
+
+    /**
+     * 指定されたスレッドプールの実行環境を生成します。
+     * 例えば Java 21 以降では、Executors.newVirtualThreadPerTaskExecutor() で生成したスレッドプールを指定すると、
+     * イベントの通知ごとに仮想スレッドを使用します。
+     *
+     * @param executorService スレッドプール
+     * @return 実行環境
+     */
+    public static EventDispatcher of(ExecutorService executorService) {
+        if (executorService == null) {
+            throw new IllegalArgumentException();
+        }
+        return new EventDispatcher(executorService);
+    }
+
+    /**
+     * スレッドを使わずに、イベントを発生させたスレッドで直接イベントハンドラーを呼び出す実行環境を取得します。
+     * イベントディスパッチスレッドへの委譲も行わないため、画面を持たない場合（テストやバッチ処理など）に使用します。
+     *
+     * @return 実行環境
+     */
+    public static EventDispatcher synchronous() {
+        return SYNCHRONOUS;
+    }
+
+    /**
+     * 既定の実行環境を取得します。
+     * 設定していない場合は、利用できるプロセッサ数のスレッドで動作するスレッドプールの実行環境を生成します。
+     *
+     * @return 既定の実行環境
+     */
+    public static EventDispatcher getDefault() {
+        synchronized (LOCK_OBJ) {
+            if (defaultDispatcher == null) {
+                defaultDispatcher = sharedPool(Runtime.getRuntime().availableProcessors());
+            }
+            return defaultDispatcher;
+        }
+    }
+
+    /**
+     * 既定の実行環境を設定します。
+     * 設定した後に構築したイベント通知オブジェクトから使用します。
+     *
+     * @param eventDispatcher 既定の実行環境
+     */
+    public static void setDefault(EventDispatcher eventDispatcher) {
+        if (eventDispatcher == null) {
+            throw new IllegalArgumentException();
+        }
+        synchronized (LOCK_OBJ) {
+            defaultDispatcher = eventDispatcher;
+        }
+    }
+
+    /**
+     * 実行環境を停止します。
+     * 停止した後に発生したイベントは通知しません。
+     * 直接呼び出す実行環境の場合は何もしません。
+     */
+    public void shutdown() {
+        if (executorService != null) {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * 実行環境を停止したかを判定します。
+     *
+     * @return 停止した場合 true
+     */
+    public boolean isShutdown() {
+        return executorService != null && executorService.isShutdown();
+    }
+
+    /**
+     * イベントを発生させたスレッドで直接呼び出すかを判定します。
+     *
+     * @return 直接呼び出す場合 true
+     */
+    boolean isSynchronous() {
+        return executorService == null;
+    }
+
+    /**
+     * 指定された処理を実行します。
+     *
+     * @param command 処理
+     * @throws java.util.concurrent.RejectedExecutionException 実行環境を停止した後の場合
+     */
+    void execute(Runnable command) {
+        if (executorService == null) {
+            command.run();
+        } else {
+            executorService.execute(command);
+        }
+    }
+}
@@ -1,10 +1,10 @@
 package com.hs2n.exercise.lifegame.util;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.BiConsumer;
 
 import javax.swing.SwingUtilities;
@@ -12,6 +12,18 @@ import javax.swing.SwingUtilities;
 /**
  * イベント通知を制御するクラスです。
  *
+ * <p>
+ * 発生したイベントは、通知待ちのキューに入れてから、共有の実行環境 {@link EventDispatcher}
+ * （またはイベントディスパッチスレッド）で 1 件ずつ順番に通知します。
+ * イベントはイベントハンドラーを呼び出すまで通知待ちとして扱うため、キューの長さが通知の遅れを表します。
+ * </p>
+ *
+ * <p>
+ * まとめて通知するモードでは、新しいイベントが発生すると、通知待ちのイベントを捨てて新しいイベントだけを残します。
+ * 最新の状態を描画し直すだけのイベントのように、途中のイベントを省いてもよい場合に使用します。
+ * キューの上限を設定した場合は、上限に達したときの扱いを {@link OverflowPolicy} で指定します。
+ * </p>
+ *
  * @author Juno NISHIZAKI
  *
  * @param <S> イベント通知元オブジェクトの型
@@ -20,19 +32,51 @@ import javax.swing.SwingUtilities;
 public class EventNotifier<S, P> {
 
     /**
-     * イベントハンドラーのリストを操作するときの排他制御に使用します。
+     * キューの上限を設けない場合の上限の値です。
+     */
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    /**
+     * 通知待ちのキューが上限に達したときの扱いを表す列挙型です。
+     *
+     * @author Juno NISHIZAKI
+     *
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * 最も古い通知待ちのイベントを捨てて、新しいイベントを追加します。
+         */
+        DROP_OLDEST,
+
+        /**
+         * 新しいイベントを捨てます。
+         */
+        DROP_NEWEST,
+
+        /**
+         * キューに空きができるまで、イベントを発生させたスレッドを待たせます。
+         * イベントを通知するスレッドから発生させた場合は、待たずに上限を超えて追加します。
+         */
+        BLOCK,
+    }
+
+    /**
+     * 通知待ちのキューを操作するときの排他制御に使用します。
+     * イベントハンドラーの呼び出しや、実行環境に処理を渡すときは保持しません。
      */
     private final Object lockObj = new Object();
 
     /**
-     * イベント通知時に使用するスレッドプールです。
+     * イベント通知時に使用する実行環境です。
      */
-    private ExecutorService eventDispatcher;
+    private final EventDispatcher eventDispatcher;
 
     /**
      * イベントハンドラーのリストです。
+     * 追加や削除のたびに複製するリストなので、通知中に排他制御をせずに走査できます。
      */
-    private List<BiConsumer<S, P>> eventHandlerList = new ArrayList<>();
+    private final List<BiConsumer<S, P>> eventHandlerList = new CopyOnWriteArrayList<>();
 
     /**
      * イベント通知元オブジェクトです。
@@ -44,81 +88,327 @@ public class EventNotifier<S, P> {
      */
     private boolean isDelegateEDT;
 
+    /**
+     * 通知待ちのイベントをまとめて、最新のイベントだけを通知するかを判定するフラグです。
+     */
+    private boolean isCoalescing;
+
+    /**
+     * 通知待ちのキューの上限です。
+     */
+    private int capacity;
+
+    /**
+     * 通知待ちのキューが上限に達したときの扱いです。
+     */
+    private OverflowPolicy overflowPolicy;
+
+    /**
+     * 通知待ちのイベントのキューです。
+     */
+    private final Deque<P> pendingEventQueue = new ArrayDeque<>();
+
+    /**
+     * 通知待ちのイベントを通知する処理を、実行環境に渡しているかを判定するフラグです。
+     * 通知の順序を保つために、渡す処理は常に 1 つだけにします。
+     */
+    private boolean isDraining;
+
+    /**
+     * イベントを通知しているスレッドです。通知していない場合は null です。
+     */
+    private Thread drainingThread;
+
+    /**
+     * キューの上限に達したために捨てたイベントの数です。
+     */
+    private long droppedEventCount;
+
+    /**
+     * 新しいイベントにまとめたために捨てたイベントの数です。
+     */
+    private long coalescedEventCount;
+
     /**
      * イベント通知オブジェクトを構築します。
+     * キューの上限を設けずに、発生したイベントをすべて通知します。
      *
      * @param sender イベント通知元オブジェクト
      * @param isDelegateEDT AWT/Swing のイベントディスパッチスレッドに処理を委譲するか
      */
     public EventNotifier(S sender, boolean isDelegateEDT) {
+        this(sender, isDelegateEDT, false, UNBOUNDED, OverflowPolicy.DROP_OLDEST);
+    }
+
+    /**
+     * 通知待ちのイベントの扱いを指定して、イベント通知オブジェクトを構築します。
+     *
+     * @param sender イベント通知元オブジェクト
+     * @param isDelegateEDT AWT/Swing のイベントディスパッチスレッドに処理を委譲するか
+     * @param isCoalescing 通知待ちのイベントをまとめて、最新のイベントだけを通知するか
+     * @param capacity 通知待ちのキューの上限（1 以上）。上限を設けない場合は {@link #UNBOUNDED}
+     * @param overflowPolicy 通知待ちのキューが上限に達したときの扱い
+     */
+    public EventNotifier(S sender, boolean isDelegateEDT, boolean isCoalescing, int capacity,
+        OverflowPolicy overflowPolicy) {
+        this(sender, isDelegateEDT, isCoalescing, capacity, overflowPolicy, EventDispatcher.getDefault());
+    }
+
+    /**
+     * 通知待ちのイベントの扱いと実行環境を指定して、イベント通知オブジェクトを構築します。
+     *
+     * @param sender イベント通知元オブジェクト
+     * @param isDelegateEDT AWT/Swing のイベントディスパッチスレッドに処理を委譲するか
+     * @param isCoalescing 通知待ちのイベントをまとめて、最新のイベントだけを通知するか
+     * @param capacity 通知待ちのキューの上限（1 以上）。上限を設けない場合は {@link #UNBOUNDED}
+     * @param overflowPolicy 通知待ちのキューが上限に達したときの扱い
+     * @param eventDispatcher イベント通知時に使用する実行環境
+     */
+    public EventNotifier(S sender, boolean isDelegateEDT, boolean isCoalescing, int capacity,
+        OverflowPolicy overflowPolicy, EventDispatcher eventDispatcher) {
+        if (capacity < 1 || overflowPolicy == null || eventDispatcher == null) {
+            throw new IllegalArgumentException();
+        }
         this.sender = sender;
         this.isDelegateEDT = isDelegateEDT;
+        this.isCoalescing = isCoalescing;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.eventDispatcher = eventDispatcher;
+    }
+
+    /**
+     * イベントハンドラーを追加します。
+     *
+     * @param eventHandler イベントハンドラー
+     */
+    public void addEventHandler(BiConsumer<S, P> eventHandler) {
+        eventHandlerList.add(eventHandler);
+    }
+
+    /**
+     * イベントハンドラーを削除します。
+     *
+     * @param eventHandler イベントハンドラー
+     */
+    public void removeEventHandler(BiConsumer<S, P> eventHandler) {
+        eventHandlerList.remove(eventHandler);
+    }
+
+    /**
+     * 保持しているイベントハンドラーにイベントを通知します。
+     *
+     * <p>
+     * イベントは通知待ちのキューに入れて、イベントハンドラーの呼び出しは待たずに戻ります。
+     * ただし、キューの上限に達したときの扱いが {@link OverflowPolicy#BLOCK} の場合は、キューに空きができるまで待ちます。
+     * その場合、イベントハンドラーが必要とするロックを保持したまま呼び出さないでください。
+     * </p>
+     *
+     * @param eventParams イベント通知先に渡すパラメーター
+     */
+    public void fire(P eventParams) {
+        // イベントハンドラーがなければ、キューに入れずに捨てる
+        if (eventHandlerList.isEmpty()) {
+            return;
+        }
+        synchronized (lockObj) {
+            // まとめて通知する場合は、通知待ちのイベントを新しいイベントで置き換える
+            if (isCoalescing && !pendingEventQueue.isEmpty()) {
+                coalescedEventCount += pendingEventQueue.size();
+                pendingEventQueue.clear();
+            }
 
-        initializeEventDispatcher();
+            // キューの上限に達している場合は、指定された扱いに従う
+            if (pendingEventQueue.size() >= capacity) {
+                switch (overflowPolicy) {
+                case DROP_OLDEST:
+                    pendingEventQueue.poll();
+                    droppedEventCount++;
+                    break;
+                case DROP_NEWEST:
+                    droppedEventCount++;
+                    return;
+                case BLOCK:
+                    awaitCapacity();
+                    break;
+                default:
+                    throw new IllegalStateException();
+                }
+            }
+
+            pendingEventQueue.add(eventParams);
+            if (isDraining) {
+                return;
+            }
+            isDraining = true;
+        }
+
+        // 実行環境に処理を渡すのは排他制御の外側で行う（直接呼び出す実行環境では、ここで通知する）
+        dispatch();
     }
 
     /**
-     * スレッドプールをキュー上限なしの単一スレッドで初期化します。
-     * スレッドプールはデーモンスレッドで動作します。
+     * 通知待ちのイベントを通知する処理を実行環境に渡します。
+     * 実行環境を停止した後の場合は、通知待ちのイベントを捨てます。
      */
-    private void initializeEventDispatcher() {
-        // デーモンスレッドを扱うために独自の ThreadFactory を用意する
-        var threadFactory = new ThreadFactory() {
+    private void dispatch() {
+        try {
+            eventDispatcher.execute(createCommand());
+        } catch (RejectedExecutionException e) {
+            synchronized (lockObj) {
+                droppedEventCount += pendingEventQueue.size();
+                pendingEventQueue.clear();
+                isDraining = false;
+                lockObj.notifyAll();
+            }
+        }
+    }
 
-            @Override
-            public Thread newThread(Runnable r) {
-                var thread = new Thread(r);
-                thread.setDaemon(true);
-                return thread;
+    /**
+     * 通知待ちのキューに空きができるまで待ちます。
+     * イベントを通知するスレッドから呼び出された場合は、待つと通知が進まなくなるため待ちません。
+     * 排他制御の内側で呼び出す必要があります。
+     */
+    private void awaitCapacity() {
+        boolean isDrainingThread = isDelegatingToEDT() ? SwingUtilities.isEventDispatchThread()
+            : Thread.currentThread() == drainingThread;
+        if (isDrainingThread) {
+            return;
+        }
+        try {
+            while (pendingEventQueue.size() >= capacity) {
+                lockObj.wait();
             }
-        };
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-        // キュー上限なしの単一スレッドで動作するスレッドプールを生成する
-        eventDispatcher = Executors.newSingleThreadExecutor(threadFactory);
+    /**
+     * 通知待ちのイベントを 1 件取り出して、保持しているイベントハンドラーに通知します。
+     * 通知待ちのイベントが残っている場合は、改めて実行環境に渡します。
+     *
+     * <p>
+     * 1 件ずつ渡し直すことで、イベントディスパッチスレッドで通知する場合も、描画などの他の処理を妨げないようにします。
+     * 直接呼び出す実行環境の場合は、渡し直すと呼び出しが深くなるため、キューが空になるまで続けて通知します。
+     * </p>
+     */
+    private void drain() {
+        boolean isRemaining = false;
+        try {
+            do {
+                P eventParams;
+                synchronized (lockObj) {
+                    eventParams = pendingEventQueue.poll();
+                    drainingThread = Thread.currentThread();
+
+                    // キューに空きができたため、待っているスレッドを起こす
+                    lockObj.notifyAll();
+                }
+                try {
+                    // イベントハンドラーのリストは複製しながら変更されるため、排他制御をせずに走査できる
+                    eventHandlerList.stream().forEach(eventHandler -> notifyEventHandler(eventHandler, eventParams));
+                } finally {
+                    synchronized (lockObj) {
+                        drainingThread = null;
+                        isRemaining = !pendingEventQueue.isEmpty();
+                        if (!isRemaining) {
+                            isDraining = false;
+                        }
+                    }
+                }
+            } while (isRemaining && eventDispatcher.isSynchronous());
+        } finally {
+            // イベントハンドラーから Error が抜けた場合も、残りのイベントは改めて実行環境に渡す
+            if (isRemaining) {
+                dispatch();
+            }
+        }
     }
 
     /**
-     * イベントハンドラーを追加します。
+     * 指定されたイベントハンドラーにイベントを通知します。
+     *
+     * <p>
+     * イベントハンドラーで発生した実行時例外は、通知しているスレッドの UncaughtExceptionHandler に渡します。
+     * 1 つのイベントハンドラーで例外が発生しても、他のイベントハンドラーや後続のイベントへの通知は続けます。
+     * </p>
      *
      * @param eventHandler イベントハンドラー
+     * @param eventParams イベント通知先に渡すパラメーター
      */
-    public void addEventHandler(BiConsumer<S, P> eventHandler) {
+    private void notifyEventHandler(BiConsumer<S, P> eventHandler, P eventParams) {
+        try {
+            eventHandler.accept(sender, eventParams);
+        } catch (RuntimeException e) {
+            var currentThread = Thread.currentThread();
+            currentThread.getUncaughtExceptionHandler().uncaughtException(currentThread, e);
+        }
+    }
+
+    /**
+     * AWT/Swing のイベントディスパッチスレッドに処理を委譲するかを判定します。
+     * 直接呼び出す実行環境の場合は委譲しません。
+     *
+     * @return 委譲する場合 true
+     */
+    private boolean isDelegatingToEDT() {
+        return isDelegateEDT && !eventDispatcher.isSynchronous();
+    }
+
+    /**
+     * キューの上限に達したために捨てたイベントの数を取得します。
+     *
+     * @return 捨てたイベントの数
+     */
+    public long getDroppedEventCount() {
         synchronized (lockObj) {
-            eventHandlerList.add(eventHandler);
+            return droppedEventCount;
         }
     }
 
     /**
-     * 保持しているイベントハンドラーにイベントを通知します。
+     * 新しいイベントにまとめたために捨てたイベントの数を取得します。
      *
-     * @param eventParams イベント通知先に渡すパラメーター
+     * @return まとめたイベントの数
      */
-    public void fire(P eventParams) {
+    public long getCoalescedEventCount() {
         synchronized (lockObj) {
-            eventHandlerList.stream().forEach(eventHandler -> {
-                var command = createCommand(eventHandler, eventParams);
-                eventDispatcher.execute(command);
-            });
+            return coalescedEventCount;
+        }
+    }
+
+    /**
+     * 通知待ちのイベントの数を取得します。
+     *
+     * @return 通知待ちのイベントの数
+     */
+    public int getPendingEventCount() {
+        synchronized (lockObj) {
+            return pendingEventQueue.size();
         }
     }
 
     /**
      * スレッドプールに渡すコマンドを生成します
      *
-     * @param eventHandler イベントハンドラー
-     * @param eventParams イベント通知先に渡すパラメーター
+     * <p>
+     * イベントディスパッチスレッドに処理を委譲する場合も、イベントはイベントハンドラーを呼び出すまでキューに残すため、
+     * 描画が追いつかない間に発生したイベントをまとめたり捨てたりできます。
+     * </p>
+     *
      * @return スレッドプールに渡すコマンド
      */
-    private Runnable createCommand(BiConsumer<S, P> eventHandler, P eventParams) {
-        if (isDelegateEDT) {
+    private Runnable createCommand() {
+        if (isDelegatingToEDT()) {
             // AWT/Swing のイベントディスパッチスレッドに処理を委譲する場合、
-            // イベントハンドラーの呼び出しを SwingUtilities.invokeLater でラップする
+            // 通知待ちのイベントの通知を SwingUtilities.invokeLater でラップする
             return () -> {
-                SwingUtilities.invokeLater(() -> eventHandler.accept(sender, eventParams));
+                SwingUtilities.invokeLater(() -> drain());
             };
         } else {
-            // 処理を委譲しない場合は、イベントハンドラーをそのまま呼び出す
-            return () -> eventHandler.accept(sender, eventParams);
+            // 処理を委譲しない場合は、通知待ちのイベントをそのまま通知する
+            return () -> drain();
         }
 
         // 上記の処理をラムダ式を使わずに記述するとしたら、以下のようになる
@@ -130,7 +420,7 @@ public class EventNotifier<S, P> {
         //                    SwingUtilities.invokeLater(new Runnable() {
         //                        @Override
         //                        public void run() {
-        //                            eventHandler.accept(sender, eventParams);
+        //                            drain();
         //                        }
         //                    });
         //                }
@@ -139,7 +429,7 @@ public class EventNotifier<S, P> {
         //            return new Runnable() {
         //                @Override
         //                public void run() {
-        //                    eventHandler.accept(sender, eventParams);
+        //                    drain();
         //                }
         //            };
         //        }
@@ -0,0 +1,282 @@
+package com.hs2n.exercise.lifegame.util;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * long 型の値をボクシングせずに保持する集合クラスです。
+ *
+ * <p>
+ * オープンアドレス法（線形探索）のハッシュ表で実装しています。
+ * 値 0 は空きスロットの目印に使うため、別のフラグで管理します。
+ * 要素数が容量の半分を超えたら容量を倍に拡張します。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ */
+public class LongHashSet {
+
+    /**
+     * 既定の初期容量です。
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * ハッシュ表です。値 0 のスロットは空きを表します。
+     */
+    private long[] keys;
+
+    /**
+     * ハッシュ表のインデックスを求めるためのマスクです。（容量 - 1）
+     */
+    private int mask;
+
+    /**
+     * 値 0 以外の要素数です。
+     */
+    private int keySize;
+
+    /**
+     * 値 0 を含むかを表すフラグです。
+     */
+    private boolean hasZero;
+
+    /**
+     * 空の集合を構築します。
+     */
+    public LongHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 指定された要素数を拡張せずに格納できる空の集合を構築します。
+     *
+     * @param expectedSize 想定する要素数
+     */
+    public LongHashSet(int expectedSize) {
+        allocate(toCapacity(expectedSize));
+    }
+
+    /**
+     * 指定された集合と同じ要素をもつ集合を構築します。
+     *
+     * @param source 複製元の集合
+     */
+    public LongHashSet(LongHashSet source) {
+        keys = source.keys.clone();
+        mask = source.mask;
+        keySize = source.keySize;
+        hasZero = source.hasZero;
+    }
+
+    /**
+     * 指定された要素数を格納するのに必要な容量を求めます。
+     *
+     * @param expectedSize 想定する要素数
+     * @return 2 のべき乗の容量
+     */
+    private static int toCapacity(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity / 2 < expectedSize) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+
+    /**
+     * 指定された容量でハッシュ表を割り当てます。
+     *
+     * @param capacity 2 のべき乗の容量
+     */
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        mask = capacity - 1;
+        keySize = 0;
+    }
+
+    /**
+     * 指定された値に対応するハッシュ表の初期位置を求めます。
+     *
+     * @param key 値
+     * @return ハッシュ表のインデックス
+     */
+    private int toSlot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * 要素を追加します。
+     *
+     * @param key 追加する値
+     * @return 集合が変化した場合 true
+     */
+    public boolean add(long key) {
+        if (key == 0L) {
+            boolean isAdded = !hasZero;
+            hasZero = true;
+            return isAdded;
+        }
+        int slot = toSlot(key);
+        while (keys[slot] != 0L) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        keySize++;
+
+        // 容量の半分を超えたら拡張する
+        if (keySize > keys.length / 2) {
+            rehash(keys.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * 要素を取り除きます。
+     *
+     * @param key 取り除く値
+     * @return 集合が変化した場合 true
+     */
+    public boolean remove(long key) {
+        if (key == 0L) {
+            boolean isRemoved = hasZero;
+            hasZero = false;
+            return isRemoved;
+        }
+        int slot = toSlot(key);
+        while (keys[slot] != key) {
+            if (keys[slot] == 0L) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // 線形探索の連なりが途切れないように、後続の要素を空きスロットに詰め直す
+        int emptySlot = slot;
+        int nextSlot = slot;
+        while (true) {
+            nextSlot = (nextSlot + 1) & mask;
+            long nextKey = keys[nextSlot];
+            if (nextKey == 0L) {
+                break;
+            }
+            // 後続の要素の初期位置が、空きスロットから後続の要素までの間（循環）になければ詰める
+            int homeSlot = toSlot(nextKey);
+            if (((nextSlot - homeSlot) & mask) >= ((nextSlot - emptySlot) & mask)) {
+                keys[emptySlot] = nextKey;
+                emptySlot = nextSlot;
+            }
+        }
+        keys[emptySlot] = 0L;
+        keySize--;
+        return true;
+    }
+
+    /**
+     * 要素を含むかを判定します。
+     *
+     * @param key 値
+     * @return 含む場合 true
+     */
+    public boolean contains(long key) {
+        if (key == 0L) {
+            return hasZero;
+        }
+        int slot = toSlot(key);
+        while (keys[slot] != 0L) {
+            if (keys[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * 要素数を取得します。
+     *
+     * @return 要素数
+     */
+    public int size() {
+        return keySize + (hasZero ? 1 : 0);
+    }
+
+    /**
+     * 空かどうかを判定します。
+     *
+     * @return 空の場合 true
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * すべての要素を取り除きます。容量はそのまま維持します。
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        keySize = 0;
+        hasZero = false;
+    }
+
+    /**
+     * すべての要素に対して指定された処理を実行します。
+     * 処理の順序は不定です。処理中に集合を変更してはいけません。
+     *
+     * @param action 要素ごとの処理
+     */
+    public void forEach(LongConsumer action) {
+        if (hasZero) {
+            action.accept(0L);
+        }
+        for (long key : keys) {
+            if (key != 0L) {
+                action.accept(key);
+            }
+        }
+    }
+
+    /**
+     * すべての要素を配列に格納して返します。
+     * 要素の順序は不定です。
+     *
+     * @return 要素の配列
+     */
+    public long[] toArray() {
+        var array = new long[size()];
+        int index = 0;
+        if (hasZero) {
+            array[index++] = 0L;
+        }
+        for (long key : keys) {
+            if (key != 0L) {
+                array[index++] = key;
+            }
+        }
+        return array;
+    }
+
+    /**
+     * 指定された容量のハッシュ表に要素を詰め直します。
+     *
+     * @param capacity 2 のべき乗の容量
+     */
+    private void rehash(int capacity) {
+        var oldKeys = keys;
+        allocate(capacity);
+        for (long key : oldKeys) {
+            if (key != 0L) {
+                int slot = toSlot(key);
+                while (keys[slot] != 0L) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                keySize++;
+            }
+        }
+    }
+}
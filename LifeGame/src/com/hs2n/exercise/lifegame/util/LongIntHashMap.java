@@ -0,0 +1,208 @@
+package com.hs2n.exercise.lifegame.util;
+
+import java.util.Arrays;
+
+/**
+ * long 型のキーに対する int 型の値をボクシングせずに保持するマップクラスです。
+ *
+ * <p>
+ * {@link LongHashSet} と同じく、オープンアドレス法（線形探索）のハッシュ表で実装しています。
+ * 主にキーごとの出現回数を数える用途を想定しているため、要素の削除は用意していません。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ */
+public class LongIntHashMap {
+
+    /**
+     * キーと値の組を受け取る処理を表す関数型インターフェースです。
+     *
+     * @author Juno NISHIZAKI
+     *
+     */
+    @FunctionalInterface
+    public interface LongIntConsumer {
+
+        /**
+         * キーと値の組に対して処理を実行します。
+         *
+         * @param key キー
+         * @param value 値
+         */
+        void accept(long key, int value);
+    }
+
+    /**
+     * 既定の初期容量です。
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * ハッシュ表のキーです。キー 0 のスロットは空きを表します。
+     */
+    private long[] keys;
+
+    /**
+     * ハッシュ表の値です。
+     */
+    private int[] values;
+
+    /**
+     * ハッシュ表のインデックスを求めるためのマスクです。（容量 - 1）
+     */
+    private int mask;
+
+    /**
+     * キー 0 以外の要素数です。
+     */
+    private int keySize;
+
+    /**
+     * キー 0 を含むかを表すフラグです。
+     */
+    private boolean hasZero;
+
+    /**
+     * キー 0 に対応する値です。
+     */
+    private int zeroValue;
+
+    /**
+     * 空のマップを構築します。
+     */
+    public LongIntHashMap() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 指定された容量でハッシュ表を割り当てます。
+     *
+     * @param capacity 2 のべき乗の容量
+     */
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        keySize = 0;
+    }
+
+    /**
+     * 指定されたキーに対応するハッシュ表の初期位置を求めます。
+     *
+     * @param key キー
+     * @return ハッシュ表のインデックス
+     */
+    private int toSlot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * 指定されたキーに対応する値を 1 増やします。
+     * キーが存在しない場合は、値 1 で追加します。
+     *
+     * @param key キー
+     */
+    public void increment(long key) {
+        if (key == 0L) {
+            zeroValue = hasZero ? zeroValue + 1 : 1;
+            hasZero = true;
+            return;
+        }
+        int slot = toSlot(key);
+        while (keys[slot] != 0L) {
+            if (keys[slot] == key) {
+                values[slot]++;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = 1;
+        keySize++;
+
+        // 容量の半分を超えたら拡張する
+        if (keySize > keys.length / 2) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    /**
+     * 指定されたキーに対応する値を取得します。
+     *
+     * @param key キー
+     * @return 値（キーが存在しない場合は 0）
+     */
+    public int get(long key) {
+        if (key == 0L) {
+            return hasZero ? zeroValue : 0;
+        }
+        int slot = toSlot(key);
+        while (keys[slot] != 0L) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    /**
+     * 要素数を取得します。
+     *
+     * @return 要素数
+     */
+    public int size() {
+        return keySize + (hasZero ? 1 : 0);
+    }
+
+    /**
+     * すべての要素を取り除きます。容量はそのまま維持します。
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        keySize = 0;
+        hasZero = false;
+    }
+
+    /**
+     * すべての要素に対して指定された処理を実行します。
+     * 処理の順序は不定です。処理中にマップを変更してはいけません。
+     *
+     * @param action キーと値の組ごとの処理
+     */
+    public void forEach(LongIntConsumer action) {
+        if (hasZero) {
+            action.accept(0L, zeroValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0L) {
+                action.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    /**
+     * 指定された容量のハッシュ表に要素を詰め直します。
+     *
+     * @param capacity 2 のべき乗の容量
+     */
+    private void rehash(int capacity) {
+        var oldKeys = keys;
+        var oldValues = values;
+        allocate(capacity);
+        for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+            long key = oldKeys[oldSlot];
+            if (key != 0L) {
+                int slot = toSlot(key);
+                while (keys[slot] != 0L) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[oldSlot];
+                keySize++;
+            }
+        }
+    }
+}
@@ -3,8 +3,12 @@ package com.hs2n.exercise.lifegame.view;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.GridLayout;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.IntStream;
 
 import javax.swing.JButton;
@@ -17,30 +21,51 @@ import javax.swing.Timer;
 import javax.swing.border.LineBorder;
 
 import com.hs2n.exercise.lifegame.model.LifeGame;
-import com.hs2n.exercise.lifegame.model.core.AbstractLifeGameField;
+import com.hs2n.exercise.lifegame.model.core.IEditableLifeGameField;
 import com.hs2n.exercise.lifegame.model.core.Position;
 import com.hs2n.exercise.lifegame.view.component.AbstractCellComponent;
 
 /**
  * ライフゲームの画面を生成する共通の抽象クラスです。
  *
+ * <p>
+ * ボタンやタイマーからのモデルの操作は、モデルのシミュレーションスレッドに非同期で依頼します。
+ * イベントディスパッチスレッドでは世代の計算を待たずに、モデルから通知されるイベントを契機に描画だけを行います。
+ * </p>
+ *
  * @author Juno NISHIZAKI
  *
  * @param <L> 生命体の型
  * @param <F> 二次元平面の型
  */
-public abstract class AbstractLifeGameView<L, F extends AbstractLifeGameField<L>> {
+public abstract class AbstractLifeGameView<L, F extends IEditableLifeGameField<L>> {
 
     private static final int DEFAULT_CELL_SIZE = 12;
     private static final double DEFAULT_BIRTH_RATE = 0.3;
 
+    /**
+     * 自動で次の世代に送る間隔（ミリ秒）です。
+     */
+    private static final int AUTO_NEXT_INTERVAL = 500;
+
     protected LifeGame<L, F> lifeGame;
 
     private int cellSize = DEFAULT_CELL_SIZE;
     private double birthRate = DEFAULT_BIRTH_RATE;
 
+    /**
+     * 同じ状態の繰り返しを検出したときに、自動で次の世代に送るのを止めるかを表すフラグです。
+     */
+    private boolean isAutoNextStoppedOnCycle = true;
+
     private boolean isLaunched = false;
 
+    /**
+     * 自動で次の世代に送るために依頼した操作の Future です。依頼していない場合は null です。
+     * 前の依頼が完了するまでは、次の依頼をしないようにするために使用します。
+     */
+    private CompletableFuture<Void> autoNextFuture;
+
     private JPanel fieldPanel;
     private Map<Position, AbstractCellComponent<L, F>> cellComponents;
 
@@ -53,6 +78,7 @@ public abstract class AbstractLifeGameView<L, F extends AbstractLifeGameField<L>
 
     private JLabel currentGenerationLabel;
     private JLabel calculatedGenerationLabel;
+    private JLabel cycleLabel;
 
     private void createAndShow() {
         // 二次元平面のパネルを生成する
@@ -70,6 +96,17 @@ public abstract class AbstractLifeGameView<L, F extends AbstractLifeGameField<L>
         frame.setLocation(20, 20);
         frame.setResizable(false);
 
+        // フレームを閉じたら、自動で次の世代に送るのを止めて、モデルのスレッドや履歴を解放する
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent event) {
+                if (autoNextButton.isSelected()) {
+                    autoNextButton.doClick();
+                }
+                lifeGame.close();
+            }
+        });
+
         // フレームにパネルを追加する
         final var contentPane = frame.getContentPane();
         contentPane.setLayout(new FlowLayout());
@@ -106,19 +143,19 @@ public abstract class AbstractLifeGameView<L, F extends AbstractLifeGameField<L>
 
     private void createControlPanel() {
         resetButton = new JButton("リセット");
-        resetButton.addActionListener(event -> lifeGame.reset());
+        resetButton.addActionListener(event -> lifeGame.runAsync(LifeGame::reset));
 
         generateLifeButton = new JButton("ランダム生成");
-        generateLifeButton.addActionListener(event -> lifeGame.generateLife(birthRate));
+        generateLifeButton.addActionListener(event -> lifeGame.runAsync(game -> game.generateLife(birthRate)));
 
         previousButton = new JButton("前の世代");
-        previousButton.addActionListener(event -> lifeGame.previous());
+        previousButton.addActionListener(event -> lifeGame.runAsync(LifeGame::previous));
         previousButton.setEnabled(false);
 
         nextButton = new JButton("次の世代");
-        nextButton.addActionListener(event -> lifeGame.next());
+        nextButton.addActionListener(event -> lifeGame.nextAsync());
 
-        final var nextTimer = new Timer(500, event -> lifeGame.next());
+        final var nextTimer = new Timer(AUTO_NEXT_INTERVAL, event -> requestAutoNext());
         autoNextButton = new JToggleButton("自動で次の世代に送る");
         autoNextButton.addActionListener(event -> {
             if (autoNextButton.isSelected()) {
@@ -126,12 +163,14 @@ public abstract class AbstractLifeGameView<L, F extends AbstractLifeGameField<L>
                 setButtonsEnabledForAutoNext(false);
             } else {
                 nextTimer.stop();
+                cancelAutoNext();
                 setButtonsEnabledForAutoNext(true);
             }
         });
 
         currentGenerationLabel = new JLabel(createCurrentGenerationText());
         calculatedGenerationLabel = new JLabel(createCalculatedGenerationText());
+        cycleLabel = new JLabel(createCycleText());
 
         controlPanel = new JPanel();
         controlPanel.setPreferredSize(new Dimension(200, 500));
@@ -142,6 +181,43 @@ public abstract class AbstractLifeGameView<L, F extends AbstractLifeGameField<L>
         controlPanel.add(autoNextButton);
         controlPanel.add(currentGenerationLabel);
         controlPanel.add(calculatedGenerationLabel);
+        controlPanel.add(cycleLabel);
+
+        // サブクラス側で独自のコントロールを追加する
+        addControls(controlPanel);
+    }
+
+    /**
+     * コントロールパネルに独自のコントロールを追加します。
+     * 既定の実装では何もしません。
+     *
+     * @param controlPanel コントロールパネル
+     */
+    protected void addControls(JPanel controlPanel) {}
+
+    /**
+     * 自動で次の世代に送る操作をモデルに依頼します。
+     *
+     * <p>
+     * 前の依頼が完了していない場合は、計算が追いついていないため依頼しません。
+     * 依頼には送る間隔を期限として指定して、期限までに始まらなかった依頼は捨てるようにします。
+     * </p>
+     */
+    private void requestAutoNext() {
+        if (autoNextFuture != null && !autoNextFuture.isDone()) {
+            return;
+        }
+        autoNextFuture = lifeGame.nextAsync(Duration.ofMillis(AUTO_NEXT_INTERVAL));
+    }
+
+    /**
+     * 自動で次の世代に送るために依頼した操作のうち、まだ始まっていないものを取り消します。
+     */
+    private void cancelAutoNext() {
+        if (autoNextFuture != null) {
+            autoNextFuture.cancel(false);
+            autoNextFuture = null;
+        }
     }
 
     private void setButtonsEnabledForAutoNext(boolean isEnabled) {
@@ -167,6 +243,13 @@ public abstract class AbstractLifeGameView<L, F extends AbstractLifeGameField<L>
         return String.format("計算済みの世代数： %4d", lifeGame.getCalculatedGenerationSize());
     }
 
+    private String createCycleText() {
+        if (!lifeGame.isCycleDetected()) {
+            return "周期： 未検出";
+        }
+        return String.format("周期： %d（%d 世代目から）", lifeGame.getCyclePeriod(), lifeGame.getCycleStartIndex() + 1);
+    }
+
     /**
      * 平面全体が変化したときのイベントハンドラー
      *
@@ -180,10 +263,25 @@ public abstract class AbstractLifeGameView<L, F extends AbstractLifeGameField<L>
             previousButton.setEnabled(!sender.isFirstGeneration());
         }
 
+        // 同じ状態の繰り返しを検出した場合、自動で次の世代に送るのを止める
+        // （トグルボタンをクリックしたことにして、タイマーの停止とボタンの有効化をあわせて行う）
+        if (isAutoNextStoppedOnCycle && autoNextButton.isSelected() && sender.isCycleDetected()) {
+            autoNextButton.doClick();
+        }
+
         // ラベルを更新する
         currentGenerationLabel.setText(createCurrentGenerationText());
         calculatedGenerationLabel.setText(createCalculatedGenerationText());
+        cycleLabel.setText(createCycleText());
 
+        // 二次元平面のパネル全体を更新する
+        refreshFieldPanel();
+    }
+
+    /**
+     * 全セルのツールチップを更新して、二次元平面のパネル全体を再描画します。
+     */
+    protected void refreshFieldPanel() {
         // 全セルのツールチップを更新する
         cellComponents.entrySet().stream()
             .forEach(entry -> entry.getValue().updateToolTipText());
@@ -234,6 +332,20 @@ public abstract class AbstractLifeGameView<L, F extends AbstractLifeGameField<L>
         return this;
     }
 
+    /**
+     * 同じ状態の繰り返しを検出したときに、自動で次の世代に送るのを止めるかを設定します。
+     * 既定では止めます。
+     *
+     * @param isAutoNextStoppedOnCycle 止める場合 true
+     * @return この画面
+     */
+    public final AbstractLifeGameView<L, F> autoNextStoppedOnCycle(boolean isAutoNextStoppedOnCycle) {
+        validateReadyState();
+
+        this.isAutoNextStoppedOnCycle = isAutoNextStoppedOnCycle;
+        return this;
+    }
+
     public final void launch() {
         validateReadyState();
 
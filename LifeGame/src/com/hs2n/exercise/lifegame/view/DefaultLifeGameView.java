@@ -1,24 +1,45 @@
 package com.hs2n.exercise.lifegame.view;
 
+import com.hs2n.exercise.lifegame.model.BitBoardLifeGameField;
 import com.hs2n.exercise.lifegame.model.DefaultLifeGameField;
+import com.hs2n.exercise.lifegame.model.LifeLikeRule;
 import com.hs2n.exercise.lifegame.model.MonoLife;
 import com.hs2n.exercise.lifegame.model.core.Position;
 import com.hs2n.exercise.lifegame.view.component.DefaultCellComponent;
 
 public class DefaultLifeGameView extends AbstractLifeGameView<MonoLife, DefaultLifeGameField> {
 
+    private final LifeLikeRule rule;
+
+    /**
+     * 標準のライフゲームの画面を生成するインスタンスを構築します。
+     */
+    public DefaultLifeGameView() {
+        this(LifeLikeRule.CONWAY);
+    }
+
+    /**
+     * 指定されたルールのライフゲームの画面を生成するインスタンスを構築します。
+     *
+     * @param rule ルール
+     */
+    public DefaultLifeGameView(LifeLikeRule rule) {
+        this.rule = rule;
+    }
+
     @Override
     protected DefaultLifeGameField createLifeGameField(int rowSize, int columnSize) {
-        return new DefaultLifeGameField(rowSize, columnSize);
+        return new BitBoardLifeGameField(rowSize, columnSize, rule);
     }
 
     @Override
-    protected DefaultCellComponent createCellComponent(Position position) {
-        return new DefaultCellComponent(lifeGame, position);
+    protected DefaultCellComponent<DefaultLifeGameField> createCellComponent(Position position) {
+        return new DefaultCellComponent<>(lifeGame, position);
     }
 
     @Override
     protected String getName() {
-        return "標準";
+        // 標準以外のルールでは、ルール文字列を名前とする
+        return rule.equals(LifeLikeRule.CONWAY) ? "標準" : rule.toString();
     }
 }
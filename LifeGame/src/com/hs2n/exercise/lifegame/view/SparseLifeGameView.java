@@ -0,0 +1,89 @@
+package com.hs2n.exercise.lifegame.view;
+
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+
+import com.hs2n.exercise.lifegame.model.MonoLife;
+import com.hs2n.exercise.lifegame.model.SparseLifeGameField;
+import com.hs2n.exercise.lifegame.model.core.Position;
+import com.hs2n.exercise.lifegame.view.component.DefaultCellComponent;
+
+/**
+ * 果てのない二次元平面のライフゲームの画面を生成するクラスです。
+ *
+ * <p>
+ * 二次元平面のうち表示範囲（ビューポート）の部分だけを表示します。
+ * コントロールパネルの矢印ボタンで表示範囲を移動できます。
+ * また、HashLife を使用して多数の世代を一気に進めることができます。
+ * </p>
+ *
+ * @author Juno NISHIZAKI
+ *
+ */
+public class SparseLifeGameView extends AbstractLifeGameView<MonoLife, SparseLifeGameField> {
+
+    /**
+     * 表示範囲の移動量の、表示範囲の大きさに対する割合です。
+     */
+    private static final int MOVE_DIVISOR = 4;
+
+    /**
+     * 一気に進める世代数です。
+     */
+    private static final long ADVANCE_GENERATIONS = 1024;
+
+    private SparseLifeGameField lifeGameField;
+
+    private JLabel originLabel;
+
+    @Override
+    protected SparseLifeGameField createLifeGameField(int rowSize, int columnSize) {
+        // 表示範囲を移動するために、二次元平面のインスタンスを保持しておく
+        lifeGameField = new SparseLifeGameField(rowSize, columnSize);
+        return lifeGameField;
+    }
+
+    @Override
+    protected DefaultCellComponent<SparseLifeGameField> createCellComponent(Position position) {
+        return new DefaultCellComponent<>(lifeGame, position);
+    }
+
+    @Override
+    protected void addControls(JPanel controlPanel) {
+        int rowStep = Math.max(1, lifeGameField.getRowSize() / MOVE_DIVISOR);
+        int columnStep = Math.max(1, lifeGameField.getColumnSize() / MOVE_DIVISOR);
+
+        controlPanel.add(createMoveButton("↑", -rowStep, 0));
+        controlPanel.add(createMoveButton("↓", rowStep, 0));
+        controlPanel.add(createMoveButton("←", 0, -columnStep));
+        controlPanel.add(createMoveButton("→", 0, columnStep));
+
+        originLabel = new JLabel(createOriginText());
+        controlPanel.add(originLabel);
+
+        // 表示範囲の移動は平面変化のイベントで通知されるため、あわせて表示位置のラベルを更新する
+        lifeGame.addFieldChangedEventHandler((sender, eventParams) -> originLabel.setText(createOriginText()));
+
+        var advanceButton = new JButton(String.format("%d 世代進める", ADVANCE_GENERATIONS));
+        advanceButton.addActionListener(event -> lifeGame.advanceAsync(ADVANCE_GENERATIONS));
+        controlPanel.add(advanceButton);
+    }
+
+    private JButton createMoveButton(String text, int rowDelta, int columnDelta) {
+        var button = new JButton(text);
+        // 表示範囲はセルの編集などと同じく、シミュレーションスレッドで順番に移動する
+        button.addActionListener(event -> lifeGame.runAsync(
+            game -> game.configureLifeGameField(field -> field.moveViewport(rowDelta, columnDelta))));
+        return button;
+    }
+
+    private String createOriginText() {
+        return String.format("表示位置： (%d, %d)", lifeGameField.getOriginRow(), lifeGameField.getOriginColumn());
+    }
+
+    @Override
+    protected String getName() {
+        return "無限平面";
+    }
+}
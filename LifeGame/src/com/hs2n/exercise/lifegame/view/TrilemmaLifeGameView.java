@@ -3,13 +3,17 @@ package com.hs2n.exercise.lifegame.view;
 import com.hs2n.exercise.lifegame.model.TrilemmaLife;
 import com.hs2n.exercise.lifegame.model.TrilemmaLifeGameField;
 import com.hs2n.exercise.lifegame.model.core.Position;
+import com.hs2n.exercise.lifegame.model.core.UpdateMode;
 import com.hs2n.exercise.lifegame.view.component.TrilemmaCellComponent;
 
 public class TrilemmaLifeGameView extends AbstractLifeGameView<TrilemmaLife, TrilemmaLifeGameField> {
 
     @Override
     protected TrilemmaLifeGameField createLifeGameField(int rowSize, int columnSize) {
-        return new TrilemmaLifeGameField(rowSize, columnSize);
+        // 大部分のセルが早いうちに落ち着くため、変化したセルの周辺だけを更新する
+        var lifeGameField = new TrilemmaLifeGameField(rowSize, columnSize);
+        lifeGameField.setUpdateMode(UpdateMode.ACTIVE_SET);
+        return lifeGameField;
     }
 
     @Override
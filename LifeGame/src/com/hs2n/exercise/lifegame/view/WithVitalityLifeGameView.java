@@ -3,13 +3,17 @@ package com.hs2n.exercise.lifegame.view;
 import com.hs2n.exercise.lifegame.model.MonoLifeWithVitality;
 import com.hs2n.exercise.lifegame.model.WithVitalityLifeGameField;
 import com.hs2n.exercise.lifegame.model.core.Position;
+import com.hs2n.exercise.lifegame.model.core.UpdateMode;
 import com.hs2n.exercise.lifegame.view.component.WithVitalityCellComponent;
 
 public class WithVitalityLifeGameView extends AbstractLifeGameView<MonoLifeWithVitality, WithVitalityLifeGameField> {
 
     @Override
     protected WithVitalityLifeGameField createLifeGameField(int rowSize, int columnSize) {
-        return new WithVitalityLifeGameField(rowSize, columnSize);
+        // 大部分のセルが早いうちに落ち着くため、変化したセルの周辺だけを更新する
+        var lifeGameField = new WithVitalityLifeGameField(rowSize, columnSize);
+        lifeGameField.setUpdateMode(UpdateMode.ACTIVE_SET);
+        return lifeGameField;
     }
 
     @Override
@@ -8,11 +8,11 @@ import java.awt.event.MouseEvent;
 import javax.swing.JComponent;
 
 import com.hs2n.exercise.lifegame.model.LifeGame;
-import com.hs2n.exercise.lifegame.model.core.AbstractLifeGameField;
 import com.hs2n.exercise.lifegame.model.core.ICell;
+import com.hs2n.exercise.lifegame.model.core.IEditableLifeGameField;
 import com.hs2n.exercise.lifegame.model.core.Position;
 
-public abstract class AbstractCellComponent<L, F extends AbstractLifeGameField<L>> extends JComponent {
+public abstract class AbstractCellComponent<L, F extends IEditableLifeGameField<L>> extends JComponent {
 
     protected LifeGame<L, F> lifeGame;
 
@@ -30,12 +30,13 @@ public abstract class AbstractCellComponent<L, F extends AbstractLifeGameField<L
                 if (!lifeGame.isInitialState()) {
                     return;
                 }
+                // セルの編集はモデルのシミュレーションスレッドに依頼する
                 switch (e.getButton()) {
                 case MouseEvent.BUTTON1:
-                    lifeGame.rotateCellStateAt(position);
+                    lifeGame.runAsync(game -> game.rotateCellStateAt(position));
                     break;
                 case MouseEvent.BUTTON3:
-                    lifeGame.toggleCellAt(position);
+                    lifeGame.runAsync(game -> game.toggleCellAt(position));
                     break;
                 default:
                     break;
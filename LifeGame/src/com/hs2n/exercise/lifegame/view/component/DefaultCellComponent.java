@@ -3,15 +3,15 @@ package com.hs2n.exercise.lifegame.view.component;
 import java.awt.Color;
 import java.awt.Graphics;
 
-import com.hs2n.exercise.lifegame.model.DefaultLifeGameField;
 import com.hs2n.exercise.lifegame.model.LifeGame;
 import com.hs2n.exercise.lifegame.model.MonoLife;
 import com.hs2n.exercise.lifegame.model.core.ICell;
+import com.hs2n.exercise.lifegame.model.core.IEditableLifeGameField;
 import com.hs2n.exercise.lifegame.model.core.Position;
 
-public class DefaultCellComponent extends AbstractCellComponent<MonoLife, DefaultLifeGameField> {
+public class DefaultCellComponent<F extends IEditableLifeGameField<MonoLife>> extends AbstractCellComponent<MonoLife, F> {
 
-    public DefaultCellComponent(LifeGame<MonoLife, DefaultLifeGameField> lifeGame, Position position) {
+    public DefaultCellComponent(LifeGame<MonoLife, F> lifeGame, Position position) {
         super(lifeGame, position);
     }
 
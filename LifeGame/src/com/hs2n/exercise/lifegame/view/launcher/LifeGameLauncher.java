@@ -4,9 +4,13 @@ import java.awt.FlowLayout;
 
 import javax.swing.JButton;
 import javax.swing.JFrame;
+import javax.swing.JOptionPane;
+import javax.swing.JTextField;
 import javax.swing.SwingUtilities;
 
+import com.hs2n.exercise.lifegame.model.LifeLikeRule;
 import com.hs2n.exercise.lifegame.view.DefaultLifeGameView;
+import com.hs2n.exercise.lifegame.view.SparseLifeGameView;
 import com.hs2n.exercise.lifegame.view.TrilemmaLifeGameView;
 import com.hs2n.exercise.lifegame.view.WithVitalityLifeGameView;
 
@@ -38,6 +42,30 @@ public class LifeGameLauncher {
                 .launch();
         });
 
+        final var sparseLifeGameButton = new JButton("無限平面");
+        sparseLifeGameButton.addActionListener(event -> {
+            new SparseLifeGameView()
+                .newLifeGame(40, 40)
+                .launch();
+        });
+
+        final var rulestringField = new JTextField("B36/S23", 10);
+        final var lifeLikeLifeGameButton = new JButton("ルール指定");
+        lifeLikeLifeGameButton.addActionListener(event -> {
+            // B/S 表記のルール文字列を解析して、任意の Life-like なルールで起動する
+            LifeLikeRule rule;
+            try {
+                rule = LifeLikeRule.parse(rulestringField.getText());
+            } catch (IllegalArgumentException e) {
+                JOptionPane.showMessageDialog(null, "B/S 表記のルール文字列（例：B36/S23）を入力してください。",
+                    "ルール指定", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            new DefaultLifeGameView(rule)
+                .newLifeGame(40, 40)
+                .launch();
+        });
+
         final var frame = new JFrame("ライフゲーム");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setLocation(10, 10);
@@ -48,6 +76,9 @@ public class LifeGameLauncher {
         contentPane.add(defaultLifeGameButton);
         contentPane.add(trilemmaLifeGameButton);
         contentPane.add(withVitalityLifeGameButton);
+        contentPane.add(sparseLifeGameButton);
+        contentPane.add(rulestringField);
+        contentPane.add(lifeLikeLifeGameButton);
 
         frame.pack();
         frame.setVisible(true);